@@ -0,0 +1,101 @@
+package ru.clevertec.product.benchmark;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.database.connnection.AppConnection;
+import ru.clevertec.product.repository.database.data.impl.LiquibaseDatabaseManagerImpl;
+import ru.clevertec.product.repository.database.service.DatabaseService;
+import ru.clevertec.product.repository.database.service.impl.H2DatabaseService;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость findById через сессию и транзакцию Hibernate к H2 в режиме, заданном в benchmark.yml,
+ * заполненной changelog Liquibase и дополненной до размера каталога
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InMemoryProductRepositoryBenchmark {
+
+    private static final String PROPERTIES = "benchmark.yml";
+
+    private static final String COUNT_QUERY = "SELECT count(p) FROM Product p";
+    private static final String UUID_QUERY = "SELECT p.uuid FROM Product p";
+    private static final String FILL_QUERY = "INSERT INTO product (name, description, price, created) "
+                                             + "SELECT 'Печенье', 'Сладости мучные', MOD(X, 1000) + 1, "
+                                             + "DATEADD(SECOND, X, CURRENT_TIMESTAMP) "
+                                             + "FROM SYSTEM_RANGE(1, :count)";
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    private DatabaseService databaseService;
+    private SessionFactory sessionFactory;
+    private ProductRepository productRepository;
+
+    private UUID[] uuids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        databaseService = new H2DatabaseService(PROPERTIES);
+        databaseService.start();
+
+        new LiquibaseDatabaseManagerImpl(PROPERTIES).loadData();
+
+        sessionFactory = new AppConnection(PROPERTIES).getSessionFactory();
+        productRepository = new InMemoryProductRepository(sessionFactory);
+
+        sessionFactory.inTransaction(session -> {
+            long existing = session.createQuery(COUNT_QUERY, Long.class).getSingleResult();
+
+            if (existing < catalogSize) {
+                session.createNativeMutationQuery(FILL_QUERY)
+                       .setParameter("count", catalogSize - existing)
+                       .executeUpdate();
+            }
+        });
+
+        uuids = sessionFactory.fromTransaction(session -> session.createQuery(UUID_QUERY, UUID.class)
+                                                                 .getResultList()
+                                                                 .toArray(UUID[]::new));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        AppConnection.shutdown();
+        databaseService.stop();
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        UUID uuid = uuids[next];
+        next = (next + 1) % uuids.length;
+
+        Session session = sessionFactory.getCurrentSession();
+        Transaction transaction = session.beginTransaction();
+
+        Optional<Product> product = productRepository.findById(uuid);
+
+        transaction.commit();
+
+        return product;
+    }
+}
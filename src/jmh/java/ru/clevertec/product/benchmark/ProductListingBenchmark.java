@@ -0,0 +1,105 @@
+package ru.clevertec.product.benchmark;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.mapper.ProductMapper;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.database.connnection.AppConnection;
+import ru.clevertec.product.repository.database.data.impl.LiquibaseDatabaseManagerImpl;
+import ru.clevertec.product.repository.database.service.DatabaseService;
+import ru.clevertec.product.repository.database.service.impl.H2DatabaseService;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Стоимость получения всего каталога в виде DTO: управляемые сущности, преобразованные
+ * ProductMapper, против выражения конструктора, выбирающего сразу в DTO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductListingBenchmark {
+
+    private static final String PROPERTIES = "benchmark.yml";
+
+    private static final String COUNT_QUERY = "SELECT count(p) FROM Product p";
+    private static final String FILL_QUERY = "INSERT INTO product (name, description, price, created) "
+                                             + "SELECT 'Печенье', 'Сладости мучные', MOD(X, 1000) + 1, "
+                                             + "DATEADD(SECOND, X, CURRENT_TIMESTAMP) "
+                                             + "FROM SYSTEM_RANGE(1, :count)";
+
+    @Param({"1000", "10000", "100000"})
+    private int catalogSize;
+
+    private DatabaseService databaseService;
+    private SessionFactory sessionFactory;
+    private ProductRepository productRepository;
+    private ProductMapper productMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        databaseService = new H2DatabaseService(PROPERTIES);
+        databaseService.start();
+
+        new LiquibaseDatabaseManagerImpl(PROPERTIES).loadData();
+
+        sessionFactory = new AppConnection(PROPERTIES).getSessionFactory();
+        productRepository = new InMemoryProductRepository(sessionFactory);
+        productMapper = new ProductMapperImpl();
+
+        sessionFactory.inTransaction(session -> {
+            long existing = session.createQuery(COUNT_QUERY, Long.class).getSingleResult();
+
+            if (existing < catalogSize) {
+                session.createNativeMutationQuery(FILL_QUERY)
+                       .setParameter("count", catalogSize - existing)
+                       .executeUpdate();
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        AppConnection.shutdown();
+        databaseService.stop();
+    }
+
+    @Benchmark
+    public List<InfoProductDto> findAllMapped() {
+        return inTransaction(() -> productRepository.findAll().stream()
+                                                    .map(productMapper::toInfoProductDto)
+                                                    .toList());
+    }
+
+    @Benchmark
+    public List<InfoProductDto> findAllInfo() {
+        return inTransaction(productRepository::findAllInfo);
+    }
+
+    private List<InfoProductDto> inTransaction(Supplier<List<InfoProductDto>> listing) {
+        Session session = sessionFactory.getCurrentSession();
+        Transaction transaction = session.beginTransaction();
+
+        List<InfoProductDto> infoProductDtos = listing.get();
+
+        transaction.commit();
+
+        return infoProductDtos;
+    }
+}
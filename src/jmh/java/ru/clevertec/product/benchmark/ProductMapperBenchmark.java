@@ -0,0 +1,62 @@
+package ru.clevertec.product.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.mapper.ProductMapper;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость преобразования одного продукта между сущностью и DTO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductMapperBenchmark {
+
+    private ProductMapper productMapper;
+
+    private Product product;
+    private ProductDto productDto;
+
+    @Setup
+    public void setUp() {
+        productMapper = new ProductMapperImpl();
+
+        product = Product.builder()
+                .uuid(UUID.randomUUID())
+                .name("Печенье")
+                .description("Сладости мучные")
+                .price(new BigDecimal("5.22"))
+                .created(LocalDateTime.now())
+                .build();
+
+        productDto = ProductDto.builder()
+                .name("Печенье")
+                .description("Сладости мучные")
+                .price(new BigDecimal("5.22"))
+                .build();
+    }
+
+    @Benchmark
+    public InfoProductDto toInfoProductDto() {
+        return productMapper.toInfoProductDto(product);
+    }
+
+    @Benchmark
+    public Product toProduct() {
+        return productMapper.toProduct(productDto);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.clevertec.product.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.HeapProductRepository;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.validation.ReadValidationPolicy;
+import ru.clevertec.product.validation.impl.ProductValidatorImpl;
+import ru.clevertec.product.validation.impl.ReadPolicyProductValidator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Стоимость преобразования и валидации в ProductServiceImpl.getAll. Каталог хранится
+ * в репозитории в куче, поэтому обращение к базе данных не скрывает накладные расходы сервиса.
+ * Политика never даёт базовую линию без валидации
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductServiceBenchmark {
+
+    private static final int READ_SAMPLE_RATE = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"always", "never"})
+    private String readPolicy;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        HeapProductRepository heapProductRepository = new HeapProductRepository();
+        LocalDateTime created = LocalDateTime.now();
+
+        heapProductRepository.saveAll(IntStream.range(0, catalogSize)
+                .mapToObj(i -> Product.builder()
+                        .name("Печенье")
+                        .description("Сладости мучные")
+                        .price(BigDecimal.valueOf(i % 1000 + 1))
+                        .created(created.plusSeconds(i))
+                        .build())
+                .toList());
+
+        productService = new ProductServiceImpl(new ProductMapperImpl(), heapProductRepository,
+                new ReadPolicyProductValidator(new ProductValidatorImpl(),
+                        ReadValidationPolicy.fromName(readPolicy), READ_SAMPLE_RATE));
+    }
+
+    @Benchmark
+    public List<InfoProductDto> getAll() {
+        return productService.getAll();
+    }
+}
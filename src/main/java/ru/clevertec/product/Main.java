@@ -1,99 +1,588 @@
 package ru.clevertec.product;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import jakarta.persistence.PersistenceException;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
+import ru.clevertec.product.bulk.ExportReport;
+import ru.clevertec.product.bulk.ImportReport;
+import ru.clevertec.product.bulk.ProductExporter;
+import ru.clevertec.product.bulk.ProductFileFormat;
+import ru.clevertec.product.bulk.ProductImporter;
+import ru.clevertec.product.bulk.exception.ProductExportException;
+import ru.clevertec.product.bulk.exception.ProductImportException;
+import ru.clevertec.product.bulk.impl.ProductExporterImpl;
+import ru.clevertec.product.bulk.impl.ProductImporterImpl;
 import ru.clevertec.product.data.InfoProductDto;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.entity.Product;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.ProductUpdateConflictException;
 import ru.clevertec.product.mapper.ProductMapper;
 import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.metrics.MetricsExporter;
+import ru.clevertec.product.metrics.impl.FileMetricsExporter;
+import ru.clevertec.product.metrics.impl.HttpMetricsExporter;
 import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.RepositoryType;
 import ru.clevertec.product.repository.database.connnection.AppConnection;
 import ru.clevertec.product.repository.database.data.DatabaseManager;
 import ru.clevertec.product.repository.database.data.impl.LiquibaseDatabaseManagerImpl;
 import ru.clevertec.product.repository.database.service.DatabaseService;
 import ru.clevertec.product.repository.database.service.impl.H2DatabaseService;
+import ru.clevertec.product.repository.exception.ProductJournalException;
+import ru.clevertec.product.repository.exception.ProductSnapshotException;
+import ru.clevertec.product.repository.impl.CachingProductRepository;
 import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.repository.impl.IndexedProductRepository;
+import ru.clevertec.product.repository.impl.JournaledProductRepository;
+import ru.clevertec.product.repository.impl.MeteredProductRepository;
+import ru.clevertec.product.repository.impl.OffHeapProductRepository;
+import ru.clevertec.product.repository.impl.ProductJournal;
+import ru.clevertec.product.repository.impl.StatelessProductRepository;
+import ru.clevertec.product.service.AsyncProductService;
 import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.service.impl.AsyncProductServiceImpl;
+import ru.clevertec.product.service.impl.MeteredProductService;
 import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.startup.StartupOrchestrator;
+import ru.clevertec.product.startup.StartupReport;
+import ru.clevertec.product.util.YAMLParser;
+import ru.clevertec.product.validation.ProductValidator;
+import ru.clevertec.product.validation.ReadValidationPolicy;
+import ru.clevertec.product.validation.impl.MeteredProductValidator;
+import ru.clevertec.product.validation.impl.ProductValidatorImpl;
+import ru.clevertec.product.validation.impl.ReadPolicyProductValidator;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Main {
+    private static final String PROPERTIES = "application.yml";
+    private static final String IMPORT_COMMAND = "import";
+    private static final String REJECTED_FILE_SUFFIX = ".rejected";
+    private static final String EXPORT_COMMAND = "export";
+    private static final String COMPRESSED_FILE_SUFFIX = ".gz";
+    private static final String SNAPSHOT_UNREADABLE_ERROR = "Product snapshot %s can't be opened, but journal %s "
+                                                            + "is compacted into it, loading products from db would "
+                                                            + "lose compacted changes";
+    private static final String SNAPSHOT_MISSING_ERROR = "Product snapshot %s is missing, but journal %s is "
+                                                         + "compacted into it, loading products from db would "
+                                                         + "lose compacted changes";
+
     private static DatabaseService h2DatabaseService;
+    private static OffHeapProductRepository offHeapSnapshotRepository;
+    private static JournaledProductRepository journaledProductRepository;
+    private static CachingProductRepository cachingProductRepository;
+    private static IndexedProductRepository indexedProductRepository;
 
 
     public static void main(String[] args) {
-        deployDatabase();
+        PrometheusMeterRegistry meterRegistry = buildMeterRegistry();
+        AppConnection connection = new AppConnection(PROPERTIES, meterRegistry);
+
+        // failed startup closes connection and database itself
+        deployDatabase(connection);
+
+        MetricsExporter metricsExporter = null;
+
+        try {
+            ProductService productService;
+
+            try {
+                productService = buildProductService(connection, meterRegistry);
+            } catch (ProductSnapshotException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+
+            metricsExporter = buildMetricsExporter(meterRegistry);
+
+            if (metricsExporter != null) {
+                metricsExporter.start();
+            }
+
+            if (args.length >= 2 && IMPORT_COMMAND.equals(args[0])) {
+                Path source = Path.of(args[1]);
 
-        AppConnection connection = new AppConnection();
+                try (ProductImporter productImporter = buildProductImporter(connection)) {
+                    ImportReport importReport = productImporter.importFile(source,
+                            ProductFileFormat.fromFileName(source),
+                            args.length > 2 ? Path.of(args[2]) : Path.of(args[1] + REJECTED_FILE_SUFFIX));
+
+                    System.out.printf("Products imported from %s: %s%n", source, importReport);
+                } catch (ProductImportException | IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+
+                // importer writes bypassing decorators of service repository, chunks saved before failure count too
+                refreshDecoratedProductRepository(connection);
+            }
+
+            if (args.length >= 2 && EXPORT_COMMAND.equals(args[0])) {
+                Path target = Path.of(args[1]);
+                boolean isCompressed = args[1].endsWith(COMPRESSED_FILE_SUFFIX);
+                Path formatFile = isCompressed
+                                  ? Path.of(args[1].substring(0, args[1].length() - COMPRESSED_FILE_SUFFIX.length()))
+                                  : target;
+
+                ProductExporter productExporter = new ProductExporterImpl(productService);
+
+                try (Session session = connection.getSessionFactory().getCurrentSession()) {
+                    Transaction exportTransaction = session.beginTransaction();
+
+                    ExportReport exportReport = productExporter.export(target,
+                                                                       ProductFileFormat.fromFileName(formatFile),
+                                                                       isCompressed);
+                    exportTransaction.commit();
+
+                    System.out.printf("Products exported to %s: %s%n", target, exportReport);
+                } catch (ProductExportException | IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
 
-        ProductService productService = buildProductService(connection);
+            Transaction transaction = null;
 
-        Transaction transaction = null;
+            try(Session session = connection.getSessionFactory().getCurrentSession();) {
 
-        try(Session session = connection.getSessionFactory().getCurrentSession();) {
 
+                transaction = session.getTransaction();
+                transaction.begin();
 
-            transaction = session.getTransaction();
-            transaction.begin();
+                UUID uuid = productService.create(ProductDto.builder()
+                        .name("Свекла")
+                        .description("Овощи всесезонные")
+                        .price(new BigDecimal(5.21f))
+                        .build());
 
-            UUID uuid = productService.create(ProductDto.builder()
-                    .name("Свекла")
-                    .description("Овощи всесезонные")
-                    .price(new BigDecimal(5.21f))
-                    .build());
+                System.out.printf("Product with uuid=%s created%n", uuid);
 
-            System.out.printf("Product with uuid=%s created%n", uuid);
+                InfoProductDto infoProductDto = productService.get(uuid);
 
-            InfoProductDto infoProductDto = productService.get(uuid);
+                System.out.printf("Product with uuid=%s got from db %s%n", uuid, infoProductDto);
 
-            System.out.printf("Product with uuid=%s got from db %s%n", uuid, infoProductDto);
+                List<InfoProductDto> foundProducts = productService.search("свёк", 10);
 
-            productService.update(uuid, ProductDto.builder()
-                    .name("Сверло ДП")
-                    .description("Инструмент для ремонта")
-                    .price(new BigDecimal(8.56))
-                    .build());
+                System.out.printf("Products found by 'свёк': %s%n", foundProducts);
 
-            System.out.printf("Product with uuid=%s updated in db%n", uuid);
+                List<InfoProductDto> newProducts = productService.getCreatedBetween(LocalDateTime.now().minusMinutes(1),
+                                                                                    null);
 
-            productService.delete(uuid);
+                System.out.printf("Products created within last minute: %d%n", newProducts.size());
 
-            System.out.printf("Product with uuid=%s deleted from db%n", uuid);
+                boolean isUpdated = productService.update(uuid, ProductDto.builder()
+                        .name("Сверло ДП")
+                        .description("Инструмент для ремонта")
+                        .price(new BigDecimal(8.56))
+                        .version(infoProductDto.version())
+                        .build());
 
-            session.getTransaction().commit();
-        } catch (PersistenceException | IllegalArgumentException | ProductNotFoundException e) {
+                System.out.printf("Product with uuid=%s updated in db: %b%n", uuid, isUpdated);
 
-            if (transaction != null && transaction.getRollbackOnly()) {
-                transaction.rollback();
+                boolean isDeleted = productService.delete(uuid);
+
+                System.out.printf("Product with uuid=%s deleted from db: %b%n", uuid, isDeleted);
+
+                session.getTransaction().commit();
+            } catch (PersistenceException | IllegalArgumentException | ProductNotFoundException
+                     | ProductUpdateConflictException e) {
+
+                if (transaction != null && transaction.getRollbackOnly()) {
+                    transaction.rollback();
+                }
+
+                System.out.println(e.getMessage());
             }
 
-            System.out.println(e.getMessage());
+            try (AsyncProductService asyncProductService = buildAsyncProductService(connection, productService)) {
+
+                List<InfoProductDto> infoProductDtos = asyncProductService.getAll().join();
+
+                System.out.printf("%d products got from db asynchronously%n", infoProductDtos.size());
+            } catch (CompletionException e) {
+                System.out.println(e.getCause().getMessage());
+            }
+
+            printCacheStatistics(connection.getSessionFactory().getStatistics());
+
+            closeOffHeapProductRepository();
+        } finally {
+            shutdown(metricsExporter);
+        }
+    }
+
+    private static void shutdown(MetricsExporter metricsExporter) {
+
+        if (metricsExporter != null) {
+            metricsExporter.close();
         }
 
         AppConnection.shutdown();
         h2DatabaseService.stop();
     }
 
-    public static void deployDatabase() {
+    private static void printCacheStatistics(Statistics statistics) {
+
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        System.out.printf("Second-level cache: %d hits, %d misses, %d puts; query cache: %d hits, %d misses, %d puts%n",
+                          statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                          statistics.getSecondLevelCachePutCount(), statistics.getQueryCacheHitCount(),
+                          statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount());
+    }
+
+    public static StartupReport deployDatabase(AppConnection connection) {
         h2DatabaseService = new H2DatabaseService();
-        h2DatabaseService.start();
 
         DatabaseManager liquibaseDatabaseManager = new LiquibaseDatabaseManagerImpl();
-        liquibaseDatabaseManager.loadData();
+
+        return new StartupOrchestrator(h2DatabaseService, liquibaseDatabaseManager, connection).start();
     }
 
     public static ProductService buildProductService(AppConnection connection) {
-        ProductRepository productRepository = new InMemoryProductRepository(connection.getSessionFactory());
+        return buildProductService(connection, null);
+    }
+
+    /**
+     * Создаёт сервис продуктов со всеми декораторами
+     *
+     * @param connection    соединение приложения
+     * @param meterRegistry реестр метрик сервиса, репозитория и валидации, null если метрики отключены
+     * @return сервис продуктов
+     */
+    public static ProductService buildProductService(AppConnection connection, MeterRegistry meterRegistry) {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        RepositoryType repositoryType = RepositoryType.fromName(yamlParser.getProperty("repository", "type"));
+        ProductRepository productRepository = buildProductRepository(connection, repositoryType);
+
+        // only stateful repository joins transaction of current session, writes of others complete on return
+        SessionFactory transactionalSessionFactory = repositoryType == RepositoryType.STATEFUL
+                                                     ? connection.getSessionFactory()
+                                                     : null;
+
+        if (meterRegistry != null) {
+            productRepository = new MeteredProductRepository(productRepository, meterRegistry);
+        }
+
+        if (Boolean.parseBoolean(yamlParser.getProperty("repository", "cache", "enabled"))) {
+            cachingProductRepository = new CachingProductRepository(productRepository,
+                    Integer.parseInt(yamlParser.getProperty("repository", "cache", "maxSize")),
+                    transactionalSessionFactory);
+            productRepository = cachingProductRepository;
+        }
+
+        if (Boolean.parseBoolean(yamlParser.getProperty("repository", "search", "enabled"))) {
+            indexedProductRepository = new IndexedProductRepository(productRepository,
+                    transactionalSessionFactory);
+
+            rebuildSearchIndex(connection);
+
+            productRepository = indexedProductRepository;
+        }
+
         ProductMapper productMapperImpl = new ProductMapperImpl();
+        ProductValidator productValidator = new ReadPolicyProductValidator(new ProductValidatorImpl(),
+                ReadValidationPolicy.fromName(yamlParser.getProperty("validation", "readPolicy")),
+                Integer.parseInt(yamlParser.getProperty("validation", "readSampleRate")));
+
+        if (meterRegistry != null) {
+            productValidator = new MeteredProductValidator(productValidator, meterRegistry);
+        }
+
+        ProductService productServiceImpl = new ProductServiceImpl(productMapperImpl, productRepository,
+                                                                   productValidator);
 
-        ProductService productServiceImpl = new ProductServiceImpl(productMapperImpl, productRepository);
+        if (meterRegistry != null) {
+            return new MeteredProductService(productServiceImpl, meterRegistry);
+        }
 
         return productServiceImpl;
     }
+
+    /**
+     * Сбрасывает кэш и перестраивает поисковый индекс репозитория сервиса после записей в обход его декораторов
+     *
+     * @param connection соединение приложения
+     */
+    public static void refreshDecoratedProductRepository(AppConnection connection) {
+
+        if (cachingProductRepository != null) {
+            cachingProductRepository.invalidateAll();
+        }
+
+        if (indexedProductRepository != null) {
+            rebuildSearchIndex(connection);
+        }
+    }
+
+    private static void rebuildSearchIndex(AppConnection connection) {
+
+        try (Session session = connection.getSessionFactory().getCurrentSession()) {
+            Transaction transaction = session.beginTransaction();
+
+            int indexedCount = indexedProductRepository.rebuild();
+            transaction.commit();
+
+            System.out.printf("Search index built for %d products%n", indexedCount);
+        }
+    }
+
+    /**
+     * Создаёт реестр метрик prometheus
+     *
+     * @return реестр prometheus или null если метрики отключены
+     */
+    public static PrometheusMeterRegistry buildMeterRegistry() {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        if (!Boolean.parseBoolean(yamlParser.getProperty("metrics", "enabled"))) {
+            return null;
+        }
+
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    /**
+     * Создаёт экспортёр метрик
+     *
+     * @param meterRegistry реестр prometheus, null если метрики отключены
+     * @return незапущенный экспортёр или null если метрики отключены или не экспортируются
+     */
+    public static MetricsExporter buildMetricsExporter(PrometheusMeterRegistry meterRegistry) {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        if (meterRegistry == null) {
+            return null;
+        }
+
+        return switch (yamlParser.getProperty("metrics", "export")) {
+            case "http" -> new HttpMetricsExporter(meterRegistry,
+                    Integer.parseInt(yamlParser.getProperty("metrics", "port")));
+            case "file" -> new FileMetricsExporter(meterRegistry,
+                    Path.of(yamlParser.getProperty("metrics", "file")),
+                    Long.parseLong(yamlParser.getProperty("metrics", "dumpIntervalSeconds")));
+            default -> null;
+        };
+    }
+
+    /**
+     * Создаёт репозиторий продуктов
+     *
+     * @param connection     соединение приложения
+     * @param repositoryType где репозиторий хранит продукты и как работает с Hibernate
+     * @return репозиторий продуктов без декораторов
+     */
+    public static ProductRepository buildProductRepository(AppConnection connection,
+                                                           RepositoryType repositoryType) {
+
+        return switch (repositoryType) {
+            case STATEFUL -> new InMemoryProductRepository(connection.getSessionFactory());
+            case STATELESS -> new StatelessProductRepository(connection.getSessionFactory());
+            case OFF_HEAP -> buildJournaledProductRepository(buildOffHeapProductRepository(connection));
+        };
+    }
+
+    private static OffHeapProductRepository buildOffHeapProductRepository(AppConnection connection) {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        StatelessProductRepository databaseRepository = new StatelessProductRepository(
+                connection.getSessionFactory());
+        Path snapshotFile = offHeapSnapshotFile();
+
+        // writes of off-heap repository don't reach db, after compaction snapshot is their only copy
+        Path compactedJournalFile = snapshotFile != null
+                                    && Boolean.parseBoolean(yamlParser.getProperty("repository", "offHeap",
+                                                                                   "journalEnabled"))
+                                    ? Path.of(yamlParser.getProperty("repository", "offHeap", "journalFile"))
+                                    : null;
+
+        if (snapshotFile != null && !Files.exists(snapshotFile) && compactedJournalFile != null
+            && Files.exists(compactedJournalFile)) {
+            throw new ProductSnapshotException(String.format(SNAPSHOT_MISSING_ERROR, snapshotFile,
+                                                             compactedJournalFile));
+        }
+
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+
+            try {
+                OffHeapProductRepository offHeapProductRepository = OffHeapProductRepository.openSnapshot(
+                        snapshotFile, Boolean.parseBoolean(yamlParser.getProperty("repository", "offHeap",
+                                                                                  "snapshotVerified")));
+
+                // db changes made after snapshot replace stored products, journal replayed later wins over them
+                LocalDateTime loadedUntil = databaseRepository.findLastChanged();
+                List<Product> changedProducts = databaseRepository.findChangedAfter(
+                        offHeapProductRepository.getLoadedUntil());
+                int loadedCount = offHeapProductRepository.load(changedProducts.stream());
+                int deletedCount = catchUpDeletes(offHeapProductRepository, databaseRepository, changedProducts);
+                offHeapProductRepository.setLoadedUntil(loadedUntil);
+
+                System.out.printf("Off-heap repository mapped %d products from %s, %d loaded and %d deleted "
+                                  + "from db%n", offHeapProductRepository.getStatistics().size(), snapshotFile,
+                                  loadedCount, deletedCount);
+
+                offHeapSnapshotRepository = offHeapProductRepository;
+
+                return offHeapProductRepository;
+            } catch (ProductSnapshotException e) {
+
+                if (compactedJournalFile != null) {
+                    throw new ProductSnapshotException(String.format(SNAPSHOT_UNREADABLE_ERROR, snapshotFile,
+                                                                     compactedJournalFile), e);
+                }
+
+                System.out.println(e.getMessage());
+            }
+        }
+
+        OffHeapProductRepository offHeapProductRepository = new OffHeapProductRepository(
+                Integer.parseInt(yamlParser.getProperty("repository", "offHeap", "slabSizeMb")) * 1024 * 1024,
+                Integer.parseInt(yamlParser.getProperty("repository", "offHeap", "expectedSize")));
+
+        LocalDateTime loadedUntil = databaseRepository.findLastChanged();
+
+        try (Stream<Product> products = databaseRepository.streamAll()) {
+            int loadedCount = offHeapProductRepository.load(products);
+            offHeapProductRepository.setLoadedUntil(loadedUntil);
+
+            System.out.printf("Off-heap repository loaded %d products%n", loadedCount);
+        }
+
+        // journal is started only next to snapshot, so missing snapshot always means lost changes
+        if (compactedJournalFile != null) {
+            offHeapProductRepository.writeSnapshot(snapshotFile);
+        }
+
+        if (snapshotFile != null) {
+            offHeapSnapshotRepository = offHeapProductRepository;
+        }
+
+        return offHeapProductRepository;
+    }
+
+    /**
+     * Оборачивает off-heap репозиторий журналированием его записей и воспроизводит в него журнал, если журнал включён
+     */
+    private static ProductRepository buildJournaledProductRepository(
+            OffHeapProductRepository offHeapProductRepository) {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        if (!Boolean.parseBoolean(yamlParser.getProperty("repository", "offHeap", "journalEnabled"))) {
+            return offHeapProductRepository;
+        }
+
+        ProductJournal productJournal = new ProductJournal(
+                Path.of(yamlParser.getProperty("repository", "offHeap", "journalFile")),
+                Integer.parseInt(yamlParser.getProperty("repository", "offHeap", "journalMaxBatchRecords")),
+                Long.parseLong(yamlParser.getProperty("repository", "offHeap", "journalMaxBatchDelayMillis")));
+
+        JournaledProductRepository productRepository = new JournaledProductRepository(offHeapProductRepository,
+                productJournal, offHeapSnapshotFile(),
+                Long.parseLong(yamlParser.getProperty("repository", "offHeap", "compactionMinJournalMb")) * 1024 * 1024);
+
+        int replayedCount = productRepository.recover();
+
+        System.out.printf("Off-heap repository recovered %d changes from journal%n", replayedCount);
+
+        productRepository.startCompaction(
+                Long.parseLong(yamlParser.getProperty("repository", "offHeap", "compactionIntervalSeconds")));
+
+        journaledProductRepository = productRepository;
+
+        return productRepository;
+    }
+
+    /**
+     * Записывает снимок off-heap репозитория, если он используется и снимки включены.
+     * Журнал сжимается в снимок и закрывается, если он используется
+     */
+    public static void closeOffHeapProductRepository() {
+
+        if (offHeapSnapshotRepository == null && journaledProductRepository == null) {
+            return;
+        }
+
+        Path snapshotFile = offHeapSnapshotFile();
+
+        try {
+            if (snapshotFile != null) {
+                long snapshotSize = journaledProductRepository != null
+                                    ? journaledProductRepository.compact()
+                                    : offHeapSnapshotRepository.writeSnapshot(snapshotFile);
+
+                System.out.printf("Off-heap repository snapshot written to %s: %d bytes%n", snapshotFile,
+                                  snapshotSize);
+            }
+        } catch (ProductSnapshotException | ProductJournalException e) {
+            System.out.println(e.getMessage());
+        } finally {
+            if (journaledProductRepository != null) {
+                journaledProductRepository.close();
+            }
+        }
+    }
+
+    private static int catchUpDeletes(OffHeapProductRepository offHeapProductRepository,
+                                      StatelessProductRepository databaseRepository, List<Product> changedProducts) {
+
+        if (offHeapProductRepository.getLoadedUntil() == null) {
+            return 0;
+        }
+
+        // product inserted again after its delete has a row and is among changed products
+        Set<UUID> changedUuids = changedProducts.stream()
+                                                .map(Product::getUuid)
+                                                .collect(Collectors.toSet());
+
+        return databaseRepository.findDeletedAfter(offHeapProductRepository.getLoadedUntil()).stream()
+                                 .filter(uuid -> !changedUuids.contains(uuid))
+                                 .mapToInt(offHeapProductRepository::deleteById)
+                                 .sum();
+    }
+
+    private static Path offHeapSnapshotFile() {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        if (!Boolean.parseBoolean(yamlParser.getProperty("repository", "offHeap", "snapshotEnabled"))) {
+            return null;
+        }
+
+        return Path.of(yamlParser.getProperty("repository", "offHeap", "snapshotFile"));
+    }
+
+    public static ProductImporter buildProductImporter(AppConnection connection) {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        return new ProductImporterImpl(buildProductRepository(connection,
+                RepositoryType.fromName(yamlParser.getProperty("bulk", "repositoryType"))),
+                new ProductMapperImpl(), new ProductValidatorImpl(),
+                Integer.parseInt(yamlParser.getProperty("bulk", "chunkSize")),
+                Integer.parseInt(yamlParser.getProperty("bulk", "maxInFlightChunks")),
+                Integer.parseInt(yamlParser.getProperty("bulk", "parallelism")));
+    }
+
+    public static AsyncProductService buildAsyncProductService(AppConnection connection,
+                                                               ProductService productService) {
+        YAMLParser yamlParser = new YAMLParser(PROPERTIES);
+
+        return new AsyncProductServiceImpl(productService, connection.getSessionFactory(),
+                                           Integer.parseInt(yamlParser.getProperty("db", "maxPoolSize")));
+    }
 }
@@ -0,0 +1,13 @@
+package ru.clevertec.product.bulk;
+
+import java.time.Duration;
+
+/**
+ * Результат экспорта каталога продуктов
+ *
+ * @param exported количество записанных продуктов
+ * @param bytes    размер записанного файла
+ * @param elapsed  время экспорта
+ */
+public record ExportReport(long exported, long bytes, Duration elapsed) {
+}
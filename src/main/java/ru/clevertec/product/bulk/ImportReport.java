@@ -0,0 +1,14 @@
+package ru.clevertec.product.bulk;
+
+import java.time.Duration;
+
+/**
+ * Результат импорта файла продуктов
+ *
+ * @param read     количество прочитанных строк продуктов
+ * @param imported количество сохранённых продуктов
+ * @param rejected количество строк, записанных в файл отклонённых строк
+ * @param elapsed  время импорта
+ */
+public record ImportReport(long read, long imported, long rejected, Duration elapsed) {
+}
@@ -0,0 +1,23 @@
+package ru.clevertec.product.bulk;
+
+import ru.clevertec.product.bulk.exception.ProductExportException;
+
+import java.nio.file.Path;
+
+/**
+ * Экспортирует каталог продуктов в файлы
+ */
+public interface ProductExporter {
+
+    /**
+     * Записывает все продукты в файл по одному по мере их чтения из хранилища.
+     * Файл появляется по целевому пути, только когда он полностью записан
+     *
+     * @param target       экспортируемый файл, заменяется если существует
+     * @param format       формат экспортируемого файла
+     * @param isCompressed true если файл сжат gzip
+     * @return результат экспорта
+     * @throws ProductExportException если файл не удалось записать
+     */
+    ExportReport export(Path target, ProductFileFormat format, boolean isCompressed);
+}
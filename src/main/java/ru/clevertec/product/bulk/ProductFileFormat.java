@@ -0,0 +1,53 @@
+package ru.clevertec.product.bulk;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Формат импортируемых и экспортируемых файлов продуктов
+ */
+public enum ProductFileFormat {
+
+    /**
+     * Значения, разделённые запятыми, со строкой заголовка, называющей столбцы name, description и price,
+     * в экспортируемых файлах есть также столбец uuid
+     */
+    CSV,
+
+    /**
+     * Один JSON объект с полями name, description и price на строку,
+     * в экспортируемых объектах есть также поле uuid
+     */
+    NDJSON;
+
+    private static final String UNKNOWN_FORMAT_ERROR = "Unknown product file format: %s";
+
+    /**
+     * Ищет формат по имени
+     *
+     * @param name имя формата (csv, ndjson)
+     * @return формат файла продуктов
+     * @throws IllegalArgumentException если имя формата неизвестно
+     */
+    public static ProductFileFormat fromName(String name) {
+
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException(String.format(UNKNOWN_FORMAT_ERROR, name), e);
+        }
+    }
+
+    /**
+     * Определяет формат по расширению файла
+     *
+     * @param file файл продуктов с расширением csv или ndjson
+     * @return формат файла продуктов
+     * @throws IllegalArgumentException если расширение файла неизвестно
+     */
+    public static ProductFileFormat fromFileName(Path file) {
+        String fileName = file.getFileName().toString();
+
+        return fromName(fileName.substring(fileName.lastIndexOf('.') + 1));
+    }
+}
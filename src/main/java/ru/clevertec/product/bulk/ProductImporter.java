@@ -0,0 +1,29 @@
+package ru.clevertec.product.bulk;
+
+import ru.clevertec.product.bulk.exception.ProductImportException;
+
+import java.nio.file.Path;
+
+/**
+ * Импортирует продукты из файлов
+ */
+public interface ProductImporter extends AutoCloseable {
+
+    /**
+     * Читает файл продуктов, сохраняет валидные продукты и пишет отклонённые строки в отдельный файл.
+     * Каждая отклонённая строка записывается как номер строки, причина и исходная строка, разделённые табуляцией
+     *
+     * @param source       файл продуктов
+     * @param format       формат файла продуктов
+     * @param rejectedFile файл отклонённых строк, заменяется если существует
+     * @return результат импорта
+     * @throws ProductImportException если файл продуктов не удалось прочитать или файл отклонённых строк не удалось записать
+     */
+    ImportReport importFile(Path source, ProductFileFormat format, Path rejectedFile);
+
+    /**
+     * Останавливает рабочие потоки
+     */
+    @Override
+    void close();
+}
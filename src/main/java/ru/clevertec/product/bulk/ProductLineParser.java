@@ -0,0 +1,19 @@
+package ru.clevertec.product.bulk;
+
+import ru.clevertec.product.data.ProductDto;
+
+/**
+ * Разбирает одну строку импортируемого файла продуктов. Реализации потокобезопасны,
+ * строки разбираются параллельно
+ */
+public interface ProductLineParser {
+
+    /**
+     * Разбирает строку файла продуктов
+     *
+     * @param line строка файла продуктов
+     * @return непроверенные данные продукта
+     * @throws IllegalArgumentException если строка некорректна
+     */
+    ProductDto parse(String line);
+}
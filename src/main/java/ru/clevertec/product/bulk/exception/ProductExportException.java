@@ -0,0 +1,18 @@
+package ru.clevertec.product.bulk.exception;
+
+public class ProductExportException extends RuntimeException {
+    public ProductExportException() {
+    }
+
+    public ProductExportException(String message) {
+        super(message);
+    }
+
+    public ProductExportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ProductExportException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.clevertec.product.bulk.exception;
+
+public class ProductImportException extends RuntimeException {
+    public ProductImportException() {
+    }
+
+    public ProductImportException(String message) {
+        super(message);
+    }
+
+    public ProductImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ProductImportException(Throwable cause) {
+        super(cause);
+    }
+}
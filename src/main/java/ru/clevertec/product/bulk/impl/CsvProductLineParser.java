@@ -0,0 +1,130 @@
+package ru.clevertec.product.bulk.impl;
+
+import ru.clevertec.product.bulk.ProductLineParser;
+import ru.clevertec.product.data.ProductDto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Разбирает CSV строку по столбцам, названным в заголовке. Значения могут быть в кавычках,
+ * кавычка внутри значения в кавычках удваивается. Переводы строк внутри значений не поддерживаются
+ */
+public class CsvProductLineParser implements ProductLineParser {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private static final String NAME_COLUMN = "name";
+    private static final String DESCRIPTION_COLUMN = "description";
+    private static final String PRICE_COLUMN = "price";
+
+    private static final String MISSING_COLUMN_ERROR = "CSV header has no %s column";
+    private static final String COLUMN_COUNT_ERROR = "Expected %d columns but found %d";
+    private static final String UNCLOSED_QUOTE_ERROR = "Unclosed quote";
+    private static final String PRICE_ERROR = "Malformed price: %s";
+
+    private final int columnCount;
+    private final int nameIndex;
+    private final int descriptionIndex;
+    private final int priceIndex;
+
+    /**
+     * @param header строка заголовка, называющая столбцы, столбец description необязателен
+     * @throws IllegalArgumentException если в заголовке нет столбца name или price
+     */
+    public CsvProductLineParser(String header) {
+        List<String> columns = split(header.isEmpty() || header.charAt(0) != BYTE_ORDER_MARK
+                                     ? header
+                                     : header.substring(1)).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+
+        this.columnCount = columns.size();
+        this.nameIndex = requireColumn(columns, NAME_COLUMN);
+        this.descriptionIndex = columns.indexOf(DESCRIPTION_COLUMN);
+        this.priceIndex = requireColumn(columns, PRICE_COLUMN);
+    }
+
+    @Override
+    public ProductDto parse(String line) {
+        List<String> values = split(line);
+
+        if (values.size() != columnCount) {
+            throw new IllegalArgumentException(String.format(COLUMN_COUNT_ERROR, columnCount, values.size()));
+        }
+
+        return ProductDto.builder()
+                .name(emptyToNull(values.get(nameIndex)))
+                .description(descriptionIndex < 0 ? null : emptyToNull(values.get(descriptionIndex)))
+                .price(parsePrice(values.get(priceIndex)))
+                .build();
+    }
+
+    private static int requireColumn(List<String> columns, String column) {
+        int index = columns.indexOf(column);
+
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format(MISSING_COLUMN_ERROR, column));
+        }
+
+        return index;
+    }
+
+    private static BigDecimal parsePrice(String value) {
+
+        if (value.isBlank()) {
+            return null;
+        }
+
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(PRICE_ERROR, value), e);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean isQuoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char symbol = line.charAt(i);
+
+            if (isQuoted) {
+
+                if (symbol != QUOTE) {
+                    value.append(symbol);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    value.append(QUOTE);
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (symbol == QUOTE) {
+                isQuoted = true;
+            } else if (symbol == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(symbol);
+            }
+        }
+
+        if (isQuoted) {
+            throw new IllegalArgumentException(UNCLOSED_QUOTE_ERROR);
+        }
+
+        values.add(value.toString());
+
+        return values;
+    }
+}
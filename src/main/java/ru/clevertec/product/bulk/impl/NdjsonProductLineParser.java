@@ -0,0 +1,87 @@
+package ru.clevertec.product.bulk.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import ru.clevertec.product.bulk.ProductLineParser;
+import ru.clevertec.product.data.ProductDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Разбирает строку с JSON объектом потоковым парсером, неизвестные поля пропускаются.
+ * Стоимость может быть задана числом или строкой
+ */
+public class NdjsonProductLineParser implements ProductLineParser {
+
+    private static final String NAME_FIELD = "name";
+    private static final String DESCRIPTION_FIELD = "description";
+    private static final String PRICE_FIELD = "price";
+
+    private static final String MALFORMED_JSON_ERROR = "Malformed JSON: %s";
+    private static final String NOT_OBJECT_ERROR = "Line is not JSON object";
+    private static final String TRAILING_DATA_ERROR = "Unexpected data after JSON object";
+    private static final String FIELD_TYPE_ERROR = "Unexpected %s value of field %s";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public ProductDto parse(String line) {
+
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException(NOT_OBJECT_ERROR);
+            }
+
+            ProductDto.ProductDtoBuilder productDto = ProductDto.builder();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case NAME_FIELD -> productDto.name(readText(parser, value, field));
+                    case DESCRIPTION_FIELD -> productDto.description(readText(parser, value, field));
+                    case PRICE_FIELD -> productDto.price(readDecimal(parser, value, field));
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException(TRAILING_DATA_ERROR);
+            }
+
+            return productDto.build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(String.format(MALFORMED_JSON_ERROR, e.getOriginalMessage()), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format(MALFORMED_JSON_ERROR, e.getMessage()), e);
+        }
+    }
+
+    private static String readText(JsonParser parser, JsonToken value, String field) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_STRING -> parser.getText();
+            default -> throw new IllegalArgumentException(String.format(FIELD_TYPE_ERROR, value, field));
+        };
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser, JsonToken value, String field) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            case VALUE_STRING -> {
+                try {
+                    yield new BigDecimal(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(String.format(FIELD_TYPE_ERROR, value, field), e);
+                }
+            }
+            default -> throw new IllegalArgumentException(String.format(FIELD_TYPE_ERROR, value, field));
+        };
+    }
+}
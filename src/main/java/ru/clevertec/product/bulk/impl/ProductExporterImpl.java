@@ -0,0 +1,180 @@
+package ru.clevertec.product.bulk.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import ru.clevertec.product.bulk.ExportReport;
+import ru.clevertec.product.bulk.ProductExporter;
+import ru.clevertec.product.bulk.ProductFileFormat;
+import ru.clevertec.product.bulk.exception.ProductExportException;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.service.ProductService;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Пишет продукты из потока сервиса прямо в файловый канал через буферы фиксированного размера,
+ * поэтому использование памяти не зависит от размера каталога. Файл пишется рядом с целевым
+ * и перемещается поверх него по завершении. Поток сервиса читает хранилище, поэтому
+ * должен вызываться в транзакции, если хранилище её требует
+ */
+public class ProductExporterImpl implements ProductExporter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String CSV_HEADER = "uuid,name,description,price";
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_QUOTE = '"';
+    private static final String LINE_SEPARATOR = "\n";
+
+    private static final String EXPORT_ERROR = "Error exporting products to %s";
+
+    private final ProductService productService;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ProductExporterImpl(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public ExportReport export(Path target, ProductFileFormat format, boolean isCompressed) {
+        long startedAt = System.nanoTime();
+        Path temporaryFile = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+        boolean isMoved = false;
+
+        try {
+            long exported;
+
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.WRITE);
+                 Writer writer = newWriter(channel, isCompressed);
+                 Stream<InfoProductDto> products = productService.streamAll()) {
+
+                exported = switch (format) {
+                    case CSV -> writeCsv(products.iterator(), writer);
+                    case NDJSON -> writeNdjson(products.iterator(), writer);
+                };
+            }
+
+            Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            isMoved = true;
+
+            return new ExportReport(exported, Files.size(target), Duration.ofNanos(System.nanoTime() - startedAt));
+        } catch (IOException | UncheckedIOException e) {
+            throw new ProductExportException(String.format(EXPORT_ERROR, target), e);
+        } finally {
+            if (!isMoved) {
+                deleteQuietly(temporaryFile);
+            }
+        }
+    }
+
+    private static Writer newWriter(FileChannel channel, boolean isCompressed) throws IOException {
+        OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+
+        if (isCompressed) {
+            output = new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static long writeCsv(Iterator<InfoProductDto> products, Writer writer) throws IOException {
+        long exported = 0;
+
+        writer.write(CSV_HEADER);
+        writer.write(LINE_SEPARATOR);
+
+        while (products.hasNext()) {
+            InfoProductDto product = products.next();
+
+            writeCsvValue(writer, product.uuid() == null ? null : product.uuid().toString());
+            writer.write(CSV_SEPARATOR);
+            writeCsvValue(writer, product.name());
+            writer.write(CSV_SEPARATOR);
+            writeCsvValue(writer, product.description());
+            writer.write(CSV_SEPARATOR);
+            writeCsvValue(writer, product.price() == null ? null : product.price().toPlainString());
+            writer.write(LINE_SEPARATOR);
+
+            exported++;
+        }
+
+        return exported;
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+
+        if (value == null) {
+            return;
+        }
+
+        boolean isQuoted = value.indexOf(CSV_SEPARATOR) >= 0 || value.indexOf(CSV_QUOTE) >= 0
+                           || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+
+        if (!isQuoted) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write(CSV_QUOTE);
+        writer.write(value.replace("\"", "\"\""));
+        writer.write(CSV_QUOTE);
+    }
+
+    private long writeNdjson(Iterator<InfoProductDto> products, Writer writer) throws IOException {
+        long exported = 0;
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(LINE_SEPARATOR));
+
+            while (products.hasNext()) {
+                InfoProductDto product = products.next();
+
+                generator.writeStartObject();
+                generator.writeStringField("uuid", product.uuid() == null ? null : product.uuid().toString());
+                generator.writeStringField("name", product.name());
+                generator.writeStringField("description", product.description());
+                generator.writeFieldName("price");
+                generator.writeNumber(product.price());
+                generator.writeEndObject();
+
+                exported++;
+            }
+
+            if (exported > 0) {
+                generator.writeRaw(LINE_SEPARATOR);
+            }
+        }
+
+        return exported;
+    }
+
+    private static void deleteQuietly(Path temporaryFile) {
+
+        try {
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException ignored) {
+            // the export has already failed, its exception is more useful than the cleanup one
+        }
+    }
+}
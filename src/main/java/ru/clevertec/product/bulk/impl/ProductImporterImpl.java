@@ -0,0 +1,248 @@
+package ru.clevertec.product.bulk.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.clevertec.product.bulk.ImportReport;
+import ru.clevertec.product.bulk.ProductFileFormat;
+import ru.clevertec.product.bulk.ProductImporter;
+import ru.clevertec.product.bulk.ProductLineParser;
+import ru.clevertec.product.bulk.exception.ProductImportException;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.mapper.ProductMapper;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.validation.ProductValidator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Читает файл продуктов построчно в вызывающем потоке и группирует строки в порции.
+ * Порции разбираются, проверяются и преобразуются параллельно рабочими потоками, затем сохраняются
+ * в порядке файла в вызывающем потоке, одна транзакция на порцию. Опережать сохранение при чтении
+ * могут только maxInFlightChunks порций, иначе чтение ждёт самую старую порцию, поэтому
+ * использование памяти не зависит от размера файла. Если порцию не удалось сохранить,
+ * её валидные строки тоже отклоняются, и импорт продолжается
+ */
+@Slf4j
+public class ProductImporterImpl implements ProductImporter {
+
+    private static final String SETTINGS_ERROR = "Chunk size, in-flight chunks and parallelism must be positive";
+    private static final String READING_ERROR = "Error importing products from %s";
+    private static final String EMPTY_FILE_ERROR = "Product file has no header";
+    private static final String NOT_VALID_REASON = "Product is not valid";
+    private static final String NOT_SAVED_REASON = "Chunk is not saved: %s";
+    private static final String CHUNK_NOT_SAVED = "Chunk of {} products is not saved";
+    private static final char REJECTED_SEPARATOR = '\t';
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductValidator productValidator;
+    private final ProductLineParser ndjsonProductLineParser = new NdjsonProductLineParser();
+
+    private final int chunkSize;
+    private final int maxInFlightChunks;
+    private final ExecutorService executorService;
+
+    /**
+     * @param productRepository репозиторий для сохранения продуктов
+     * @param productMapper     преобразователь данных продукта в продукт
+     * @param productValidator  валидатор данных продукта
+     * @param chunkSize         строк в порции, одна транзакция сохраняет одну порцию
+     * @param maxInFlightChunks порций, прочитанных до сохранения
+     * @param parallelism       рабочих потоков, разбирающих и проверяющих порции
+     */
+    public ProductImporterImpl(ProductRepository productRepository, ProductMapper productMapper,
+                               ProductValidator productValidator, int chunkSize, int maxInFlightChunks,
+                               int parallelism) {
+
+        if (chunkSize <= 0 || maxInFlightChunks <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException(SETTINGS_ERROR);
+        }
+
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productValidator = productValidator;
+        this.chunkSize = chunkSize;
+        this.maxInFlightChunks = maxInFlightChunks;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    @Override
+    public ImportReport importFile(Path source, ProductFileFormat format, Path rejectedFile) {
+        long startedAt = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             BufferedWriter rejectedWriter = Files.newBufferedWriter(rejectedFile, StandardCharsets.UTF_8)) {
+
+            long lineNumber = 0;
+            ProductLineParser productLineParser = ndjsonProductLineParser;
+
+            if (format == ProductFileFormat.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+
+                if (header == null) {
+                    throw new ProductImportException(EMPTY_FILE_ERROR);
+                }
+
+                productLineParser = new CsvProductLineParser(header);
+            }
+
+            Deque<CompletableFuture<PreparedChunk>> inFlightChunks = new ArrayDeque<>();
+            List<NumberedLine> lines = new ArrayList<>(chunkSize);
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                lines.add(new NumberedLine(lineNumber, line));
+
+                if (lines.size() == chunkSize) {
+                    submit(lines, productLineParser, inFlightChunks, progress, rejectedWriter);
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (!lines.isEmpty()) {
+                submit(lines, productLineParser, inFlightChunks, progress, rejectedWriter);
+            }
+
+            while (!inFlightChunks.isEmpty()) {
+                save(inFlightChunks.poll().join(), progress, rejectedWriter);
+            }
+
+        } catch (IOException | UncheckedIOException e) {
+            throw new ProductImportException(String.format(READING_ERROR, source), e);
+        } catch (CompletionException e) {
+            // worker failed not on a line, e.g. mapper or validator broke
+            throw new ProductImportException(String.format(READING_ERROR, source), e.getCause());
+        }
+
+        return new ImportReport(progress.read, progress.imported, progress.rejected,
+                                Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdown();
+    }
+
+    private void submit(List<NumberedLine> lines, ProductLineParser productLineParser,
+                        Deque<CompletableFuture<PreparedChunk>> inFlightChunks, ImportProgress progress,
+                        BufferedWriter rejectedWriter) throws IOException {
+
+        if (inFlightChunks.size() >= maxInFlightChunks) {
+            save(inFlightChunks.poll().join(), progress, rejectedWriter);
+        }
+
+        progress.read += lines.size();
+        inFlightChunks.add(CompletableFuture.supplyAsync(() -> prepare(lines, productLineParser), executorService));
+    }
+
+    private PreparedChunk prepare(List<NumberedLine> lines, ProductLineParser productLineParser) {
+        List<Product> products = new ArrayList<>(lines.size());
+        List<NumberedLine> validLines = new ArrayList<>(lines.size());
+        List<RejectedLine> rejectedLines = new ArrayList<>();
+
+        for (NumberedLine line : lines) {
+
+            try {
+                ProductDto productDto = productLineParser.parse(line.line());
+
+                if (productValidator.isValid(productDto)) {
+                    products.add(productMapper.toProduct(productDto));
+                    validLines.add(line);
+                } else {
+                    rejectedLines.add(new RejectedLine(line, NOT_VALID_REASON));
+                }
+            } catch (IllegalArgumentException e) {
+                rejectedLines.add(new RejectedLine(line, e.getMessage()));
+            }
+        }
+
+        return new PreparedChunk(products, validLines, rejectedLines);
+    }
+
+    private void save(PreparedChunk chunk, ImportProgress progress, BufferedWriter rejectedWriter)
+            throws IOException {
+
+        for (RejectedLine rejectedLine : chunk.rejectedLines()) {
+            writeRejected(rejectedWriter, rejectedLine, progress);
+        }
+
+        if (chunk.products().isEmpty()) {
+            return;
+        }
+
+        try {
+            productRepository.saveAll(chunk.products());
+            progress.imported += chunk.products().size();
+        } catch (RuntimeException e) {
+            log.error(CHUNK_NOT_SAVED, chunk.products().size(), e);
+
+            String reason = String.format(NOT_SAVED_REASON, e.getMessage());
+
+            for (NumberedLine validLine : chunk.validLines()) {
+                writeRejected(rejectedWriter, new RejectedLine(validLine, reason), progress);
+            }
+        }
+    }
+
+    private static void writeRejected(BufferedWriter rejectedWriter, RejectedLine rejectedLine,
+                                      ImportProgress progress) throws IOException {
+        rejectedWriter.append(String.valueOf(rejectedLine.line().number()))
+                      .append(REJECTED_SEPARATOR)
+                      .append(String.valueOf(rejectedLine.reason()).replace('\n', ' '))
+                      .append(REJECTED_SEPARATOR)
+                      .append(rejectedLine.line().line());
+        rejectedWriter.newLine();
+
+        progress.rejected++;
+    }
+
+    private record NumberedLine(long number, String line) {
+    }
+
+    private record RejectedLine(NumberedLine line, String reason) {
+    }
+
+    private record PreparedChunk(List<Product> products, List<NumberedLine> validLines,
+                                 List<RejectedLine> rejectedLines) {
+    }
+
+    /**
+     * Изменяется только в вызывающем потоке
+     */
+    private static class ImportProgress {
+        private long read;
+        private long imported;
+        private long rejected;
+    }
+}
@@ -31,5 +31,10 @@ public record InfoProductDto(
          */
         @NotNull
         @PositiveOrZero
-        BigDecimal price) {
+        BigDecimal price,
+
+        /**
+         * Версия продукта, передаётся в {@link ProductDto} для обновления с проверкой версии
+         */
+        Long version) {
 }
@@ -0,0 +1,16 @@
+package ru.clevertec.product.data;
+
+import java.util.List;
+
+public record InfoProductPage(
+
+        /**
+         * Продукты страницы
+         */
+        List<InfoProductDto> products,
+
+        /**
+         * Токен следующей страницы, null если страница последняя
+         */
+        String nextPageToken) {
+}
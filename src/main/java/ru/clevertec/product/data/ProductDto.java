@@ -32,5 +32,11 @@ public record ProductDto(
          */
         @NotNull(message = "Product price must be not null")
         @Positive(message = "Product price must be positive")
-        BigDecimal price) {
+        BigDecimal price,
+
+
+        /**
+         * Ожидаемая версия продукта при обновлении, null если продукт обновляется без проверки версии
+         */
+        Long version) {
 }
@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import lombok.experimental.FieldNameConstants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,14 +16,21 @@ import java.util.UUID;
 
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldNameConstants
 @Entity
 @Table(name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
 public class Product {
 
+    /**
+     * Регион кэша второго уровня для продуктов (должен совпадать с именем кэша в ehcache.xml)
+     */
+    public static final String CACHE_REGION = "product";
+
     /**
      * Идентификатор продукта (генерируется базой)
      */
@@ -53,4 +62,11 @@ public class Product {
      */
     @Column(nullable = false)
     private LocalDateTime created;
+
+    /**
+     * Версия продукта для оптимистической блокировки (задаётся при сохранении и растёт при каждом обновлении)
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,15 @@
+package ru.clevertec.product.exception;
+
+import java.util.UUID;
+
+public class ProductUpdateConflictException extends RuntimeException {
+
+    /**
+     * @param uuid    - идентификатор продукта
+     * @param version - ожидаемая версия продукта
+     */
+    public ProductUpdateConflictException(UUID uuid, long version) {
+        super(String.format("Product with uuid: %s is not updated, it is deleted or its version isn't %d",
+                            uuid, version));
+    }
+}
@@ -15,6 +15,7 @@ public interface ProductMapper {
      * @return новый продукт
      */
     @Mapping(target = "uuid", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "created", expression = "java(java.time.LocalDateTime.now())")
     Product toProduct(ProductDto productDto);
 
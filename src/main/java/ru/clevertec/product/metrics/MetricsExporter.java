@@ -0,0 +1,22 @@
+package ru.clevertec.product.metrics;
+
+import ru.clevertec.product.metrics.exception.MetricsExporterException;
+
+/**
+ * Публикует собранные метрики в текстовом формате Prometheus
+ */
+public interface MetricsExporter extends AutoCloseable {
+
+    /**
+     * Запускает публикацию метрик
+     *
+     * @throws MetricsExporterException если экспортёр не удалось запустить
+     */
+    void start();
+
+    /**
+     * Останавливает публикацию метрик
+     */
+    @Override
+    void close();
+}
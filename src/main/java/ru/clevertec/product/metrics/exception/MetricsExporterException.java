@@ -0,0 +1,18 @@
+package ru.clevertec.product.metrics.exception;
+
+public class MetricsExporterException extends RuntimeException {
+    public MetricsExporterException() {
+    }
+
+    public MetricsExporterException(String message) {
+        super(message);
+    }
+
+    public MetricsExporterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public MetricsExporterException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.clevertec.product.metrics.impl;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.clevertec.product.metrics.MetricsExporter;
+import ru.clevertec.product.metrics.exception.MetricsExporterException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодически выгружает снимок метрик в файл. Файл заменяется атомарно,
+ * поэтому читатель никогда не видит частично записанную выгрузку. Последняя выгрузка пишется при закрытии
+ */
+@Slf4j
+public class FileMetricsExporter implements MetricsExporter {
+
+    private static final String INTERVAL_ERROR = "Metrics dump interval must be positive";
+    private static final String DUMPING_ERROR = "Error dumping metrics to file {}";
+    private static final String STARTING_ERROR = "Error creating metrics directory for %s";
+
+    private final PrometheusMeterRegistry meterRegistry;
+    private final Path file;
+    private final long intervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    public FileMetricsExporter(PrometheusMeterRegistry meterRegistry, Path file, long intervalSeconds) {
+
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException(INTERVAL_ERROR);
+        }
+
+        this.meterRegistry = meterRegistry;
+        this.file = file.toAbsolutePath();
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @Override
+    public void start() {
+
+        try {
+            Files.createDirectories(file.getParent());
+        } catch (IOException e) {
+            throw new MetricsExporterException(String.format(STARTING_ERROR, file), e);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-file-exporter");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void close() {
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            dump();
+        }
+    }
+
+    /**
+     * Записывает текущий снимок метрик в файл
+     */
+    public void dump() {
+
+        Path temporaryFile = null;
+
+        try {
+            temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+            Files.writeString(temporaryFile, meterRegistry.scrape(), StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error(DUMPING_ERROR, file, e);
+
+            deleteQuietly(temporaryFile);
+        }
+    }
+
+    private static void deleteQuietly(Path temporaryFile) {
+
+        if (temporaryFile == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+            log.error(DUMPING_ERROR, temporaryFile, e);
+        }
+    }
+}
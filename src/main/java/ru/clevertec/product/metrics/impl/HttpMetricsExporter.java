@@ -0,0 +1,74 @@
+package ru.clevertec.product.metrics.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import ru.clevertec.product.metrics.MetricsExporter;
+import ru.clevertec.product.metrics.exception.MetricsExporterException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Отдаёт снимок метрик на локальном HTTP адресе /metrics
+ */
+public class HttpMetricsExporter implements MetricsExporter {
+
+    private static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String STARTING_ERROR = "Error starting metrics endpoint on port %d";
+
+    private final PrometheusMeterRegistry meterRegistry;
+    private final int port;
+
+    private HttpServer httpServer;
+
+    public HttpMetricsExporter(PrometheusMeterRegistry meterRegistry, int port) {
+        this.meterRegistry = meterRegistry;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new MetricsExporterException(String.format(STARTING_ERROR, port), e);
+        }
+
+        httpServer.createContext(METRICS_PATH, this::scrape);
+        httpServer.start();
+    }
+
+    @Override
+    public void close() {
+
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+    }
+
+    /**
+     * Возвращает порт, который слушает адрес
+     *
+     * @return порт, отличается от заданного в настройках, если там был 0
+     */
+    public int getPort() {
+        return httpServer != null ? httpServer.getAddress().getPort() : port;
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        byte[] body = meterRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.clevertec.product.repository;
+
+import ru.clevertec.product.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Позиция продукта в порядке постраничной выборки (created, uuid)
+ *
+ * @param created время создания продукта
+ * @param uuid    идентификатор продукта
+ */
+public record ProductPageCursor(LocalDateTime created, UUID uuid) implements Comparable<ProductPageCursor> {
+
+    /**
+     * Порядок совпадает с порядком индекса базы: uuid сравниваются как беззнаковые числа
+     */
+    private static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final Comparator<ProductPageCursor> ORDER = Comparator
+            .comparing(ProductPageCursor::created, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ProductPageCursor::uuid, UUID_ORDER);
+
+    /**
+     * Позиция существующего продукта
+     *
+     * @param product продукт
+     * @return позиция продукта
+     */
+    public static ProductPageCursor of(Product product) {
+        return new ProductPageCursor(product.getCreated(), product.getUuid());
+    }
+
+    @Override
+    public int compareTo(ProductPageCursor cursor) {
+        return ORDER.compare(this, cursor);
+    }
+}
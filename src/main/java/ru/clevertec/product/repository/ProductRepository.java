@@ -1,11 +1,16 @@
 package ru.clevertec.product.repository;
 
 import jakarta.persistence.PersistenceException;
+import ru.clevertec.product.data.InfoProductDto;
 import ru.clevertec.product.entity.Product;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ProductRepository {
 
@@ -24,6 +29,60 @@ public interface ProductRepository {
      */
     List<Product> findAll();
 
+    /**
+     * Ищет все продукты и сразу выбирает их в DTO без создания сущностей
+     * и без добавления их в контекст персистентности
+     *
+     * @return список информации о найденных продуктах
+     */
+    List<InfoProductDto> findAllInfo();
+
+    /**
+     * Возвращает все продукты потоком, не загружая их в память целиком.
+     * Поток держит открытый курсор, поэтому должен быть закрыт после использования
+     *
+     * @return поток найденных продуктов
+     */
+    Stream<Product> streamAll();
+
+    /**
+     * Ищет страницу продуктов в порядке (created, uuid), начиная после переданной позиции.
+     * Стоимость зависит только от размера страницы, а не от её номера
+     *
+     * @param after позиция последнего продукта предыдущей страницы, null для первой страницы
+     * @param limit максимальное количество продуктов на странице
+     * @return список найденных продуктов
+     */
+    List<Product> findPage(ProductPageCursor after, int limit);
+
+    /**
+     * Ищет продукты, в названии или описании которых есть слово, начинающееся
+     * с каждого слова запроса. Регистр и различие букв 'е' и 'ё' не учитываются
+     *
+     * @param query строка поиска
+     * @param limit максимальное количество найденных продуктов
+     * @return список найденных продуктов в неопределённом порядке, пустой если запрос не содержит слов
+     */
+    List<Product> search(String query, int limit);
+
+    /**
+     * Ищет продукты со стоимостью в заданном диапазоне включительно, упорядоченные по стоимости
+     *
+     * @param from наименьшая стоимость, null если диапазон не ограничен снизу
+     * @param to   наибольшая стоимость, null если диапазон не ограничен сверху
+     * @return список найденных продуктов
+     */
+    List<Product> findByPriceBetween(BigDecimal from, BigDecimal to);
+
+    /**
+     * Ищет продукты, созданные в заданном диапазоне времени включительно, упорядоченные по времени создания
+     *
+     * @param from начало диапазона, null если диапазон не ограничен снизу
+     * @param to   конец диапазона, null если диапазон не ограничен сверху
+     * @return список найденных продуктов
+     */
+    List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to);
+
     /**
      * Сохраняет или обновляет продукт в памяти
      *
@@ -35,6 +94,17 @@ public interface ProductRepository {
      */
     Product save(Product product) throws IllegalArgumentException, PersistenceException;
 
+    /**
+     * Сохраняет или обновляет продукты в памяти одной транзакцией
+     *
+     * @param products сохраняемые продукты
+     * @return сохранённые продукты
+     * @throws IllegalArgumentException если переданная коллекция или один из продуктов null
+     * @throws PersistenceException если продукты не удалось сохранить в базу
+     *                              или обновить в базе
+     */
+    List<Product> saveAll(Collection<Product> products) throws IllegalArgumentException, PersistenceException;
+
     /**
      * Удаляет продукт из памяти по идентификатору
      *
@@ -44,4 +114,25 @@ public interface ProductRepository {
      *         не удалось удалить из базы
      */
     void delete(UUID uuid);
+
+    /**
+     * Обновляет название, описание и стоимость продукта одним запросом без предварительного поиска
+     * и увеличивает его версию. Если версия продукта задана, обновляет только продукт этой версии
+     * (сравнение с обменом), иначе обновляет продукт любой версии
+     *
+     * @param product продукт с идентификатором, новыми данными и ожидаемой версией или null
+     * @return количество обновлённых продуктов, 0 если продукт не найден или его версия уже другая
+     * @throws IllegalArgumentException если переданный продукт или его идентификатор null
+     * @throws PersistenceException если продукт не удалось обновить в базе
+     */
+    int updateById(Product product) throws IllegalArgumentException, PersistenceException;
+
+    /**
+     * Удаляет продукт по идентификатору одним запросом без предварительного поиска
+     *
+     * @param uuid идентификатор продукта
+     * @return количество удалённых продуктов, 0 если продукт не найден
+     * @throws PersistenceException если продукт не удалось удалить из базы
+     */
+    int deleteById(UUID uuid) throws PersistenceException;
 }
@@ -0,0 +1,45 @@
+package ru.clevertec.product.repository;
+
+import java.util.Locale;
+
+/**
+ * Место, где репозиторий хранит продукты, и способ его работы с Hibernate
+ */
+public enum RepositoryType {
+
+    /**
+     * Операции присоединяются к текущей сессии потока и её транзакции,
+     * загруженные продукты управляются контекстом персистентности
+     */
+    STATEFUL,
+
+    /**
+     * Каждая операция выполняется в своей stateless сессии и транзакции,
+     * ничего не кэшируется, не проверяется на изменения и не сбрасывается автоматически
+     */
+    STATELESS,
+
+    /**
+     * Продукты загружаются из базы данных один раз, а затем хранятся и изменяются
+     * в прямой памяти вне кучи, в базу данных ничего не пишется
+     */
+    OFF_HEAP;
+
+    private static final String UNKNOWN_TYPE_ERROR = "Unknown repository type: %s";
+
+    /**
+     * Ищет тип репозитория по имени
+     *
+     * @param name имя типа так, как оно записано в настройках (stateful, stateless, off-heap)
+     * @return тип репозитория
+     * @throws IllegalArgumentException если имя типа неизвестно
+     */
+    public static RepositoryType fromName(String name) {
+
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException(String.format(UNKNOWN_TYPE_ERROR, name), e);
+        }
+    }
+}
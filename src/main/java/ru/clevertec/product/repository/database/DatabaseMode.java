@@ -0,0 +1,77 @@
+package ru.clevertec.product.repository.database;
+
+import ru.clevertec.product.util.YAMLParser;
+
+import java.util.Arrays;
+
+/**
+ * Способ, которым приложение обращается к базе данных H2
+ */
+public enum DatabaseMode {
+
+    /**
+     * База данных работает в TCP сервере, запросы идут через loopback сеть
+     */
+    TCP("tcp"),
+
+    /**
+     * Файл базы данных открывается в процессе приложения, сервер не запускается
+     */
+    EMBEDDED_FILE("embedded-file"),
+
+    /**
+     * База данных живёт в памяти процесса приложения, данные теряются при выходе
+     */
+    EMBEDDED_MEM("embedded-mem");
+
+    private static final String UNKNOWN_MODE_ERROR = "Unknown database mode: %s";
+
+    private final String modeName;
+
+    DatabaseMode(String modeName) {
+        this.modeName = modeName;
+    }
+
+    /**
+     * Ищет режим по имени
+     *
+     * @param name имя режима так, как оно записано в настройках (tcp, embedded-file, embedded-mem)
+     * @return режим базы данных
+     * @throws IllegalArgumentException если имя режима неизвестно
+     */
+    public static DatabaseMode fromName(String name) {
+        return Arrays.stream(values())
+                     .filter(mode -> name != null && mode.modeName.equals(name.trim()))
+                     .findFirst()
+                     .orElseThrow(() -> new IllegalArgumentException(String.format(UNKNOWN_MODE_ERROR, name)));
+    }
+
+    /**
+     * Читает режим из настроек
+     *
+     * @param yamlParser настройки
+     * @return режим, заданный свойством db.mode
+     */
+    public static DatabaseMode fromProperties(YAMLParser yamlParser) {
+        return fromName(yamlParser.getProperty("db", "mode"));
+    }
+
+    /**
+     * Читает JDBC URL режима из настроек
+     *
+     * @param yamlParser настройки
+     * @return JDBC URL, заданный для этого режима свойством db.jdbcUrl
+     */
+    public String getJdbcUrl(YAMLParser yamlParser) {
+        return yamlParser.getProperty("db", "jdbcUrl", modeName);
+    }
+
+    /**
+     * Проверяет, работает ли база данных в процессе приложения
+     *
+     * @return true если база данных работает в процессе приложения
+     */
+    public boolean isEmbedded() {
+        return this != TCP;
+    }
+}
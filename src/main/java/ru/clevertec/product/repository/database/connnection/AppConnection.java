@@ -2,42 +2,74 @@ package ru.clevertec.product.repository.database.connnection;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.stat.Statistics;
 import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.database.DatabaseMode;
 import ru.clevertec.product.util.YAMLParser;
 
-import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.ToDoubleFunction;
 
 @Slf4j
 public class AppConnection {
 
     private static final String PROPERTIES = "application.yml";
+    private static final String POOL_NAME = "product-pool";
+    private static final String CACHE_PROVIDER = "org.ehcache.jsr107.EhcacheCachingProvider";
 
+    public static final String CACHE_REQUESTS_METRIC = "hibernate.cache.requests";
+    public static final String CACHE_PUTS_METRIC = "hibernate.cache.puts";
+
+    /**
+     * Фабрика сессий общая для всех соединений, она создаётся один раз под блокировкой класса
+     */
     private static StandardServiceRegistry registry;
-    private static SessionFactory sessionFactory;
+    private static HikariDataSource dataSource;
+    private static volatile SessionFactory sessionFactory;
 
     private final YAMLParser yamlParser;
+    private final MeterRegistry meterRegistry;
 
     public AppConnection() {
-        this.yamlParser = new YAMLParser(PROPERTIES);
+        this(PROPERTIES);
+    }
+
+    public AppConnection(String propertiesFile) {
+        this(propertiesFile, null);
+    }
+
+    /**
+     * @param propertiesFile имя файла настроек
+     * @param meterRegistry  реестр для метрик пула соединений, null если метрики отключены
+     */
+    public AppConnection(String propertiesFile, MeterRegistry meterRegistry) {
+        this.yamlParser = new YAMLParser(propertiesFile);
+        this.meterRegistry = meterRegistry;
     }
 
-    private DataSource hikariDataSource() {
+    private HikariDataSource hikariDataSource() {
         HikariConfig hikariConfig = new HikariConfig();
         hikariConfig.setDriverClassName(yamlParser.getProperty("db", "driverClassName"));
-        hikariConfig.setJdbcUrl(yamlParser.getProperty("db", "jdbcUrl"));
+        hikariConfig.setJdbcUrl(DatabaseMode.fromProperties(yamlParser).getJdbcUrl(yamlParser));
         hikariConfig.setUsername(yamlParser.getProperty("db", "username"));
         hikariConfig.setPassword(yamlParser.getProperty("db", "password"));
         hikariConfig.setMaximumPoolSize(Integer.parseInt(yamlParser.getProperty("db", "maxPoolSize")));
         hikariConfig.setConnectionTimeout(Long.parseLong(yamlParser.getProperty("db", "connectionTimeout")));
 
+        if (meterRegistry != null) {
+            hikariConfig.setPoolName(POOL_NAME);
+            hikariConfig.setMetricRegistry(meterRegistry);
+        }
+
         return new HikariDataSource(hikariConfig);
     }
 
@@ -45,10 +77,25 @@ public class AppConnection {
     public SessionFactory getSessionFactory() {
 
         if (sessionFactory == null) {
+            buildSessionFactory();
+        }
+
+        return sessionFactory;
+    }
+
+    private void buildSessionFactory() {
+
+        synchronized (AppConnection.class) {
+
+            if (sessionFactory != null) {
+                return;
+            }
+
             try {
+                dataSource = hikariDataSource();
 
                 Map<String, Object> properties = new HashMap<>();
-                properties.put("hibernate.connection.datasource", hikariDataSource());
+                properties.put("hibernate.connection.datasource", dataSource);
                 properties.put("hbm2ddl.auto", yamlParser.getProperty("hibernate", "schema"));
                 properties.put("hibernate.current_session_context_class",
                                yamlParser.getProperty("hibernate", "sessionContext"));
@@ -58,6 +105,15 @@ public class AppConnection {
                             yamlParser.getProperty("hibernate", "transactionIsolationValue"));
                 properties.put("hibernate.show.sql",
                                yamlParser.getProperty("hibernate", "showSql"));
+                properties.put("hibernate.jdbc.batch_size",
+                               yamlParser.getProperty("hibernate", "batchSize"));
+                properties.put("hibernate.order_inserts",
+                               yamlParser.getProperty("hibernate", "orderInserts"));
+                properties.put("hibernate.order_updates",
+                               yamlParser.getProperty("hibernate", "orderUpdates"));
+                properties.put("hibernate.generate_statistics",
+                               yamlParser.getProperty("hibernate", "statisticsEnabled"));
+                properties.putAll(cacheProperties());
 
                 registry = new StandardServiceRegistryBuilder().applySettings(properties)
                                                                .build();
@@ -69,21 +125,93 @@ public class AppConnection {
 
                 sessionFactory = metadata.getSessionFactoryBuilder().build();
 
+                if (meterRegistry != null && sessionFactory.getStatistics().isStatisticsEnabled()) {
+                    bindCacheStatistics(sessionFactory.getStatistics());
+                }
+
             } catch (Exception e) {
                 log.error(e.getMessage(), e);
 
-                if (registry != null) {
-                    StandardServiceRegistryBuilder.destroy(registry);
-                }
+                shutdown();
             }
         }
+    }
 
-        return sessionFactory;
+    /**
+     * Кэш второго уровня хранит продукты, прочитанные одной сессией, для всех следующих,
+     * кэш запросов хранит идентификаторы, возвращённые кэшируемыми запросами. Кэш запросов работает
+     * только поверх кэша второго уровня, области настраиваются файлом провайдера JCache
+     *
+     * @return настройки кэша, оба кэша выключены, если кэш второго уровня отключён
+     *         или в файле настроек нет блока cache
+     */
+    private Map<String, Object> cacheProperties() {
+
+        Map<String, Object> properties = new HashMap<>();
+
+        boolean isCacheEnabled = Boolean.parseBoolean(yamlParser.getProperty("hibernate", "cache", "enabled"));
+
+        properties.put("hibernate.cache.use_second_level_cache", isCacheEnabled);
+        properties.put("hibernate.cache.use_query_cache", isCacheEnabled && Boolean.parseBoolean(
+                yamlParser.getProperty("hibernate", "cache", "queryCacheEnabled")));
+
+        if (isCacheEnabled) {
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.provider", CACHE_PROVIDER);
+            properties.put("hibernate.javax.cache.uri", yamlParser.getProperty("hibernate", "cache", "configFile"));
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        }
+
+        return properties;
+    }
+
+    private void bindCacheStatistics(Statistics statistics) {
+        cacheCounter(CACHE_REQUESTS_METRIC, statistics, "second-level", "hit",
+                     Statistics::getSecondLevelCacheHitCount);
+        cacheCounter(CACHE_REQUESTS_METRIC, statistics, "second-level", "miss",
+                     Statistics::getSecondLevelCacheMissCount);
+        cacheCounter(CACHE_PUTS_METRIC, statistics, "second-level", null,
+                     Statistics::getSecondLevelCachePutCount);
+        cacheCounter(CACHE_REQUESTS_METRIC, statistics, "query", "hit", Statistics::getQueryCacheHitCount);
+        cacheCounter(CACHE_REQUESTS_METRIC, statistics, "query", "miss", Statistics::getQueryCacheMissCount);
+        cacheCounter(CACHE_PUTS_METRIC, statistics, "query", null, Statistics::getQueryCachePutCount);
     }
 
+    private void cacheCounter(String name, Statistics statistics, String cache, String result,
+                              ToDoubleFunction<Statistics> count) {
+
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter.builder(name, statistics, count)
+                                                                     .tag("cache", cache);
+
+        if (result != null) {
+            builder.tag("result", result);
+        }
+
+        builder.register(meterRegistry);
+    }
+
+    /**
+     * Закрывает фабрику сессий и её пул соединений, следующий вызов getSessionFactory создаёт их заново
+     */
     public static void shutdown() {
-        if (registry != null) {
-            StandardServiceRegistryBuilder.destroy(registry);
+
+        synchronized (AppConnection.class) {
+
+            if (sessionFactory != null) {
+                sessionFactory.close();
+            }
+
+            if (registry != null) {
+                StandardServiceRegistryBuilder.destroy(registry);
+            }
+
+            if (dataSource != null) {
+                dataSource.close();
+            }
+
+            sessionFactory = null;
+            registry = null;
+            dataSource = null;
         }
     }
 }
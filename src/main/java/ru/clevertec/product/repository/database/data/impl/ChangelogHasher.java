@@ -0,0 +1,104 @@
+package ru.clevertec.product.repository.database.data.impl;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import ru.clevertec.product.repository.database.data.exception.DatabaseManagerException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Вычисляет SHA-256 хеш changelog Liquibase и SQL файлов, на которые он ссылается
+ * изменениями sqlFile. Любая правка changelog или его SQL файлов меняет хеш
+ */
+final class ChangelogHasher {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String SQL_FILE_TAG = "sqlFile";
+    private static final String PATH_ATTRIBUTE = "path";
+    private static final String RELATIVE_ATTRIBUTE = "relativeToChangelogFile";
+
+    private static final String RESOURCE_NOT_FOUND_ERROR = "Changelog resource %s not found";
+    private static final String HASHING_ERROR = "Error hashing changelog %s";
+
+    private ChangelogHasher() {
+    }
+
+    /**
+     * Вычисляет хеш changelog
+     *
+     * @param changelogFile ресурс changelog в classpath
+     * @return хеш changelog и его SQL файлов в шестнадцатеричном виде
+     * @throws DatabaseManagerException если не удалось прочитать changelog или его SQL файл
+     */
+    static String hash(String changelogFile) {
+
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+
+            byte[] changelog = readResource(changelogFile);
+            update(messageDigest, changelogFile, changelog);
+
+            NodeList sqlFiles = parse(changelog).getElementsByTagName(SQL_FILE_TAG);
+
+            for (int i = 0; i < sqlFiles.getLength(); i++) {
+                Element sqlFile = (Element) sqlFiles.item(i);
+                String sqlFilePath = resolve(changelogFile, sqlFile.getAttribute(PATH_ATTRIBUTE),
+                                             Boolean.parseBoolean(sqlFile.getAttribute(RELATIVE_ATTRIBUTE)));
+
+                update(messageDigest, sqlFilePath, readResource(sqlFilePath));
+            }
+
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (NoSuchAlgorithmException | ParserConfigurationException | SAXException | IOException e) {
+            throw new DatabaseManagerException(String.format(HASHING_ERROR, changelogFile), e);
+        }
+    }
+
+    private static void update(MessageDigest messageDigest, String path, byte[] content) {
+        messageDigest.update(path.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) 0);
+        messageDigest.update(content);
+    }
+
+    private static String resolve(String changelogFile, String path, boolean isRelativeToChangelog) {
+
+        if (!isRelativeToChangelog) {
+            return path;
+        }
+
+        return URI.create(changelogFile).resolve(path).normalize().toString();
+    }
+
+    private static Document parse(byte[] changelog) throws ParserConfigurationException, SAXException,
+                                                          IOException {
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        documentBuilderFactory.setNamespaceAware(false);
+
+        return documentBuilderFactory.newDocumentBuilder().parse(new ByteArrayInputStream(changelog));
+    }
+
+    private static byte[] readResource(String path) throws IOException {
+
+        try (InputStream resource = ChangelogHasher.class.getClassLoader().getResourceAsStream(path)) {
+
+            if (resource == null) {
+                throw new DatabaseManagerException(String.format(RESOURCE_NOT_FOUND_ERROR, path));
+            }
+
+            return resource.readAllBytes();
+        }
+    }
+}
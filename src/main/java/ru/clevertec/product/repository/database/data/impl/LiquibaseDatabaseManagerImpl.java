@@ -6,53 +6,114 @@ import liquibase.database.DatabaseFactory;
 import liquibase.database.jvm.JdbcConnection;
 import liquibase.exception.LiquibaseException;
 import liquibase.resource.ClassLoaderResourceAccessor;
+import lombok.extern.slf4j.Slf4j;
+import ru.clevertec.product.repository.database.DatabaseMode;
 import ru.clevertec.product.repository.database.data.DatabaseManager;
 import ru.clevertec.product.repository.database.data.exception.DatabaseManagerException;
 import ru.clevertec.product.util.YAMLParser;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
+/**
+ * Обновляет базу данных по changelog Liquibase. Хеш changelog и его SQL файлов сохраняется
+ * в базе данных после успешного обновления, если сохранённый хеш совпадает с текущим,
+ * Liquibase вообще не инициализируется
+ */
+@Slf4j
 public class LiquibaseDatabaseManagerImpl implements DatabaseManager {
     private static final String PROPERTY = "application.yml";
     private static final String LOAD_DATA_ERROR = "Error when updating database with new data";
+    private static final String CHANGELOG_UNCHANGED = "Changelog {} is unchanged, database update is skipped";
+
+    private static final String CREATE_HASH_TABLE_QUERY = "CREATE TABLE IF NOT EXISTS changelog_hash ("
+                                                          + "changelog CHARACTER VARYING(255) PRIMARY KEY, "
+                                                          + "hash CHARACTER(64) NOT NULL)";
+    private static final String FIND_HASH_QUERY = "SELECT hash FROM changelog_hash WHERE changelog = ?";
+    private static final String SAVE_HASH_QUERY = "MERGE INTO changelog_hash (changelog, hash) "
+                                                  + "KEY (changelog) VALUES (?, ?)";
 
     private final String jdbcURL;
     private final String userName;
     private final String password;
 
     private final String changelogFile;
+    private final boolean isSkippingUnchanged;
 
     public LiquibaseDatabaseManagerImpl() {
-        YAMLParser yamlParser = new YAMLParser(PROPERTY);
+        this(PROPERTY);
+    }
+
+    public LiquibaseDatabaseManagerImpl(String propertyFile) {
+        YAMLParser yamlParser = new YAMLParser(propertyFile);
 
-        this.jdbcURL = yamlParser.getProperty("db", "jdbcUrl");
+        this.jdbcURL = DatabaseMode.fromProperties(yamlParser).getJdbcUrl(yamlParser);
         this.userName = yamlParser.getProperty("db", "username");
         this.password = yamlParser.getProperty("db", "password");
 
         this.changelogFile = yamlParser.getProperty("liquibase", "changelogFile");
+        this.isSkippingUnchanged = Boolean.parseBoolean(yamlParser.getProperty("liquibase", "skipIfUnchanged"));
     }
 
     @Override
     public void loadData() {
 
-        try {
-            Connection connection = DriverManager.getConnection(jdbcURL,
-                                                                userName,
-                                                                password);
-             Database database = DatabaseFactory.getInstance()
-                     .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        try (Connection connection = DriverManager.getConnection(jdbcURL, userName, password)) {
+
+            String changelogHash = isSkippingUnchanged ? ChangelogHasher.hash(changelogFile) : null;
+
+            if (changelogHash != null && changelogHash.equals(findHash(connection))) {
+                log.info(CHANGELOG_UNCHANGED, changelogFile);
+                return;
+            }
 
-            try(Liquibase liquibase = new Liquibase(changelogFile,
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+
+            try (Liquibase liquibase = new Liquibase(changelogFile,
                     new ClassLoaderResourceAccessor(), database)) {
 
                 liquibase.update();
 
+                if (changelogHash != null) {
+                    saveHash(connection, changelogHash);
+                }
             }
 
         } catch (SQLException | LiquibaseException e) {
             throw new DatabaseManagerException(LOAD_DATA_ERROR, e);
         }
     }
+
+    private String findHash(Connection connection) throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_HASH_TABLE_QUERY);
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(FIND_HASH_QUERY)) {
+            statement.setString(1, changelogFile);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private void saveHash(Connection connection, String changelogHash) throws SQLException {
+
+        try (PreparedStatement statement = connection.prepareStatement(SAVE_HASH_QUERY)) {
+            statement.setString(1, changelogFile);
+            statement.setString(2, changelogHash);
+            statement.executeUpdate();
+        }
+
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
 }
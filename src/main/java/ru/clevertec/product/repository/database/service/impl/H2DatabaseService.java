@@ -1,18 +1,42 @@
 package ru.clevertec.product.repository.database.service.impl;
 
 import org.h2.tools.Server;
+import ru.clevertec.product.repository.database.DatabaseMode;
 import ru.clevertec.product.repository.database.service.DatabaseService;
 import ru.clevertec.product.repository.database.service.exception.DatabaseServiceException;
+import ru.clevertec.product.util.YAMLParser;
 
 import java.sql.SQLException;
 
+/**
+ * Запускает TCP сервер H2 в режиме tcp. Во встроенных режимах база данных открывается
+ * в процессе приложения первым соединением, поэтому запускать нечего
+ */
 public class H2DatabaseService implements DatabaseService {
 
+    private static final String PROPERTY = "application.yml";
     private static final String H2_DATABASE_CREATING_ERROR = "Error creating h2 database";
     private static final String H2_DATABASE_STARTING_ERROR = "Error starting h2 database";
+
+    /**
+     * null во встроенных режимах
+     */
     private final Server server;
 
     public H2DatabaseService() {
+        this(PROPERTY);
+    }
+
+    public H2DatabaseService(String propertyFile) {
+        this(DatabaseMode.fromProperties(new YAMLParser(propertyFile)));
+    }
+
+    public H2DatabaseService(DatabaseMode databaseMode) {
+
+        if (databaseMode.isEmbedded()) {
+            server = null;
+            return;
+        }
 
         try {
             server = Server.createTcpServer("-tcpPort", "9092", "-tcpPassword", "admin", "-ifNotExists");
@@ -25,6 +49,10 @@ public class H2DatabaseService implements DatabaseService {
     @Override
     public void start() {
 
+        if (server == null) {
+            return;
+        }
+
         try {
             server.start();
         } catch (SQLException e) {
@@ -0,0 +1,31 @@
+package ru.clevertec.product.repository.database.trigger;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Триггер H2, записывающий идентификатор удалённого продукта и время удаления в таблицу product_deleted.
+ * Строки удалённых продуктов не остаются в таблице product, поэтому хранилища, догоняющие базу данных
+ * по времени изменения, узнают об удалениях только из этой таблицы
+ */
+public class ProductDeletedTrigger implements Trigger {
+    private static final String SAVE_DELETED_QUERY = "MERGE INTO product_deleted KEY(id) "
+                                                     + "VALUES (?, LOCALTIMESTAMP(6))";
+
+    /**
+     * Идентификатор - первый столбец таблицы product
+     */
+    private static final int ID_COLUMN = 0;
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+
+        try (PreparedStatement statement = conn.prepareStatement(SAVE_DELETED_QUERY)) {
+            statement.setObject(1, oldRow[ID_COLUMN]);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.clevertec.product.repository.exception;
+
+public class ProductJournalException extends RuntimeException {
+    public ProductJournalException() {
+    }
+
+    public ProductJournalException(String message) {
+        super(message);
+    }
+
+    public ProductJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ProductJournalException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.clevertec.product.repository.exception;
+
+public class ProductSnapshotException extends RuntimeException {
+    public ProductSnapshotException() {
+    }
+
+    public ProductSnapshotException(String message) {
+        super(message);
+    }
+
+    public ProductSnapshotException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ProductSnapshotException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,328 @@
+package ru.clevertec.product.repository.impl;
+
+import org.hibernate.SessionFactory;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Кэширующий декоратор репозитория со сквозным чтением.
+ * Продукты, найденные по идентификатору, хранятся в ограниченном LRU кэше, результат findAll
+ * хранится как снимок, который обслуживает также findAllInfo и streamAll. Попадания и промахи
+ * считаются чтениями, загружающими кэш при промахе: findById, findAll и findAllInfo. streamAll
+ * только читает снимок, если он есть, и не учитывается. Записи сбрасывают кэш при начале
+ * и при завершении их транзакции, пока открыта любая запись, ничего не кэшируется, поэтому
+ * не сохраняется ни незафиксированное, ни откаченное состояние
+ */
+public class CachingProductRepository implements ProductRepository {
+
+    private static final String CACHE_SIZE_ERROR = "Cache max size must be positive";
+
+    private final ProductRepository productRepository;
+    private final int maxSize;
+    private final SessionFactory sessionFactory;
+
+    private final Map<UUID, Product> cache;
+    private volatile List<Product> snapshot;
+
+    /**
+     * Увеличивается при каждом сбросе кэша, загруженное значение кэшируется,
+     * только если за время загрузки сброса не было
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Начатые, но ещё не завершённые записи, защищены cache
+     */
+    private int openWrites;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingProductRepository(ProductRepository productRepository, int maxSize) {
+        this(productRepository, maxSize, null);
+    }
+
+    /**
+     * @param productRepository декорируемый репозиторий
+     * @param maxSize           наибольшее количество продуктов, кэшируемых по идентификатору
+     * @param sessionFactory    фабрика текущей сессии, к которой присоединяются записи, null если записи завершаются при возврате
+     */
+    public CachingProductRepository(ProductRepository productRepository, int maxSize,
+                                    SessionFactory sessionFactory) {
+
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(CACHE_SIZE_ERROR);
+        }
+
+        this.productRepository = productRepository;
+        this.maxSize = maxSize;
+        this.sessionFactory = sessionFactory;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Product> eldest) {
+
+                boolean isEvicting = size() > CachingProductRepository.this.maxSize;
+
+                if (isEvicting) {
+                    evictions.increment();
+                }
+
+                return isEvicting;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+
+        if (uuid == null) {
+            return productRepository.findById(uuid);
+        }
+
+        Product cachedProduct;
+        synchronized (cache) {
+            cachedProduct = cache.get(uuid);
+        }
+
+        if (cachedProduct != null) {
+            hits.increment();
+            return Optional.of(copy(cachedProduct));
+        }
+
+        misses.increment();
+
+        long loadingGeneration = generation.get();
+        Optional<Product> product = productRepository.findById(uuid);
+
+        product.ifPresent(loadedProduct -> {
+            synchronized (cache) {
+                if (isCacheable(loadingGeneration)) {
+                    cache.put(uuid, copy(loadedProduct));
+                }
+            }
+        });
+
+        return product;
+    }
+
+    @Override
+    public List<Product> findAll() {
+
+        List<Product> products = snapshot;
+
+        if (products != null) {
+            hits.increment();
+            return copy(products);
+        }
+
+        return loadSnapshot();
+    }
+
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+
+        List<Product> products = snapshot;
+
+        if (products != null) {
+            hits.increment();
+        } else {
+            products = loadSnapshot();
+        }
+
+        return products.stream()
+                       .map(product -> new InfoProductDto(product.getUuid(), product.getName(),
+                                                          product.getDescription(), product.getPrice(),
+                                                          product.getVersion()))
+                       .toList();
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+
+        List<Product> products = snapshot;
+
+        if (products != null) {
+            return products.stream()
+                           .map(this::copy);
+        }
+
+        return productRepository.streamAll();
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+        return productRepository.findPage(after, limit);
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        return productRepository.search(query, limit);
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+        return productRepository.findByPriceBetween(from, to);
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return productRepository.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public Product save(Product product) {
+        return write(product == null ? List.of() : uuids(product.getUuid()), () -> productRepository.save(product));
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+
+        List<UUID> uuids = products == null
+                           ? List.of()
+                           : products.stream()
+                                     .filter(Objects::nonNull)
+                                     .map(Product::getUuid)
+                                     .filter(Objects::nonNull)
+                                     .toList();
+
+        return write(uuids, () -> productRepository.saveAll(products));
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        write(uuids(uuid), () -> {
+            productRepository.delete(uuid);
+            return null;
+        });
+    }
+
+    @Override
+    public int updateById(Product product) {
+        return write(product == null ? List.of() : uuids(product.getUuid()),
+                     () -> productRepository.updateById(product));
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+        return write(uuids(uuid), () -> productRepository.deleteById(uuid));
+    }
+
+    /**
+     * Сбрасывает весь кэш. Вызывается после записей в обход декоратора, например после импорта
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.clear();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Возвращает текущую статистику кэша
+     *
+     * @return статистика кэша
+     */
+    public Statistics getStatistics() {
+
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private List<Product> loadSnapshot() {
+
+        misses.increment();
+
+        long loadingGeneration = generation.get();
+        List<Product> products = productRepository.findAll();
+
+        synchronized (cache) {
+            if (isCacheable(loadingGeneration)) {
+                snapshot = copy(products);
+            }
+        }
+
+        return products;
+    }
+
+    /**
+     * Вызывается под блокировкой кэша
+     */
+    private boolean isCacheable(long loadingGeneration) {
+        return openWrites == 0 && generation.get() == loadingGeneration;
+    }
+
+    private <T> T write(List<UUID> uuids, Supplier<T> writing) {
+
+        synchronized (cache) {
+            openWrites++;
+            invalidate(uuids);
+        }
+
+        try {
+            return writing.get();
+        } finally {
+            TransactionCompletion.afterCompletion(sessionFactory, isCommitted -> {
+                synchronized (cache) {
+                    openWrites--;
+                    invalidate(uuids);
+                }
+            });
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой кэша
+     */
+    private void invalidate(List<UUID> uuids) {
+        generation.incrementAndGet();
+        uuids.forEach(cache::remove);
+        snapshot = null;
+    }
+
+    private static List<UUID> uuids(UUID uuid) {
+        return uuid == null ? List.of() : List.of(uuid);
+    }
+
+    private Product copy(Product product) {
+        return product.toBuilder().build();
+    }
+
+    private List<Product> copy(List<Product> products) {
+        return products.stream()
+                       .map(this::copy)
+                       .toList();
+    }
+
+    /**
+     * Статистика кэша
+     *
+     * @param hits      чтения, обслуженные из кэша
+     * @param misses    чтения, переданные нижележащему репозиторию
+     * @param evictions продукты, вытесненные из кэша из-за ограничения размера
+     * @param size      продукты, хранящиеся в кэше сейчас
+     */
+    public record Statistics(long hits, long misses, long evictions, int size) {
+    }
+}
@@ -0,0 +1,384 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий продуктов в куче без обращений к базе данных.
+ * Продукты хранятся в конкурентной карте по идентификатору и читаются без блокировок.
+ * Изменения существующего продукта выполняются под одной из блокировок, выбранной по хешу
+ * идентификатора, поэтому записи одного продукта упорядочены вместе с его индексами,
+ * а записи других продуктов в основном идут параллельно. Каждое изменение увеличивает
+ * версию продукта, обновление с ожидаемой версией выполняется как compare-and-set.
+ * Хранятся копии продуктов, поэтому вызывающий код не может изменить состояние репозитория в обход save.
+ * Страницы и диапазоны времени создания читаются через конкурентный отсортированный индекс
+ * по (created, uuid), диапазоны стоимости - через индекс по (price, uuid)
+ */
+public class HeapProductRepository implements ProductRepository {
+
+    private static final String NULL_POINTER_PRODUCT_ERROR = "Given product is null";
+    private static final String NULL_POINTER_UUID_ERROR = "Given product uuid is null";
+    private static final String NULL_POINTER_PRODUCTS_ERROR = "Given products or one of them is null";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final UUID MAX_UUID = new UUID(-1L, -1L);
+
+    private static final int LOCK_STRIPES = 64;
+    private static final long INITIAL_VERSION = 0L;
+
+    private final ConcurrentMap<UUID, Product> products;
+    private final NavigableSet<ProductPageCursor> pageIndex;
+    private final NavigableSet<PriceKey> priceIndex;
+    private final Lock[] locks;
+
+    public HeapProductRepository() {
+        this.products = new ConcurrentHashMap<>();
+        this.pageIndex = new ConcurrentSkipListSet<>();
+        this.priceIndex = new ConcurrentSkipListSet<>();
+        this.locks = new Lock[LOCK_STRIPES];
+
+        Arrays.setAll(locks, stripe -> new ReentrantLock());
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+
+        if (uuid == null) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(products.get(uuid))
+                       .map(this::copy);
+    }
+
+    @Override
+    public List<Product> findAll() {
+
+        return products.values().stream()
+                                .map(this::copy)
+                                .toList();
+    }
+
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+
+        // DTO holds only immutable values, so stored product is never copied
+        return products.values().stream()
+                                .map(product -> new InfoProductDto(product.getUuid(), product.getName(),
+                                                                   product.getDescription(), product.getPrice(),
+                                                                   product.getVersion()))
+                                .toList();
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+
+        return products.values().stream()
+                                .map(this::copy);
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+
+        NavigableSet<ProductPageCursor> cursors = after == null
+                                                  ? pageIndex
+                                                  : pageIndex.tailSet(after, false);
+
+        return cursors.stream()
+                      .map(cursor -> products.get(cursor.uuid()))
+                      .filter(Objects::nonNull)
+                      .limit(limit)
+                      .map(this::copy)
+                      .toList();
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+
+        List<String> queryWords = ProductSearchIndex.words(query);
+
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        try (Stream<Product> products = streamAll()) {
+            return products.filter(product -> ProductSearchIndex.matches(product, queryWords))
+                           .limit(limit)
+                           .toList();
+        }
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+
+        NavigableSet<PriceKey> keys = priceIndex;
+
+        if (from != null) {
+            keys = keys.tailSet(new PriceKey(from, MIN_UUID), true);
+        }
+
+        if (to != null) {
+            keys = keys.headSet(new PriceKey(to, MAX_UUID), true);
+        }
+
+        // while price is being updated product is briefly indexed by both prices
+        return keys.stream()
+                   .map(key -> products.get(key.uuid()))
+                   .filter(Objects::nonNull)
+                   .filter(product -> isPriceBetween(product.getPrice(), from, to))
+                   .distinct()
+                   .map(this::copy)
+                   .toList();
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+
+        NavigableSet<ProductPageCursor> cursors = pageIndex;
+
+        if (from != null) {
+            cursors = cursors.tailSet(new ProductPageCursor(from, MIN_UUID), true);
+        }
+
+        if (to != null) {
+            cursors = cursors.headSet(new ProductPageCursor(to, MAX_UUID), true);
+        }
+
+        return cursors.stream()
+                      .map(cursor -> products.get(cursor.uuid()))
+                      .filter(Objects::nonNull)
+                      .map(this::copy)
+                      .toList();
+    }
+
+    @Override
+    public Product save(Product product) {
+
+        if (product == null) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCT_ERROR);
+        }
+
+        if (product.getUuid() == null) {
+            Product savingProduct = copy(product);
+            savingProduct.setVersion(INITIAL_VERSION);
+
+            UUID uuid;
+            do {
+                uuid = UUID.randomUUID();
+                savingProduct.setUuid(uuid);
+            } while (!insert(savingProduct));
+
+            product.setUuid(uuid);
+            product.setVersion(INITIAL_VERSION);
+        } else {
+            update(product, false);
+        }
+
+        return product;
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+
+        if (products == null || products.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCTS_ERROR);
+        }
+
+        return products.stream()
+                       .map(this::save)
+                       .toList();
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        deleteById(uuid);
+    }
+
+    @Override
+    public int updateById(Product product) {
+
+        if (product == null) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCT_ERROR);
+        }
+
+        if (product.getUuid() == null) {
+            throw new IllegalArgumentException(NULL_POINTER_UUID_ERROR);
+        }
+
+        return update(product, product.getVersion() != null) ? 1 : 0;
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+
+        if (uuid == null) {
+            return 0;
+        }
+
+        Lock lock = lockOf(uuid);
+
+        lock.lock();
+        try {
+            Product removedProduct = products.remove(uuid);
+
+            if (removedProduct == null) {
+                return 0;
+            }
+
+            pageIndex.remove(ProductPageCursor.of(removedProduct));
+            priceIndex.remove(PriceKey.of(removedProduct));
+
+            return 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Вставляет новый продукт вместе с его индексами под блокировкой его идентификатора,
+     * чтобы параллельное удаление или обновление не застало продукт без индексов
+     *
+     * @param product вставляемый продукт с уже назначенным идентификатором
+     * @return true если продукт вставлен, false если идентификатор уже занят
+     */
+    private boolean insert(Product product) {
+
+        Lock lock = lockOf(product.getUuid());
+
+        lock.lock();
+        try {
+            if (products.putIfAbsent(product.getUuid(), product) != null) {
+                return false;
+            }
+
+            pageIndex.add(ProductPageCursor.of(product));
+            priceIndex.add(PriceKey.of(product));
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Обновляет сохранённый продукт
+     *
+     * @param product         продукт с новыми данными
+     * @param isCompareAndSet обновлять ли продукт только при совпадении его версии с переданной
+     * @return true если продукт обновлён
+     */
+    private boolean update(Product product, boolean isCompareAndSet) {
+
+        Lock lock = lockOf(product.getUuid());
+
+        lock.lock();
+        try {
+            Product savedProduct = products.get(product.getUuid());
+
+            if (savedProduct == null || isCompareAndSet && !savedProduct.getVersion().equals(product.getVersion())) {
+                return false;
+            }
+
+            products.put(product.getUuid(), merge(savedProduct, product));
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой продукта, поэтому индекс стоимости одного продукта
+     * никогда не обновляется конкурентно. Новая стоимость индексируется до удаления старой,
+     * поэтому продукт не пропадает из диапазонов стоимости
+     */
+    private Product merge(Product savedProduct, Product product) {
+
+        Product mergedProduct = savedProduct.toBuilder()
+                                            .name(product.getName())
+                                            .description(product.getDescription())
+                                            .price(product.getPrice())
+                                            .version(savedProduct.getVersion() + 1)
+                                            .build();
+
+        PriceKey savedKey = PriceKey.of(savedProduct);
+        PriceKey mergedKey = PriceKey.of(mergedProduct);
+
+        if (!savedKey.equals(mergedKey)) {
+            priceIndex.add(mergedKey);
+            priceIndex.remove(savedKey);
+        }
+
+        return mergedProduct;
+    }
+
+    private static boolean isPriceBetween(BigDecimal price, BigDecimal from, BigDecimal to) {
+
+        if (price == null) {
+            return from == null && to == null;
+        }
+
+        return (from == null || price.compareTo(from) >= 0) && (to == null || price.compareTo(to) <= 0);
+    }
+
+    private Product copy(Product product) {
+        return product.toBuilder().build();
+    }
+
+    private Lock lockOf(UUID uuid) {
+
+        int hash = uuid.hashCode();
+
+        return locks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Позиция продукта в индексе стоимости, стоимости сравниваются по значению без учёта масштаба
+     */
+    private record PriceKey(BigDecimal price, UUID uuid) implements Comparable<PriceKey> {
+
+        private static final Comparator<PriceKey> ORDER = Comparator
+                .comparing(PriceKey::price, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(PriceKey::uuid, Comparator
+                        .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+                        .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned));
+
+        static PriceKey of(Product product) {
+            return new PriceKey(product.getPrice(), product.getUuid());
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof PriceKey key && compareTo(key) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return uuid.hashCode();
+        }
+
+        @Override
+        public int compareTo(PriceKey key) {
+            return ORDER.compare(this, key);
+        }
+    }
+}
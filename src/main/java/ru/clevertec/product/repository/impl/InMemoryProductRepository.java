@@ -3,18 +3,39 @@ package ru.clevertec.product.repository.impl;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.CacheMode;
 import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.clevertec.product.data.InfoProductDto;
 import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
 import ru.clevertec.product.repository.ProductRepository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Data
 @NoArgsConstructor
@@ -24,10 +45,35 @@ public class InMemoryProductRepository implements ProductRepository {
     private static final Logger log = LoggerFactory.getLogger(InMemoryProductRepository.class);
 
 
-    private static final String FIND_ALL_QUERY = "SELECT uuid, name, description, price, created FROM product";
+    private static final String FIND_ALL_QUERY = "SELECT id, name, description, price, created, version FROM product";
+    private static final String FIND_ALL_INFO_QUERY = "SELECT new ru.clevertec.product.data.InfoProductDto("
+                                                      + "p.uuid, p.name, p.description, p.price, p.version) "
+                                                      + "FROM Product p";
+    private static final String STREAM_ALL_QUERY = "FROM Product";
+    private static final String FIRST_PAGE_QUERY = "FROM Product p ORDER BY p.created, p.uuid";
+    private static final String NEXT_PAGE_QUERY = "FROM Product p "
+                                                  + "WHERE p.created > :created "
+                                                  + "OR (p.created = :created AND p.uuid > :uuid) "
+                                                  + "ORDER BY p.created, p.uuid";
+
+    private static final String RANGE_QUERY = "FROM Product p%s ORDER BY p.%s, p.uuid";
+    private static final String RANGE_FROM_CONDITION = "p.%s >= :from";
+    private static final String RANGE_TO_CONDITION = "p.%s <= :to";
+
+    private static final String UPDATE_BY_ID_QUERY = "UPDATE Product p "
+                                                     + "SET p.name = :name, p.description = :description, "
+                                                     + "p.price = :price, p.version = p.version + 1 "
+                                                     + "WHERE p.uuid = :uuid";
+    private static final String UPDATE_BY_ID_AND_VERSION_QUERY = UPDATE_BY_ID_QUERY + " AND p.version = :version";
+    private static final String DELETE_BY_ID_QUERY = "DELETE FROM Product p WHERE p.uuid = :uuid";
+
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int DEFAULT_BATCH_SIZE = 50;
 
     private static final String SEARCHING_ERROR = "Error when searching product(s) {}";
     private static final String NULL_POINTER_PRODUCT_ERROR = "Given product is null";
+    private static final String NULL_POINTER_UUID_ERROR = "Given product uuid is null";
+    private static final String NULL_POINTER_PRODUCTS_ERROR = "Given products or one of them is null";
 
     private SessionFactory sessionFactory;
 
@@ -58,6 +104,7 @@ public class InMemoryProductRepository implements ProductRepository {
 
             products = session.createNativeQuery(FIND_ALL_QUERY, Product.class)
                     .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
                     .list();
 
         } catch (HibernateException e) {
@@ -68,6 +115,134 @@ public class InMemoryProductRepository implements ProductRepository {
 
     }
 
+    /**
+     * Выражение конструктора выбирает строки сразу в DTO записи, поэтому ни одна сущность
+     * не создаётся, не регистрируется в контексте персистентности и не проверяется на изменения при сбросе
+     */
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+
+        List<InfoProductDto> infoProductDtos = new ArrayList<>();
+
+        try {
+            Session session = sessionFactory.getCurrentSession();
+
+            infoProductDtos = session.createQuery(FIND_ALL_INFO_QUERY, InfoProductDto.class)
+                                     .list();
+
+        } catch (HibernateException e) {
+            log.error(SEARCHING_ERROR, e.getMessage(), e);
+        }
+
+        return infoProductDtos;
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+
+        Stream<Product> products = Stream.empty();
+
+        try {
+            Session session = sessionFactory.getCurrentSession();
+
+            ScrollableResults<Product> results = session.createQuery(STREAM_ALL_QUERY, Product.class)
+                    .setReadOnly(true)
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+
+            Spliterator<Product> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Product> action) {
+
+                    CacheMode cacheMode = session.getCacheMode();
+                    Product product;
+
+                    // rows are loaded by next(), scan of the whole table would only push hot products
+                    // out of second-level cache
+                    session.setCacheMode(CacheMode.IGNORE);
+                    try {
+                        if (!results.next()) {
+                            return false;
+                        }
+
+                        product = results.get();
+                    } finally {
+                        session.setCacheMode(cacheMode);
+                    }
+
+                    // detached at once, so persistence context doesn't grow with the table
+                    session.detach(product);
+                    action.accept(product);
+
+                    return true;
+                }
+            };
+
+            products = StreamSupport.stream(spliterator, false)
+                                    .onClose(results::close);
+
+        } catch (HibernateException e) {
+            log.error(SEARCHING_ERROR, e.getMessage(), e);
+        }
+
+        return products;
+
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+
+        List<Product> products = new ArrayList<>();
+
+        try {
+            Session session = sessionFactory.getCurrentSession();
+
+            Query<Product> query = after == null
+                                   ? session.createQuery(FIRST_PAGE_QUERY, Product.class)
+                                   : session.createQuery(NEXT_PAGE_QUERY, Product.class)
+                                            .setParameter("created", after.created())
+                                            .setParameter("uuid", after.uuid());
+
+            // pages are bounded, so their ids are kept by query cache when it is enabled
+            products = query.setReadOnly(true)
+                            .setCacheable(true)
+                            .setMaxResults(limit)
+                            .list();
+
+        } catch (HibernateException e) {
+            log.error(SEARCHING_ERROR, e.getMessage(), e);
+        }
+
+        return products;
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+
+        List<String> queryWords = ProductSearchIndex.words(query);
+
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        try (Stream<Product> products = streamAll()) {
+            return products.filter(product -> ProductSearchIndex.matches(product, queryWords))
+                           .limit(limit)
+                           .toList();
+        }
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+        return findBetween(Product.Fields.price, from, to);
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return findBetween(Product.Fields.created, from, to);
+    }
+
     @Override
     public Product save(Product product) {
 
@@ -104,6 +279,51 @@ public class InMemoryProductRepository implements ProductRepository {
 
     }
 
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+
+        if (products == null || products.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCTS_ERROR);
+        }
+
+        List<Product> savingProducts = List.copyOf(products);
+
+        Session session = sessionFactory.getCurrentSession();
+
+        boolean isInTransaction = session.getTransaction().isActive();
+
+        if (!isInTransaction) {
+            session.getTransaction().begin();
+        }
+
+        try {
+            int batchSize = getBatchSize();
+
+            for (int from = 0; from < savingProducts.size(); from += batchSize) {
+                List<Product> managedProducts = saveBatch(session, savingProducts.subList(from,
+                        Math.min(from + batchSize, savingProducts.size())));
+
+                // keeps persistence context as small as one jdbc batch, other entities of the caller stay managed
+                session.flush();
+                managedProducts.forEach(session::detach);
+            }
+
+            if (!isInTransaction) {
+                session.getTransaction().commit();
+            }
+
+        } catch (RuntimeException e) {
+            if (!isInTransaction && session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+
+            throw e;
+        }
+
+        return savingProducts;
+
+    }
+
     @Override
     public void delete(UUID uuid) {
 
@@ -127,4 +347,160 @@ public class InMemoryProductRepository implements ProductRepository {
         });
 
     }
+
+    @Override
+    public int updateById(Product product) {
+
+        if (product == null) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCT_ERROR);
+        }
+
+        if (product.getUuid() == null) {
+            throw new IllegalArgumentException(NULL_POINTER_UUID_ERROR);
+        }
+
+        return executeMutation(session -> {
+
+            MutationQuery query = product.getVersion() == null
+                                  ? session.createMutationQuery(UPDATE_BY_ID_QUERY)
+                                  : session.createMutationQuery(UPDATE_BY_ID_AND_VERSION_QUERY)
+                                           .setParameter("version", product.getVersion());
+
+            int updatedCount = query.setParameter("name", product.getName())
+                                    .setParameter("description", product.getDescription())
+                                    .setParameter("price", product.getPrice())
+                                    .setParameter("uuid", product.getUuid())
+                                    .executeUpdate();
+
+            // update bypasses session, loaded product is stale now and must be read again
+            session.detach(session.getReference(Product.class, product.getUuid()));
+
+            return updatedCount;
+        });
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+
+        if (uuid == null) {
+            return 0;
+        }
+
+        return executeMutation(session -> session.createMutationQuery(DELETE_BY_ID_QUERY)
+                                                 .setParameter("uuid", uuid)
+                                                 .executeUpdate());
+    }
+
+    /**
+     * В запрос попадают только заданные границы, поэтому база данных может просматривать диапазон
+     * индекса по свойству вместо проверки на null для каждой строки
+     */
+    private List<Product> findBetween(String property, Object from, Object to) {
+
+        List<Product> products = new ArrayList<>();
+
+        List<String> conditions = new ArrayList<>();
+
+        if (from != null) {
+            conditions.add(String.format(RANGE_FROM_CONDITION, property));
+        }
+
+        if (to != null) {
+            conditions.add(String.format(RANGE_TO_CONDITION, property));
+        }
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+
+        try {
+            Session session = sessionFactory.getCurrentSession();
+
+            Query<Product> query = session.createQuery(String.format(RANGE_QUERY, where, property), Product.class);
+
+            if (from != null) {
+                query.setParameter("from", from);
+            }
+
+            if (to != null) {
+                query.setParameter("to", to);
+            }
+
+            products = query.setReadOnly(true)
+                            .list();
+
+        } catch (HibernateException e) {
+            log.error(SEARCHING_ERROR, e.getMessage(), e);
+        }
+
+        return products;
+    }
+
+    private int executeMutation(ToIntFunction<Session> mutation) {
+
+        Session session = sessionFactory.getCurrentSession();
+
+        boolean isInTransaction = session.getTransaction().isActive();
+
+        if (!isInTransaction) {
+            session.getTransaction().begin();
+        }
+
+        int affectedRows = mutation.applyAsInt(session);
+
+        if (!isInTransaction) {
+            session.getTransaction().commit();
+        }
+
+        return affectedRows;
+    }
+
+    /**
+     * Сохраняет пакет продуктов
+     *
+     * @return продукты, сохранённые или загруженные для обновления этим пакетом
+     */
+    private List<Product> saveBatch(Session session, List<Product> products) {
+
+        List<UUID> updatingUuids = products.stream()
+                                           .map(Product::getUuid)
+                                           .filter(Objects::nonNull)
+                                           .distinct()
+                                           .toList();
+
+        Map<UUID, Product> savedProducts = updatingUuids.isEmpty()
+                                           ? Map.of()
+                                           : session.byMultipleIds(Product.class)
+                                                    .multiLoad(updatingUuids)
+                                                    .stream()
+                                                    .filter(Objects::nonNull)
+                                                    .collect(Collectors.toMap(Product::getUuid,
+                                                                              Function.identity()));
+
+        List<Product> managedProducts = new ArrayList<>(savedProducts.values());
+
+        products.forEach(product -> {
+
+            if (product.getUuid() == null) {
+                session.persist(product);
+                managedProducts.add(product);
+            } else {
+                Product savedProduct = savedProducts.get(product.getUuid());
+
+                if (savedProduct != null) {
+                    savedProduct.setName(product.getName());
+                    savedProduct.setDescription(product.getDescription());
+                    savedProduct.setPrice(product.getPrice());
+                }
+            }
+        });
+
+        return managedProducts;
+    }
+
+    private int getBatchSize() {
+
+        Object batchSize = sessionFactory.getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        int configuredBatchSize = batchSize == null ? 0 : Integer.parseInt(batchSize.toString().trim());
+
+        return configuredBatchSize > 0 ? configuredBatchSize : DEFAULT_BATCH_SIZE;
+    }
 }
@@ -0,0 +1,386 @@
+package ru.clevertec.product.repository.impl;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Декоратор репозитория, отвечающий на поиск из инвертированного индекса в памяти
+ * вместо чтения всего каталога. Индекс строится из streamAll при перестроении
+ * (или лениво при первом поиске) и сам хранит найденные продукты, поэтому поиск не читает
+ * нижележащий репозиторий. Записи меняют индекс, только когда они зафиксированы:
+ * в транзакции текущей сессии - после фиксации, иначе - при возврате. Изменения одного
+ * идентификатора применяются в порядке фиксации, изменение, пришедшее позже более нового
+ * изменения того же идентификатора, пропускается. Записи в обход декоратора видны только после
+ * следующего перестроения
+ */
+public class IndexedProductRepository implements ProductRepository {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final SessionFactory sessionFactory;
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    /**
+     * Записи одного идентификатора вне транзакции упорядочиваются вместе с изменением их индекса
+     */
+    private final Lock[] locks = IntStream.range(0, LOCK_STRIPES)
+                                          .mapToObj(i -> new ReentrantLock())
+                                          .toArray(Lock[]::new);
+
+    /**
+     * Упорядочивает зафиксированные изменения. Транзакция получает свой номер до фиксации, когда
+     * записанные ею строки заблокированы, поэтому изменения одного идентификатора нумеруются в порядке фиксации
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Номера изменений, применённых, пока могут прийти другие, защищены this
+     */
+    private final Map<UUID, Long> appliedSequences = new HashMap<>();
+
+    /**
+     * Изменения открытых транзакций, защищены this
+     */
+    private int pendingChanges;
+
+    private volatile boolean isBuilt;
+
+    public IndexedProductRepository(ProductRepository productRepository) {
+        this(productRepository, null);
+    }
+
+    /**
+     * @param productRepository декорируемый репозиторий
+     * @param sessionFactory    фабрика текущей сессии, к которой присоединяются записи, null если записи завершаются при возврате
+     */
+    public IndexedProductRepository(ProductRepository productRepository, SessionFactory sessionFactory) {
+        this.productRepository = productRepository;
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Перестраивает индекс из всех продуктов нижележащего репозитория.
+     * Должен вызываться в транзакции, если её требует нижележащий репозиторий
+     *
+     * @return количество проиндексированных продуктов
+     */
+    public synchronized int rebuild() {
+
+        searchIndex.clear();
+
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(searchIndex::put);
+        }
+
+        isBuilt = true;
+
+        return searchIndex.size();
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        return productRepository.findById(uuid);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productRepository.findAll();
+    }
+
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+        return productRepository.findAllInfo();
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return productRepository.streamAll();
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+        return productRepository.findPage(after, limit);
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+
+        if (!isBuilt) {
+            rebuild();
+        }
+
+        List<String> queryWords = ProductSearchIndex.words(query);
+
+        try (Stream<UUID> uuids = searchIndex.search(queryWords)) {
+            return uuids.map(searchIndex::get)
+                        .filter(Objects::nonNull)
+                        .filter(product -> ProductSearchIndex.matches(product, queryWords))
+                        .limit(limit)
+                        .map(product -> product.toBuilder().build())
+                        .toList();
+        }
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+        return productRepository.findByPriceBetween(from, to);
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return productRepository.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public Product save(Product product) {
+
+        List<Product> newProducts = newProducts(product == null ? List.of() : List.of(product));
+
+        return write(product == null ? List.of() : uuids(product.getUuid()),
+                     () -> productRepository.save(product),
+                     savedProduct -> put(List.of(savedProduct), newProducts));
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+
+        List<UUID> uuids = products == null
+                           ? List.of()
+                           : products.stream()
+                                     .filter(Objects::nonNull)
+                                     .map(Product::getUuid)
+                                     .filter(Objects::nonNull)
+                                     .toList();
+
+        List<Product> newProducts = newProducts(products == null ? List.of() : products);
+
+        return write(uuids, () -> productRepository.saveAll(products),
+                     savedProducts -> put(savedProducts, newProducts));
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        write(uuids(uuid), () -> {
+            productRepository.delete(uuid);
+            return null;
+        }, deleted -> remove(uuid));
+    }
+
+    @Override
+    public int updateById(Product product) {
+        return write(product == null ? List.of() : uuids(product.getUuid()),
+                     () -> productRepository.updateById(product),
+                     updatedCount -> updatedCount > 0
+                                     ? List.of(new IndexChange(product.getUuid(),
+                                                               indexedProduct -> updated(indexedProduct, product)))
+                                     : List.of());
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+        return write(uuids(uuid), () -> productRepository.deleteById(uuid),
+                     deletedCount -> deletedCount > 0 ? remove(uuid) : List.of());
+    }
+
+    /**
+     * Возвращает количество проиндексированных продуктов
+     *
+     * @return количество проиндексированных продуктов
+     */
+    public int size() {
+        return searchIndex.size();
+    }
+
+    private <T> T write(List<UUID> uuids, Supplier<T> writing, Function<T, List<IndexChange>> changes) {
+
+        Optional<Transaction> transaction = TransactionCompletion.activeTransaction(sessionFactory);
+
+        if (transaction.isPresent()) {
+            T result = writing.get();
+            List<IndexChange> writtenChanges = changes.apply(result);
+
+            if (!writtenChanges.isEmpty()) {
+                register(transaction.get(), writtenChanges);
+            }
+
+            return result;
+        }
+
+        List<Lock> uuidLocks = IntStream.of(uuids.stream()
+                                                 .mapToInt(uuid -> Math.floorMod(uuid.hashCode(), LOCK_STRIPES))
+                                                 .distinct()
+                                                 .sorted()
+                                                 .toArray())
+                                        .mapToObj(stripe -> locks[stripe])
+                                        .toList();
+        uuidLocks.forEach(Lock::lock);
+
+        try {
+            T result = writing.get();
+            applyCommitted(changes.apply(result));
+
+            return result;
+        } finally {
+            uuidLocks.forEach(Lock::unlock);
+        }
+    }
+
+    private void register(Transaction transaction, List<IndexChange> changes) {
+
+        synchronized (this) {
+            pendingChanges++;
+        }
+
+        AtomicLong changeSequence = new AtomicLong();
+
+        try {
+            transaction.registerSynchronization(TransactionCompletion.synchronization(
+                    () -> changeSequence.set(sequence.incrementAndGet()),
+                    isCommitted -> complete(changes, isCommitted, changeSequence.get())));
+        } catch (RuntimeException e) {
+            complete(changes, false, 0L);
+            throw e;
+        }
+    }
+
+    private synchronized void applyCommitted(List<IndexChange> changes) {
+        apply(changes, sequence.incrementAndGet());
+    }
+
+    private synchronized void complete(List<IndexChange> changes, boolean isCommitted, long changeSequence) {
+
+        pendingChanges--;
+
+        if (isCommitted) {
+            apply(changes, changeSequence);
+        }
+
+        if (pendingChanges == 0) {
+            appliedSequences.clear();
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой this
+     */
+    private void apply(List<IndexChange> changes, long changeSequence) {
+
+        for (IndexChange change : changes) {
+
+            Long appliedSequence = appliedSequences.get(change.uuid());
+
+            if (appliedSequence != null && appliedSequence > changeSequence) {
+                continue;
+            }
+
+            if (pendingChanges > 0) {
+                appliedSequences.put(change.uuid(), changeSequence);
+            }
+
+            Product product = change.change().apply(searchIndex.get(change.uuid()));
+
+            if (product == null) {
+                searchIndex.remove(change.uuid());
+            } else {
+                searchIndex.put(product);
+            }
+        }
+    }
+
+    /**
+     * Изменения индекса по результату save. Продукты без идентификатора вставлены и индексируются сразу.
+     * Save продукта с идентификатором ничего не пишет, если такого продукта нет, поэтому такие продукты
+     * перечитываются и индексируются такими, какими их сохранил нижележащий репозиторий
+     *
+     * @param savedProducts продукты, возвращённые save
+     * @param newProducts   продукты, у которых не было идентификатора до save
+     * @return изменения индекса
+     */
+    private List<IndexChange> put(List<Product> savedProducts, List<Product> newProducts) {
+
+        Set<Product> insertedProducts = Collections.newSetFromMap(new IdentityHashMap<>());
+        insertedProducts.addAll(newProducts);
+
+        return savedProducts.stream()
+                            .filter(product -> product != null && product.getUuid() != null)
+                            .map(product -> {
+                                Product storedProduct = insertedProducts.contains(product)
+                                                        ? product.toBuilder().build()
+                                                        : productRepository.findById(product.getUuid())
+                                                                           .map(found -> found.toBuilder().build())
+                                                                           .orElse(null);
+
+                                return new IndexChange(product.getUuid(), indexedProduct -> storedProduct);
+                            })
+                            .toList();
+    }
+
+    private static List<Product> newProducts(Collection<Product> products) {
+        return products.stream()
+                       .filter(product -> product != null && product.getUuid() == null)
+                       .toList();
+    }
+
+    private List<IndexChange> remove(UUID uuid) {
+        return uuid == null ? List.of() : List.of(new IndexChange(uuid, indexedProduct -> null));
+    }
+
+    /**
+     * Применяет к проиндексированному продукту поля, записанные updateById
+     *
+     * @param indexedProduct продукт из индекса, null если он не проиндексирован
+     * @param product        продукт с полями, записанными updateById
+     * @return продукт таким, каким его оставляет в нижележащем репозитории updateById
+     */
+    private static Product updated(Product indexedProduct, Product product) {
+
+        Product baseProduct = indexedProduct == null ? product : indexedProduct;
+        Long version = baseProduct.getVersion();
+
+        return baseProduct.toBuilder()
+                          .name(product.getName())
+                          .description(product.getDescription())
+                          .price(product.getPrice())
+                          .version(version == null ? null : version + 1)
+                          .build();
+    }
+
+    private static List<UUID> uuids(UUID uuid) {
+        return uuid == null ? List.of() : List.of(uuid);
+    }
+
+    /**
+     * Изменение проиндексированного продукта
+     *
+     * @param uuid   идентификатор изменённого продукта
+     * @param change получает проиндексированный продукт или null, возвращает новый проиндексированный продукт или null для его удаления
+     */
+    private record IndexChange(UUID uuid, UnaryOperator<Product> change) {
+    }
+}
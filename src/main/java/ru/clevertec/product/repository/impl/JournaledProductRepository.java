@@ -0,0 +1,445 @@
+package ru.clevertec.product.repository.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.exception.ProductJournalException;
+import ru.clevertec.product.repository.exception.ProductSnapshotException;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Декоратор off-heap репозитория, делающий записи надёжными с помощью журнала упреждающей записи.
+ * Запись вычисляет итоговое состояние продукта и сначала добавляет его в журнал, а к нижележащему
+ * репозиторию состояние применяется только после сброса журнала на диск, поэтому читатели никогда
+ * не видят изменение, которое потерял бы сбой или ошибка журнала. Записи добавляются под одной
+ * блокировкой и применяются в том же порядке, а ожидание диска выполняется вне её и разделяется
+ * конкурентными записями. Следующие записи продукта видят его добавленное, но ещё не применённое
+ * состояние. Журнал периодически сжимается в снимок, когда достаточно вырос: снимок записывается,
+ * а журнал обрезается, пока записи ждут
+ */
+public class JournaledProductRepository implements ProductRepository, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournaledProductRepository.class);
+
+    private static final long NOTHING_APPENDED = 0L;
+    private static final long INITIAL_VERSION = 0L;
+
+    private static final String NO_SNAPSHOT_ERROR = "Journal can't be compacted without snapshot file";
+    private static final String COMPACTION_ERROR = "Error compacting product journal into snapshot {}";
+
+    private final OffHeapProductRepository productRepository;
+    private final ProductJournal journal;
+    private final Path snapshotFile;
+    private final long compactionMinJournalBytes;
+    private final Object writeLock = new Object();
+    private final Deque<PendingChange> appendedChanges = new ArrayDeque<>();
+    private final Map<UUID, PendingChange> pendingChanges = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param productRepository         off-heap репозиторий, заполненный из снимка и базы данных до восстановления
+     * @param journal                   журнал изменений, сделанных после снимка
+     * @param snapshotFile              снимок, в который сжимается журнал, null отключает сжатие
+     * @param compactionMinJournalBytes размер, которого должен достичь журнал для сжатия
+     */
+    public JournaledProductRepository(OffHeapProductRepository productRepository, ProductJournal journal,
+                                      Path snapshotFile, long compactionMinJournalBytes) {
+        this.productRepository = productRepository;
+        this.journal = journal;
+        this.snapshotFile = snapshotFile;
+        this.compactionMinJournalBytes = compactionMinJournalBytes;
+    }
+
+    /**
+     * Воспроизводит журнал в нижележащий репозиторий. Должен вызываться один раз до любой записи
+     *
+     * @return количество воспроизведённых изменений
+     */
+    public int recover() {
+        return journal.replay(product -> productRepository.load(Stream.of(product)),
+                              productRepository::deleteById);
+    }
+
+    /**
+     * Запускает проверку размера журнала и его сжатие с заданным интервалом
+     *
+     * @param intervalSeconds интервал между проверками
+     */
+    public void startCompaction(long intervalSeconds) {
+
+        if (snapshotFile == null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-journal-compactor");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (journal.size() >= compactionMinJournalBytes) {
+                    compact();
+                }
+            } catch (ProductSnapshotException | ProductJournalException e) {
+                log.error(COMPACTION_ERROR, snapshotFile, e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Записывает снимок всех продуктов и обрезает журнал. Записи ждут завершения
+     *
+     * @return размер файла снимка в байтах
+     * @throws ProductSnapshotException если снимок не удалось записать, тогда журнал сохраняется
+     * @throws IllegalStateException    если нет файла снимка
+     */
+    public long compact() {
+
+        if (snapshotFile == null) {
+            throw new IllegalStateException(NO_SNAPSHOT_ERROR);
+        }
+
+        synchronized (writeLock) {
+            journal.sync();
+            applyForced();
+
+            long snapshotSize = productRepository.writeSnapshot(snapshotFile);
+            journal.truncate();
+
+            return snapshotSize;
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        return productRepository.findById(uuid);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productRepository.findAll();
+    }
+
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+        return productRepository.findAllInfo();
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return productRepository.streamAll();
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+        return productRepository.findPage(after, limit);
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        return productRepository.search(query, limit);
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+        return productRepository.findByPriceBetween(from, to);
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return productRepository.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public Product save(Product product) {
+
+        if (product == null) {
+            return productRepository.save(product);
+        }
+
+        Product storedProduct;
+        long sequence = NOTHING_APPENDED;
+
+        synchronized (writeLock) {
+            storedProduct = stored(product);
+
+            if (storedProduct != null) {
+                sequence = appendPut(storedProduct);
+            }
+        }
+
+        apply(sequence);
+        assignUuid(product, storedProduct);
+
+        return product;
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+
+        if (products == null || products.stream().anyMatch(Objects::isNull)) {
+            return productRepository.saveAll(products);
+        }
+
+        List<Product> storedProducts = new ArrayList<>(products.size());
+        long sequence = NOTHING_APPENDED;
+        ProductJournalException failure = null;
+
+        synchronized (writeLock) {
+
+            for (Product product : products) {
+                Product storedProduct = stored(product);
+
+                try {
+                    if (storedProduct != null) {
+                        sequence = appendPut(storedProduct);
+                    }
+                } catch (ProductJournalException e) {
+                    failure = e;
+                    break;
+                }
+
+                storedProducts.add(storedProduct);
+            }
+        }
+
+        // products appended before failure are still applied once they are forced
+        apply(sequence);
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        List<Product> savedProducts = new ArrayList<>(products.size());
+        Iterator<Product> storedIterator = storedProducts.iterator();
+
+        for (Product product : products) {
+            assignUuid(product, storedIterator.next());
+            savedProducts.add(product);
+        }
+
+        return savedProducts;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        deleteById(uuid);
+    }
+
+    @Override
+    public int updateById(Product product) {
+
+        if (product == null || product.getUuid() == null) {
+            return productRepository.updateById(product);
+        }
+
+        long sequence;
+
+        synchronized (writeLock) {
+            Optional<Product> savedProduct = current(product.getUuid());
+
+            if (savedProduct.isEmpty()
+                || product.getVersion() != null && !product.getVersion().equals(savedProduct.get().getVersion())) {
+                return 0;
+            }
+
+            sequence = appendPut(merged(savedProduct.get(), product));
+        }
+
+        apply(sequence);
+
+        return 1;
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+
+        if (uuid == null) {
+            return 0;
+        }
+
+        long sequence;
+
+        synchronized (writeLock) {
+
+            if (current(uuid).isEmpty()) {
+                return 0;
+            }
+
+            sequence = journal.appendDelete(uuid);
+            enqueue(new PendingChange(sequence, uuid, null));
+        }
+
+        apply(sequence);
+
+        return 1;
+    }
+
+    /**
+     * Останавливает сжатие и закрывает журнал, все записанные изменения сбрасываются на диск
+     */
+    @Override
+    public void close() {
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        journal.close();
+    }
+
+    /**
+     * Состояние продукта после всех добавленных изменений, вызывается под блокировкой записи
+     */
+    private Optional<Product> current(UUID uuid) {
+
+        PendingChange pendingChange = pendingChanges.get(uuid);
+
+        if (pendingChange != null) {
+            return Optional.ofNullable(pendingChange.product());
+        }
+
+        return productRepository.findById(uuid);
+    }
+
+    /**
+     * Продукт, сохраняющий переданный, вызывается под блокировкой записи
+     *
+     * @return новый продукт со сгенерированным идентификатором, объединённый продукт
+     *         или null если продукта с переданным идентификатором нет
+     */
+    private Product stored(Product product) {
+
+        if (product.getUuid() != null) {
+            return current(product.getUuid()).map(savedProduct -> merged(savedProduct, product))
+                                             .orElse(null);
+        }
+
+        UUID uuid;
+        do {
+            uuid = UUID.randomUUID();
+        } while (current(uuid).isPresent());
+
+        return product.toBuilder()
+                      .uuid(uuid)
+                      .version(INITIAL_VERSION)
+                      .build();
+    }
+
+    private static Product merged(Product savedProduct, Product product) {
+        return savedProduct.toBuilder()
+                           .name(product.getName())
+                           .description(product.getDescription())
+                           .price(product.getPrice())
+                           .version(savedProduct.getVersion() + 1)
+                           .build();
+    }
+
+    private static void assignUuid(Product product, Product storedProduct) {
+
+        if (product.getUuid() == null && storedProduct != null) {
+            product.setUuid(storedProduct.getUuid());
+            product.setVersion(storedProduct.getVersion());
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой записи
+     */
+    private long appendPut(Product product) {
+
+        long sequence = journal.appendPut(product);
+        enqueue(new PendingChange(sequence, product.getUuid(), product));
+
+        return sequence;
+    }
+
+    private void enqueue(PendingChange pendingChange) {
+        appendedChanges.addLast(pendingChange);
+        pendingChanges.put(pendingChange.uuid(), pendingChange);
+    }
+
+    /**
+     * Ждёт сброса изменения и применяет все сброшенные изменения к нижележащему репозиторию
+     * в порядке их добавления. При ошибке журнала несброшенные изменения отбрасываются,
+     * поэтому репозиторий хранит только то, что хранит журнал
+     *
+     * @param sequence порядковый номер последнего изменения вызывающего кода
+     * @throws ProductJournalException если изменение не сброшено
+     */
+    private void apply(long sequence) {
+
+        try {
+            journal.awaitForced(sequence);
+        } catch (ProductJournalException e) {
+
+            synchronized (writeLock) {
+                applyForced();
+                appendedChanges.clear();
+                pendingChanges.clear();
+            }
+
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            applyForced();
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой записи
+     */
+    private void applyForced() {
+
+        long forcedSequence = journal.forcedSequence();
+
+        while (!appendedChanges.isEmpty() && appendedChanges.peekFirst().sequence() <= forcedSequence) {
+
+            PendingChange pendingChange = appendedChanges.pollFirst();
+
+            if (pendingChange.product() == null) {
+                productRepository.deleteById(pendingChange.uuid());
+            } else {
+                productRepository.load(Stream.of(pendingChange.product()));
+            }
+
+            pendingChanges.remove(pendingChange.uuid(), pendingChange);
+        }
+    }
+
+    /**
+     * Изменение, добавленное в журнал и ещё не применённое к нижележащему репозиторию
+     *
+     * @param sequence порядковый номер записи журнала
+     * @param uuid     идентификатор изменённого продукта
+     * @param product  сохранённый продукт или null если продукт удалён
+     */
+    private record PendingChange(long sequence, UUID uuid, Product product) {
+    }
+}
@@ -0,0 +1,137 @@
+package ru.clevertec.product.repository.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Декоратор репозитория, записывающий гистограмму задержки каждого метода.
+ * Задержка streamAll включает потребление потока и записывается при закрытии потока
+ */
+public class MeteredProductRepository implements ProductRepository {
+
+    public static final String CALLS_METRIC = "product.repository.calls";
+
+    private final ProductRepository productRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Timer findByIdTimer;
+    private final Timer findAllTimer;
+    private final Timer findAllInfoTimer;
+    private final Timer streamAllTimer;
+    private final Timer findPageTimer;
+    private final Timer searchTimer;
+    private final Timer findByPriceBetweenTimer;
+    private final Timer findCreatedBetweenTimer;
+    private final Timer saveTimer;
+    private final Timer saveAllTimer;
+    private final Timer deleteTimer;
+    private final Timer updateByIdTimer;
+    private final Timer deleteByIdTimer;
+
+    public MeteredProductRepository(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.meterRegistry = meterRegistry;
+
+        this.findByIdTimer = timer("findById");
+        this.findAllTimer = timer("findAll");
+        this.findAllInfoTimer = timer("findAllInfo");
+        this.streamAllTimer = timer("streamAll");
+        this.findPageTimer = timer("findPage");
+        this.searchTimer = timer("search");
+        this.findByPriceBetweenTimer = timer("findByPriceBetween");
+        this.findCreatedBetweenTimer = timer("findCreatedBetween");
+        this.saveTimer = timer("save");
+        this.saveAllTimer = timer("saveAll");
+        this.deleteTimer = timer("delete");
+        this.updateByIdTimer = timer("updateById");
+        this.deleteByIdTimer = timer("deleteById");
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        return findByIdTimer.record(() -> productRepository.findById(uuid));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return findAllTimer.record(productRepository::findAll);
+    }
+
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+        return findAllInfoTimer.record(productRepository::findAllInfo);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        return productRepository.streamAll()
+                                .onClose(() -> sample.stop(streamAllTimer));
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+        return findPageTimer.record(() -> productRepository.findPage(after, limit));
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        return searchTimer.record(() -> productRepository.search(query, limit));
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+        return findByPriceBetweenTimer.record(() -> productRepository.findByPriceBetween(from, to));
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return findCreatedBetweenTimer.record(() -> productRepository.findCreatedBetween(from, to));
+    }
+
+    @Override
+    public Product save(Product product) {
+        return saveTimer.record(() -> productRepository.save(product));
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+        return saveAllTimer.record(() -> productRepository.saveAll(products));
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        deleteTimer.record(() -> productRepository.delete(uuid));
+    }
+
+    @Override
+    public int updateById(Product product) {
+        return updateByIdTimer.record(() -> productRepository.updateById(product));
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+        return deleteByIdTimer.record(() -> productRepository.deleteById(uuid));
+    }
+
+    private Timer timer(String method) {
+        return Timer.builder(CALLS_METRIC)
+                    .description("Product repository method latency")
+                    .tag("method", method)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+    }
+}
@@ -0,0 +1,667 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Репозиторий, хранящий продукты вне кучи. Записи компактного двоичного формата добавляются
+ * в слэбы прямых буферов и ищутся по идентификатору через off-heap индекс с открытой адресацией,
+ * поэтому в куче хранится лишь несколько объектов на слэб независимо от размера каталога,
+ * а продукты существуют как объекты, только пока их читают. Обновление перезаписывает запись
+ * на месте, если она помещается в свой слот, иначе запись добавляется заново, а старая остаётся мёртвой.
+ * Упорядоченные запросы и запросы по диапазону просматривают все записи. Каждое изменение увеличивает
+ * версию продукта, обновление с ожидаемой версией выполняется как compare-and-set. Чтения разделяют
+ * блокировку, записи монопольны. Репозиторий можно записать в файл снимка и открыть из него
+ * отображением файла, см. {@link OffHeapSnapshotFile}
+ */
+public class OffHeapProductRepository implements ProductRepository {
+
+    public static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+
+    private static final int SLAB_SHIFT = 32;
+    private static final long OFFSET_MASK = 0xFFFFFFFFL;
+    private static final int MAX_SLAB_SIZE = 1 << 30;
+    private static final long INITIAL_VERSION = 0L;
+
+    private static final String SLAB_SIZE_ERROR = "Slab size must be in [%d, %d], but was %d";
+    private static final String RECORD_SIZE_ERROR = "Product record of %d bytes doesn't fit slab of %d bytes";
+    private static final String NULL_POINTER_PRODUCT_ERROR = "Given product is null";
+    private static final String NULL_POINTER_UUID_ERROR = "Given product uuid is null";
+    private static final String NULL_POINTER_PRODUCTS_ERROR = "Given products or one of them is null";
+
+    private static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final int slabSize;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final OffHeapUuidIndex index;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    private int writeOffset;
+    private long usedBytes;
+    private long garbageBytes;
+    private long loadedUntil = Long.MIN_VALUE;
+
+    public OffHeapProductRepository() {
+        this(DEFAULT_SLAB_SIZE, 0);
+    }
+
+    /**
+     * @param slabSize     размер одного слэба прямого буфера в байтах
+     * @param expectedSize ожидаемое количество продуктов, под него заранее выделяется индекс
+     */
+    public OffHeapProductRepository(int slabSize, int expectedSize) {
+
+        if (slabSize < Short.MAX_VALUE * 2 || slabSize > MAX_SLAB_SIZE) {
+            throw new IllegalArgumentException(String.format(SLAB_SIZE_ERROR, Short.MAX_VALUE * 2, MAX_SLAB_SIZE,
+                                                             slabSize));
+        }
+
+        this.slabSize = slabSize;
+        this.index = new OffHeapUuidIndex(expectedSize);
+    }
+
+    private OffHeapProductRepository(OffHeapSnapshotFile.Contents contents) {
+        this.slabSize = contents.slabSize();
+        this.slabs.addAll(contents.slabs());
+        this.index = new OffHeapUuidIndex(contents.indexSlots(), contents.size());
+        this.usedBytes = contents.usedBytes();
+        this.garbageBytes = contents.garbageBytes();
+        this.loadedUntil = contents.loadedUntil();
+
+        if (!slabs.isEmpty()) {
+            ByteBuffer lastSlab = slabs.get(slabs.size() - 1);
+
+            while (writeOffset + Integer.BYTES <= slabSize && ProductRecordCodec.slotSize(lastSlab, writeOffset) > 0) {
+                writeOffset += ProductRecordCodec.slotSize(lastSlab, writeOffset);
+            }
+        }
+    }
+
+    /**
+     * Открывает репозиторий из файла снимка за время, не зависящее от количества продуктов:
+     * записи и индекс идентификаторов отображаются из файла и читаются из него по мере необходимости.
+     * Продукты, изменённые в другом хранилище после записи снимка, нужно затем {@link #load(Stream) загрузить}
+     *
+     * @param snapshotFile файл, записанный {@link #writeSnapshot(Path)}
+     * @return репозиторий с продуктами снимка
+     * @throws ru.clevertec.product.repository.exception.ProductSnapshotException если файл не удалось прочитать,
+     *                                                                             он повреждён или другой версии
+     */
+    public static OffHeapProductRepository openSnapshot(Path snapshotFile) {
+        return openSnapshot(snapshotFile, false);
+    }
+
+    /**
+     * Открывает репозиторий из файла снимка
+     *
+     * @param snapshotFile файл, записанный {@link #writeSnapshot(Path)}
+     * @param isVerified   проверять ли контрольные суммы всех записей и индекса, тогда читается весь файл
+     *                     и время пропорционально его размеру
+     * @return репозиторий с продуктами снимка
+     * @throws ru.clevertec.product.repository.exception.ProductSnapshotException если файл не удалось прочитать,
+     *                                                                             он повреждён или другой версии
+     * @see #openSnapshot(Path)
+     */
+    public static OffHeapProductRepository openSnapshot(Path snapshotFile, boolean isVerified) {
+        return new OffHeapProductRepository(OffHeapSnapshotFile.read(snapshotFile, isVerified));
+    }
+
+    /**
+     * Записывает все продукты в файл снимка. Записи ждут, пока снимок не будет записан
+     *
+     * @param snapshotFile записываемый файл, если он существует, заменяется атомарно
+     * @return размер файла снимка в байтах
+     * @throws ru.clevertec.product.repository.exception.ProductSnapshotException если файл не удалось записать
+     */
+    public long writeSnapshot(Path snapshotFile) {
+
+        readLock.lock();
+        try {
+            List<ByteBuffer> writtenSlabs = new ArrayList<>(slabs.size());
+
+            for (int slabIndex = 0; slabIndex < slabs.size(); slabIndex++) {
+                writtenSlabs.add(slabs.get(slabIndex).duplicate()
+                                      .clear()
+                                      .limit(slabIndex == slabs.size() - 1 ? writeOffset : slabSize));
+            }
+
+            return OffHeapSnapshotFile.write(snapshotFile, new OffHeapSnapshotFile.Contents(slabSize, writtenSlabs,
+                    index.slots(), index.size(), usedBytes, garbageBytes, loadedUntil));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает время последнего изменения в базе данных, загруженного в репозиторий, оно сохраняется со снимком
+     *
+     * @return время последнего загруженного изменения, null если из базы данных ничего не загружалось
+     */
+    public LocalDateTime getLoadedUntil() {
+
+        readLock.lock();
+        try {
+            return ProductRecordCodec.fromEpochMicros(loadedUntil);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Задаёт время последнего изменения в базе данных, загруженного в репозиторий
+     *
+     * @param loadedUntil время последнего загруженного изменения
+     */
+    public void setLoadedUntil(LocalDateTime loadedUntil) {
+
+        writeLock.lock();
+        try {
+            this.loadedUntil = ProductRecordCodec.toEpochMicros(loadedUntil);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Сохраняет продукты как есть, сохраняя их идентификаторы и время создания.
+     * Заполняет репозиторий из другого хранилища
+     *
+     * @param products продукты с идентификаторами
+     * @return количество сохранённых продуктов
+     */
+    public int load(Stream<Product> products) {
+
+        int[] loaded = {0};
+
+        products.forEach(product -> {
+            writeLock.lock();
+            try {
+                store(product);
+                loaded[0]++;
+            } finally {
+                writeLock.unlock();
+            }
+        });
+
+        return loaded[0];
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+
+        if (uuid == null) {
+            return Optional.empty();
+        }
+
+        readLock.lock();
+        try {
+            long address = index.get(uuid);
+
+            return address == OffHeapUuidIndex.ABSENT
+                   ? Optional.empty()
+                   : Optional.of(ProductRecordCodec.readProduct(slab(address), offset(address)));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Product> findAll() {
+
+        try (Stream<Product> products = streamAll()) {
+            return products.toList();
+        }
+    }
+
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+
+        List<InfoProductDto> infoProductDtos = new ArrayList<>();
+
+        readLock.lock();
+        try {
+            forEachLive((slab, offset) -> infoProductDtos.add(ProductRecordCodec.readInfo(slab, offset)));
+        } finally {
+            readLock.unlock();
+        }
+
+        return infoProductDtos;
+    }
+
+    /**
+     * Записи читаются по одной в порядке хранения, каждая под блокировкой чтения,
+     * поэтому поток не блокирует записи. Продукт, обновлённый во время чтения потока,
+     * может быть возвращён дважды, если его запись переместилась за позицию потока
+     */
+    @Override
+    public Stream<Product> streamAll() {
+
+        Spliterator<Product> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.NONNULL) {
+
+            private int slabIndex;
+            private int offset;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Product> action) {
+
+                Product product = null;
+
+                readLock.lock();
+                try {
+                    while (product == null && slabIndex < slabs.size()) {
+                        ByteBuffer slab = slabs.get(slabIndex);
+                        int size = offset + Integer.BYTES <= slabSize ? ProductRecordCodec.slotSize(slab, offset) : 0;
+
+                        if (size == 0) {
+                            slabIndex++;
+                            offset = 0;
+                            continue;
+                        }
+
+                        if (ProductRecordCodec.isLive(slab, offset)) {
+                            product = ProductRecordCodec.readProduct(slab, offset);
+                        }
+
+                        offset += size;
+                    }
+                } finally {
+                    readLock.unlock();
+                }
+
+                if (product == null) {
+                    return false;
+                }
+
+                action.accept(product);
+
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+
+        // max-heap of the smallest cursors seen, its head is evicted first
+        PriorityQueue<Candidate<ProductPageCursor>> candidates = new PriorityQueue<>(
+                Comparator.comparing(Candidate<ProductPageCursor>::key).reversed());
+
+        readLock.lock();
+        try {
+            forEachLive((slab, offset) -> {
+
+                ProductPageCursor cursor = new ProductPageCursor(ProductRecordCodec.readCreated(slab, offset),
+                                                                 ProductRecordCodec.readUuid(slab, offset));
+
+                if (after != null && cursor.compareTo(after) <= 0) {
+                    return;
+                }
+
+                if (candidates.size() < limit) {
+                    candidates.add(new Candidate<>(cursor, slab, offset));
+                } else if (limit > 0 && cursor.compareTo(candidates.peek().key()) < 0) {
+                    candidates.poll();
+                    candidates.add(new Candidate<>(cursor, slab, offset));
+                }
+            });
+
+            return candidates.stream()
+                             .sorted(Comparator.comparing(Candidate::key))
+                             .map(candidate -> ProductRecordCodec.readProduct(candidate.slab(), candidate.offset()))
+                             .toList();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+
+        List<String> queryWords = ProductSearchIndex.words(query);
+
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        try (Stream<Product> products = streamAll()) {
+            return products.filter(product -> ProductSearchIndex.matches(product, queryWords))
+                           .limit(limit)
+                           .toList();
+        }
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+        return findBetween((slab, offset) -> {
+            BigDecimal price = ProductRecordCodec.readPrice(slab, offset);
+
+            return price != null
+                   && (from == null || price.compareTo(from) >= 0)
+                   && (to == null || price.compareTo(to) <= 0);
+        }, Comparator.comparing(Product::getPrice).thenComparing(Product::getUuid, UUID_ORDER));
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return findBetween((slab, offset) -> {
+            LocalDateTime created = ProductRecordCodec.readCreated(slab, offset);
+
+            return created != null
+                   && (from == null || !created.isBefore(from))
+                   && (to == null || !created.isAfter(to));
+        }, Comparator.comparing(Product::getCreated).thenComparing(Product::getUuid, UUID_ORDER));
+    }
+
+    @Override
+    public Product save(Product product) {
+
+        if (product == null) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCT_ERROR);
+        }
+
+        writeLock.lock();
+        try {
+            if (product.getUuid() == null) {
+                UUID uuid;
+                do {
+                    uuid = UUID.randomUUID();
+                } while (index.get(uuid) != OffHeapUuidIndex.ABSENT);
+
+                store(product.toBuilder()
+                             .uuid(uuid)
+                             .version(INITIAL_VERSION)
+                             .build());
+                product.setUuid(uuid);
+                product.setVersion(INITIAL_VERSION);
+            } else {
+                merge(product, false);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        return product;
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+
+        if (products == null || products.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCTS_ERROR);
+        }
+
+        return products.stream()
+                       .map(this::save)
+                       .toList();
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        deleteById(uuid);
+    }
+
+    @Override
+    public int updateById(Product product) {
+
+        if (product == null) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCT_ERROR);
+        }
+
+        if (product.getUuid() == null) {
+            throw new IllegalArgumentException(NULL_POINTER_UUID_ERROR);
+        }
+
+        writeLock.lock();
+        try {
+            return merge(product, product.getVersion() != null) ? 1 : 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+
+        if (uuid == null) {
+            return 0;
+        }
+
+        writeLock.lock();
+        try {
+            long address = index.remove(uuid);
+
+            if (address == OffHeapUuidIndex.ABSENT) {
+                return 0;
+            }
+
+            release(address);
+
+            return 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает текущее использование памяти
+     *
+     * @return статистика использования памяти
+     */
+    public Statistics getStatistics() {
+
+        readLock.lock();
+        try {
+            return new Statistics(index.size(), slabs.size(), (long) slabs.size() * slabSize, usedBytes,
+                                  garbageBytes);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой записи
+     *
+     * @param product         продукт с новыми данными
+     * @param isCompareAndSet обновлять ли продукт только при совпадении его версии с переданной
+     * @return true если продукт обновлён
+     */
+    private boolean merge(Product product, boolean isCompareAndSet) {
+
+        long address = index.get(product.getUuid());
+
+        if (address == OffHeapUuidIndex.ABSENT) {
+            return false;
+        }
+
+        long savedVersion = ProductRecordCodec.readVersion(slab(address), offset(address));
+
+        if (isCompareAndSet && savedVersion != product.getVersion()) {
+            return false;
+        }
+
+        store(ProductRecordCodec.readProduct(slab(address), offset(address)).toBuilder()
+                                .name(product.getName())
+                                .description(product.getDescription())
+                                .price(product.getPrice())
+                                .version(savedVersion + 1)
+                                .build());
+
+        return true;
+    }
+
+    /**
+     * Вызывается под блокировкой записи
+     */
+    private void store(Product product) {
+
+        ProductRecordCodec.Encoded encoded = ProductRecordCodec.encode(product);
+        int size = encoded.size();
+
+        long address = index.get(product.getUuid());
+
+        if (address != OffHeapUuidIndex.ABSENT) {
+            int slotSize = ProductRecordCodec.slotSize(slab(address), offset(address));
+
+            if (size <= slotSize) {
+                ProductRecordCodec.write(slab(address), offset(address), slotSize, encoded);
+                return;
+            }
+        }
+
+        long newAddress = append(encoded, size);
+        index.put(product.getUuid(), newAddress);
+
+        if (address != OffHeapUuidIndex.ABSENT) {
+            release(address);
+        }
+    }
+
+    private long append(ProductRecordCodec.Encoded encoded, int size) {
+
+        if (size > slabSize) {
+            throw new IllegalArgumentException(String.format(RECORD_SIZE_ERROR, size, slabSize));
+        }
+
+        if (slabs.isEmpty() || writeOffset + size > slabSize) {
+
+            if (!slabs.isEmpty()) {
+                garbageBytes += slabSize - writeOffset;
+            }
+
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            writeOffset = 0;
+        }
+
+        int slabIndex = slabs.size() - 1;
+        int offset = writeOffset;
+
+        ProductRecordCodec.write(slabs.get(slabIndex), offset, size, encoded);
+
+        writeOffset += size;
+        usedBytes += size;
+
+        return ((long) slabIndex << SLAB_SHIFT) | offset;
+    }
+
+    private void release(long address) {
+
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+
+        ProductRecordCodec.markDead(slab, offset);
+
+        int slotSize = ProductRecordCodec.slotSize(slab, offset);
+        usedBytes -= slotSize;
+        garbageBytes += slotSize;
+    }
+
+    private List<Product> findBetween(RecordFilter filter, Comparator<Product> order) {
+
+        List<Product> products = new ArrayList<>();
+
+        readLock.lock();
+        try {
+            forEachLive((slab, offset) -> {
+                if (filter.test(slab, offset)) {
+                    products.add(ProductRecordCodec.readProduct(slab, offset));
+                }
+            });
+        } finally {
+            readLock.unlock();
+        }
+
+        products.sort(order);
+
+        return products;
+    }
+
+    /**
+     * Вызывается под блокировкой
+     */
+    private void forEachLive(RecordConsumer consumer) {
+
+        for (ByteBuffer slab : slabs) {
+
+            int offset = 0;
+
+            while (offset + Integer.BYTES <= slabSize) {
+                int size = ProductRecordCodec.slotSize(slab, offset);
+
+                if (size == 0) {
+                    break;
+                }
+
+                if (ProductRecordCodec.isLive(slab, offset)) {
+                    consumer.accept(slab, offset);
+                }
+
+                offset += size;
+            }
+        }
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs.get((int) (address >>> SLAB_SHIFT));
+    }
+
+    private static int offset(long address) {
+        return (int) (address & OFFSET_MASK);
+    }
+
+    @FunctionalInterface
+    private interface RecordConsumer {
+        void accept(ByteBuffer slab, int offset);
+    }
+
+    @FunctionalInterface
+    private interface RecordFilter {
+        boolean test(ByteBuffer slab, int offset);
+    }
+
+    private record Candidate<K>(K key, ByteBuffer slab, int offset) {
+    }
+
+    /**
+     * Использование памяти вне кучи
+     *
+     * @param size           количество хранимых продуктов
+     * @param slabs          количество выделенных прямых буферов
+     * @param allocatedBytes память вне кучи, выделенная под записи
+     * @param usedBytes      байты, занятые живыми записями
+     * @param garbageBytes   байты, занятые мёртвыми записями и неиспользованными хвостами слэбов
+     */
+    public record Statistics(int size, int slabs, long allocatedBytes, long usedBytes, long garbageBytes) {
+    }
+}
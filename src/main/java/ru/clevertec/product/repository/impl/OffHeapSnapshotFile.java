@@ -0,0 +1,287 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.repository.exception.ProductSnapshotException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Файл снимка off-heap репозитория. Слэбы и индекс идентификаторов пишутся так,
+ * как лежат в памяти, поэтому открытие снимка отображает их обратно без декодирования
+ * записей, и адреса записей в индексе остаются верными. Области отображаются приватно:
+ * обновления отображённых записей на месте копируются при записи и не попадают в файл.
+ * Только последний, ещё заполняемый слэб копируется в новый прямой буфер, чтобы оставить место
+ * для добавлений. У каждой области своя CRC32C, а контрольная сумма заголовка покрывает заголовок
+ * и эти суммы. При открытии проверяются только заголовок и скопированный последний слэб, поэтому
+ * отображённые страницы не читаются; проверка индекса и всех слэбов читает весь файл и необязательна.
+ * <pre>
+ * int   магическое число
+ * int   версия
+ * int   размер слэба
+ * int   количество слэбов
+ * int   длина последнего слэба
+ * int   длина индекса идентификаторов в байтах
+ * int   количество продуктов
+ * int   зарезервировано
+ * long  байты, занятые живыми записями
+ * long  байты, занятые мёртвыми записями
+ * long  последнее загруженное изменение в базе данных в микросекундах от начала эпохи в UTC
+ * long  CRC32C предшествующей части заголовка и сумм областей
+ * long  CRC32C индекса идентификаторов, затем каждого слэба
+ * ...   индекс идентификаторов
+ * ...   слэбы, все размера слэба, кроме последнего
+ * </pre>
+ */
+final class OffHeapSnapshotFile {
+
+    static final int MAGIC = 0x50534E50;
+    static final int VERSION = 4;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int CHECKSUM_OFFSET = 56;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final String WRITE_ERROR = "Error writing product snapshot to %s";
+    private static final String READ_ERROR = "Error reading product snapshot from %s";
+    private static final String MAGIC_ERROR = "File %s is not a product snapshot";
+    private static final String VERSION_ERROR = "Product snapshot %s has unsupported version %d";
+    private static final String LENGTH_ERROR = "Product snapshot %s has %d bytes, but its header declares %d";
+    private static final String CHECKSUM_ERROR = "Product snapshot %s is corrupted, checksum doesn't match";
+    private static final String REGION_CHECKSUM_ERROR = "Product snapshot %s is corrupted, checksum of %s doesn't match";
+    private static final String INDEX_REGION = "uuid index";
+    private static final String SLAB_REGION = "slab %d";
+
+    private OffHeapSnapshotFile() {
+    }
+
+    /**
+     * Состояние off-heap репозитория, хранимое снимком
+     *
+     * @param slabSize        размер слэба
+     * @param slabs           слэбы, все размера слэба, кроме последнего, ограниченного заполненной длиной
+     * @param indexSlots      слоты индекса идентификаторов
+     * @param size            количество продуктов
+     * @param usedBytes       байты, занятые живыми записями
+     * @param garbageBytes    байты, занятые мёртвыми записями
+     * @param loadedUntil     время последнего загруженного изменения в базе данных в микросекундах от начала эпохи
+     */
+    record Contents(int slabSize, List<ByteBuffer> slabs, ByteBuffer indexSlots, int size, long usedBytes,
+                    long garbageBytes, long loadedUntil) {
+    }
+
+    /**
+     * Пишет снимок рядом с целевым файлом и перемещает его поверх целевого,
+     * когда он полностью записан и сброшен на диск
+     *
+     * @param target   файл снимка
+     * @param contents записываемое состояние, буферы читаются от позиции до лимита
+     * @return размер файла снимка в байтах
+     * @throws ProductSnapshotException если файл не удалось записать
+     */
+    static long write(Path target, Contents contents) {
+
+        Path temporaryFile = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+
+        List<ByteBuffer> regions = new ArrayList<>();
+        regions.add(contents.indexSlots().duplicate());
+        contents.slabs().forEach(slab -> regions.add(slab.duplicate()));
+
+        ByteBuffer header = header(contents);
+        ByteBuffer digests = ByteBuffer.allocate(regions.size() * Long.BYTES);
+        regions.forEach(region -> digests.putLong(checksum(region)));
+        digests.flip();
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(header.duplicate().limit(CHECKSUM_OFFSET));
+        checksum.update(digests.duplicate());
+        header.putLong(CHECKSUM_OFFSET, checksum.getValue());
+
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+
+            long position = 0;
+
+            for (ByteBuffer buffer : concat(header, digests, regions)) {
+
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+
+            channel.force(true);
+        } catch (IOException e) {
+            deleteQuietly(temporaryFile, e);
+
+            throw new ProductSnapshotException(String.format(WRITE_ERROR, target), e);
+        }
+
+        try {
+            Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            return Files.size(target);
+        } catch (IOException e) {
+            deleteQuietly(temporaryFile, e);
+
+            throw new ProductSnapshotException(String.format(WRITE_ERROR, target), e);
+        }
+    }
+
+    /**
+     * Отображает снимок и проверяет контрольную сумму заголовка. Последний слэб читается в любом случае
+     * и проверяется всегда, индекс и отображённые слэбы проверяются, только если это запрошено
+     *
+     * @param source     файл снимка
+     * @param isVerified проверять ли суммы индекса и всех слэбов, тогда читается весь файл
+     * @return состояние из снимка, полные слэбы и индекс отображены из файла
+     * @throws ProductSnapshotException если файл не удалось прочитать или он не является корректным снимком
+     */
+    static Contents read(Path source, boolean isVerified) {
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new ProductSnapshotException(String.format(MAGIC_ERROR, source));
+            }
+
+            if (header.getInt(4) != VERSION) {
+                throw new ProductSnapshotException(String.format(VERSION_ERROR, source, header.getInt(4)));
+            }
+
+            int slabSize = header.getInt(8);
+            int slabCount = header.getInt(12);
+            int lastSlabLength = header.getInt(16);
+            int indexLength = header.getInt(20);
+            int digestsLength = (slabCount + 1) * Long.BYTES;
+
+            long expectedLength = HEADER_SIZE + digestsLength + (long) indexLength
+                                  + (slabCount == 0 ? 0 : (long) (slabCount - 1) * slabSize + lastSlabLength);
+
+            if (slabCount < 0 || channel.size() != expectedLength) {
+                throw new ProductSnapshotException(String.format(LENGTH_ERROR, source, channel.size(),
+                                                                 expectedLength));
+            }
+
+            ByteBuffer digests = readFully(channel, HEADER_SIZE, digestsLength);
+
+            CRC32C checksum = new CRC32C();
+            checksum.update(header.duplicate().clear().limit(CHECKSUM_OFFSET));
+            checksum.update(digests.duplicate().clear());
+
+            if (checksum.getValue() != header.getLong(CHECKSUM_OFFSET)) {
+                throw new ProductSnapshotException(String.format(CHECKSUM_ERROR, source));
+            }
+
+            long position = HEADER_SIZE + digestsLength;
+
+            ByteBuffer indexSlots = channel.map(FileChannel.MapMode.PRIVATE, position, indexLength);
+            position += indexLength;
+
+            if (isVerified) {
+                verify(source, INDEX_REGION, indexSlots, digests.getLong(0));
+            }
+
+            List<ByteBuffer> slabs = new ArrayList<>(slabCount);
+
+            for (int slabIndex = 0; slabIndex < slabCount; slabIndex++) {
+
+                boolean isLast = slabIndex == slabCount - 1;
+                ByteBuffer mappedSlab = channel.map(FileChannel.MapMode.PRIVATE, position,
+                                                    isLast ? lastSlabLength : slabSize);
+                position += mappedSlab.capacity();
+
+                if (isVerified || isLast) {
+                    verify(source, String.format(SLAB_REGION, slabIndex), mappedSlab,
+                           digests.getLong((slabIndex + 1) * Long.BYTES));
+                }
+
+                if (isLast) {
+                    ByteBuffer lastSlab = ByteBuffer.allocateDirect(slabSize);
+                    lastSlab.put(0, mappedSlab, 0, lastSlabLength);
+                    slabs.add(lastSlab);
+                } else {
+                    slabs.add(mappedSlab);
+                }
+            }
+
+            return new Contents(slabSize, slabs, indexSlots, header.getInt(24), header.getLong(32),
+                                header.getLong(40), header.getLong(48));
+        } catch (IOException e) {
+            throw new ProductSnapshotException(String.format(READ_ERROR, source), e);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        int read = 0;
+
+        while (buffer.hasRemaining() && read >= 0) {
+            read = channel.read(buffer, position + buffer.position());
+        }
+
+        return buffer;
+    }
+
+    private static void verify(Path source, String region, ByteBuffer buffer, long expectedChecksum) {
+
+        if (checksum(buffer) != expectedChecksum) {
+            throw new ProductSnapshotException(String.format(REGION_CHECKSUM_ERROR, source, region));
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.duplicate());
+
+        return checksum.getValue();
+    }
+
+    private static List<ByteBuffer> concat(ByteBuffer header, ByteBuffer digests, List<ByteBuffer> regions) {
+
+        List<ByteBuffer> buffers = new ArrayList<>(regions.size() + 2);
+        buffers.add(header);
+        buffers.add(digests);
+        buffers.addAll(regions);
+
+        return buffers;
+    }
+
+    private static ByteBuffer header(Contents contents) {
+
+        List<ByteBuffer> slabs = contents.slabs();
+
+        return ByteBuffer.allocate(HEADER_SIZE)
+                         .putInt(0, MAGIC)
+                         .putInt(4, VERSION)
+                         .putInt(8, contents.slabSize())
+                         .putInt(12, slabs.size())
+                         .putInt(16, slabs.isEmpty() ? 0 : slabs.get(slabs.size() - 1).remaining())
+                         .putInt(20, contents.indexSlots().remaining())
+                         .putInt(24, contents.size())
+                         .putLong(32, contents.usedBytes())
+                         .putLong(40, contents.garbageBytes())
+                         .putLong(48, contents.loadedUntil());
+    }
+
+    private static void deleteQuietly(Path temporaryFile, Exception cause) {
+
+        try {
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
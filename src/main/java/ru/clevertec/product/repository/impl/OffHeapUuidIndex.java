@@ -0,0 +1,250 @@
+package ru.clevertec.product.repository.impl;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Хеш-таблица с открытой адресацией из идентификатора в адрес записи, хранящаяся в одном
+ * прямом буфере, поэтому она не добавляет объектов в кучу, сколько бы продуктов ни хранила.
+ * Слоты пробируются линейно, а удаление сдвигает следующие слоты назад вместо надгробий.
+ * Адрес хранится увеличенным на единицу, поэтому обнулённая память нового буфера означает пустые слоты.
+ * Не потокобезопасна, блокировки берёт вызывающий код
+ */
+final class OffHeapUuidIndex {
+
+    static final long ABSENT = -1L;
+
+    private static final int SLOT_SIZE = 3 * Long.BYTES;
+    private static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_SIZE);
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.75;
+
+    private static final String CAPACITY_ERROR = "Off-heap uuid index can't hold more than %d products";
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int mask;
+    private int size;
+
+    OffHeapUuidIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Оборачивает ранее записанные слоты, например отображённые из файла снимка
+     *
+     * @param slots буфер слотов, количество слотов - степень двойки
+     * @param size  количество хранимых ключей
+     */
+    OffHeapUuidIndex(ByteBuffer slots, int size) {
+        this.slots = slots;
+        this.capacity = slots.capacity() / SLOT_SIZE;
+        this.mask = capacity - 1;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Возвращает все слоты
+     *
+     * @return представление всех слотов только для чтения
+     */
+    ByteBuffer slots() {
+        return slots.asReadOnlyBuffer().clear();
+    }
+
+    /**
+     * Ищет адрес записи по идентификатору
+     *
+     * @param uuid идентификатор продукта
+     * @return адрес записи или {@link #ABSENT}
+     */
+    long get(UUID uuid) {
+
+        for (int slot = slotOf(uuid); ; slot = (slot + 1) & mask) {
+
+            long storedAddress = address(slot);
+
+            if (storedAddress == ABSENT) {
+                return ABSENT;
+            }
+
+            if (isKey(slot, uuid)) {
+                return storedAddress;
+            }
+        }
+    }
+
+    /**
+     * Сохраняет адрес записи по идентификатору
+     *
+     * @param uuid    ключ
+     * @param address адрес записи, неотрицательный
+     * @return предыдущий адрес или {@link #ABSENT}
+     */
+    long put(UUID uuid, long address) {
+
+        if (size + 1 > capacity * MAX_LOAD) {
+            resize(capacity * 2);
+        }
+
+        for (int slot = slotOf(uuid); ; slot = (slot + 1) & mask) {
+
+            long storedAddress = address(slot);
+
+            if (storedAddress == ABSENT) {
+                write(slot, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), address);
+                size++;
+
+                return ABSENT;
+            }
+
+            if (isKey(slot, uuid)) {
+                slots.putLong(slot * SLOT_SIZE + 2 * Long.BYTES, address + 1);
+
+                return storedAddress;
+            }
+        }
+    }
+
+    /**
+     * Удаляет адрес записи по идентификатору
+     *
+     * @param uuid удаляемый ключ
+     * @return удалённый адрес или {@link #ABSENT}
+     */
+    long remove(UUID uuid) {
+
+        int slot = slotOf(uuid);
+
+        while (true) {
+
+            long storedAddress = address(slot);
+
+            if (storedAddress == ABSENT) {
+                return ABSENT;
+            }
+
+            if (isKey(slot, uuid)) {
+                shiftBack(slot);
+                size--;
+
+                return storedAddress;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Сдвигает следующие слоты той же цепочки пробирования в освобождённый слот,
+     * поэтому поиск никогда не останавливается раньше времени на дыре
+     */
+    private void shiftBack(int freedSlot) {
+
+        int hole = freedSlot;
+        int slot = (hole + 1) & mask;
+
+        while (address(slot) != ABSENT) {
+
+            int home = slotOf(slots.getLong(slot * SLOT_SIZE), slots.getLong(slot * SLOT_SIZE + Long.BYTES));
+
+            // entry may fill the hole only if hole lies on its probe path from home
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                write(hole, slots.getLong(slot * SLOT_SIZE), slots.getLong(slot * SLOT_SIZE + Long.BYTES),
+                      address(slot));
+                hole = slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        write(hole, 0L, 0L, ABSENT);
+    }
+
+    private void resize(int newCapacity) {
+
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException(String.format(CAPACITY_ERROR, (long) (MAX_CAPACITY * MAX_LOAD)));
+        }
+
+        ByteBuffer oldSlots = slots;
+        int oldCapacity = capacity;
+
+        allocate(newCapacity);
+
+        for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+
+            long storedAddress = oldSlots.getLong(oldSlot * SLOT_SIZE + 2 * Long.BYTES) - 1;
+
+            if (storedAddress != ABSENT) {
+                long mostSigBits = oldSlots.getLong(oldSlot * SLOT_SIZE);
+                long leastSigBits = oldSlots.getLong(oldSlot * SLOT_SIZE + Long.BYTES);
+
+                int slot = slotOf(mostSigBits, leastSigBits);
+
+                while (address(slot) != ABSENT) {
+                    slot = (slot + 1) & mask;
+                }
+
+                write(slot, mostSigBits, leastSigBits, storedAddress);
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        slots = ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE);
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        size = 0;
+    }
+
+    private static int capacityFor(int expectedSize) {
+
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / MAX_LOAD);
+        int capacity = MIN_CAPACITY;
+
+        while (capacity < needed && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private long address(int slot) {
+        return slots.getLong(slot * SLOT_SIZE + 2 * Long.BYTES) - 1;
+    }
+
+    private boolean isKey(int slot, UUID uuid) {
+        return slots.getLong(slot * SLOT_SIZE) == uuid.getMostSignificantBits()
+               && slots.getLong(slot * SLOT_SIZE + Long.BYTES) == uuid.getLeastSignificantBits();
+    }
+
+    private void write(int slot, long mostSigBits, long leastSigBits, long address) {
+        slots.putLong(slot * SLOT_SIZE, mostSigBits);
+        slots.putLong(slot * SLOT_SIZE + Long.BYTES, leastSigBits);
+        slots.putLong(slot * SLOT_SIZE + 2 * Long.BYTES, address + 1);
+    }
+
+    private int slotOf(UUID uuid) {
+        return slotOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Случайные идентификаторы уже равномерны, перемешивание не даёт последовательным собираться в кластеры
+     */
+    private int slotOf(long mostSigBits, long leastSigBits) {
+
+        long hash = (mostSigBits ^ leastSigBits) * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,432 @@
+package ru.clevertec.product.repository.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.exception.ProductJournalException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал упреждающей записи изменений продуктов, в который только добавляются записи.
+ * Каждая запись - это либо весь сохранённый продукт, либо идентификатор удалённого продукта,
+ * поэтому повторное воспроизведение записей поверх более нового состояния его не меняет.
+ * Записи добавляются в буфер в памяти и пишутся одним потоком сброса, который сбрасывает файл
+ * на диск один раз за пакет: пакет закрывается, когда набирает максимальное количество записей
+ * или истекает его максимальная задержка, а записи, добавленные во время сброса предыдущего пакета,
+ * попадают в следующий, поэтому конкурентные записи разделяют один fsync.
+ * <pre>
+ * int   длина тела записи
+ * int   CRC32C тела записи
+ * ...   тело: byte тип, затем запись продукта или 16 байт идентификатора
+ * </pre>
+ * Воспроизведение останавливается на первой неполной или повреждённой записи и отрезает её,
+ * это запись, оборванная сбоем
+ */
+public class ProductJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductJournal.class);
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    private static final String BATCH_ERROR = "Journal batch must have positive max records and not negative max delay";
+    private static final String OPEN_ERROR = "Error opening product journal %s";
+    private static final String WRITE_ERROR = "Error writing product journal %s";
+    private static final String REPLAY_ERROR = "Error replaying product journal %s";
+    private static final String REPLAY_ORDER_ERROR = "Product journal must be replayed before appending";
+    private static final String CLOSED_ERROR = "Product journal %s is closed";
+    private static final String INTERRUPTED_ERROR = "Interrupted while waiting for product journal %s";
+    private static final String TORN_RECORD_WARNING = "Product journal {} is cut to {} bytes after incomplete record";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int maxBatchRecords;
+    private final long maxBatchDelayNanos;
+    private final Thread flusher;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition batchForced = lock.newCondition();
+
+    private ByteBuffer appendBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer flushBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private int batchRecords;
+    private long appendedSequence;
+    private long forcedSequence;
+    private long size;
+    private boolean isClosed;
+    private IOException failure;
+
+    /**
+     * @param file                файл журнала, создаётся, если не существует
+     * @param maxBatchRecords     наибольшее количество записей, сбрасываемых на диск за раз, 1 сбрасывает каждую запись
+     * @param maxBatchDelayMillis наибольшее время ожидания первой записью пакета остальных, 0 сбрасывает пакет сразу
+     * @throws ProductJournalException если файл не удалось открыть
+     */
+    public ProductJournal(Path file, int maxBatchRecords, long maxBatchDelayMillis) {
+
+        if (maxBatchRecords <= 0 || maxBatchDelayMillis < 0) {
+            throw new IllegalArgumentException(BATCH_ERROR);
+        }
+
+        this.file = file;
+        this.maxBatchRecords = maxBatchRecords;
+        this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE);
+            this.size = channel.size();
+        } catch (IOException e) {
+            throw new ProductJournalException(String.format(OPEN_ERROR, file), e);
+        }
+
+        this.flusher = new Thread(this::flush, "product-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Читает все записи в порядке добавления. Должен вызываться до первого добавления
+     *
+     * @param puts    получатель сохранённых продуктов
+     * @param deletes получатель идентификаторов удалённых продуктов
+     * @return количество воспроизведённых записей
+     * @throws ProductJournalException если файл не удалось прочитать
+     */
+    public int replay(Consumer<Product> puts, Consumer<UUID> deletes) {
+
+        lock.lock();
+        try {
+            if (appendedSequence > 0) {
+                throw new IllegalStateException(REPLAY_ORDER_ERROR);
+            }
+
+            ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int replayed = 0;
+            int position = 0;
+
+            while (position + HEADER_SIZE <= records.limit()) {
+
+                int length = records.getInt(position);
+                int bodyOffset = position + HEADER_SIZE;
+
+                if (length <= 0 || length > records.limit() - bodyOffset
+                    || checksum(records, bodyOffset, length) != records.getInt(position + Integer.BYTES)) {
+                    break;
+                }
+
+                if (records.get(bodyOffset) == PUT) {
+                    puts.accept(ProductRecordCodec.readProduct(records, bodyOffset + Byte.BYTES));
+                } else {
+                    deletes.accept(new UUID(records.getLong(bodyOffset + Byte.BYTES),
+                                            records.getLong(bodyOffset + Byte.BYTES + Long.BYTES)));
+                }
+
+                replayed++;
+                position = bodyOffset + length;
+            }
+
+            if (position < size) {
+                log.warn(TORN_RECORD_WARNING, file, position);
+
+                channel.truncate(position);
+                channel.force(true);
+                size = position;
+            }
+
+            return replayed;
+        } catch (IOException e) {
+            throw new ProductJournalException(String.format(REPLAY_ERROR, file), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет запись о сохранённом продукте
+     *
+     * @param product сохранённый продукт с идентификатором
+     * @return порядковый номер добавленной записи, см. {@link #awaitForced(long)}
+     * @throws ProductJournalException если журнал закрыт или завершился с ошибкой
+     */
+    public long appendPut(Product product) {
+
+        ProductRecordCodec.Encoded encoded = ProductRecordCodec.encode(product);
+        int recordSize = encoded.size();
+
+        return append(Byte.BYTES + recordSize, (buffer, offset) -> {
+            buffer.put(offset, PUT);
+            ProductRecordCodec.write(buffer, offset + Byte.BYTES, recordSize, encoded);
+        });
+    }
+
+    /**
+     * Добавляет запись об удалённом продукте
+     *
+     * @param uuid идентификатор удалённого продукта
+     * @return порядковый номер добавленной записи, см. {@link #awaitForced(long)}
+     * @throws ProductJournalException если журнал закрыт или завершился с ошибкой
+     */
+    public long appendDelete(UUID uuid) {
+        return append(Byte.BYTES + 2 * Long.BYTES, (buffer, offset) -> buffer
+                .put(offset, DELETE)
+                .putLong(offset + Byte.BYTES, uuid.getMostSignificantBits())
+                .putLong(offset + Byte.BYTES + Long.BYTES, uuid.getLeastSignificantBits()));
+    }
+
+    /**
+     * Блокирует, пока запись и все записи до неё не будут сброшены на диск
+     *
+     * @param sequence порядковый номер записи, неположительные номера возвращаются сразу
+     * @throws ProductJournalException если журнал завершился с ошибкой или закрыт до сброса записи
+     */
+    public void awaitForced(long sequence) {
+
+        lock.lock();
+        try {
+            while (forcedSequence < sequence && failure == null && flusher.isAlive()) {
+                batchForced.await();
+            }
+
+            if (forcedSequence < sequence) {
+                throw new ProductJournalException(String.format(WRITE_ERROR, file), failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new ProductJournalException(String.format(INTERRUPTED_ERROR, file), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает порядковый номер последней записи, сброшенной на диск, записи до неё переживают сбой
+     *
+     * @return порядковый номер последней сброшенной записи
+     */
+    public long forcedSequence() {
+
+        lock.lock();
+        try {
+            return forcedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Блокирует, пока все добавленные записи не будут сброшены на диск
+     */
+    public void sync() {
+
+        lock.lock();
+        try {
+            awaitForced(appendedSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет все записи. Вызывающий код должен гарантировать, что конкурентно ничего не добавляется
+     * и все записи уже хранятся в другом месте, например в снимке
+     *
+     * @throws ProductJournalException если файл не удалось обрезать
+     */
+    public void truncate() {
+
+        lock.lock();
+        try {
+            awaitForced(appendedSequence);
+
+            channel.truncate(0);
+            channel.force(true);
+            size = 0;
+        } catch (IOException e) {
+            throw new ProductJournalException(String.format(WRITE_ERROR, file), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает размер файла журнала
+     *
+     * @return байты файла журнала, сброшенные или сбрасываемые
+     */
+    public long size() {
+
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает добавленные записи и закрывает файл
+     */
+    @Override
+    public void close() {
+
+        lock.lock();
+        try {
+            isClosed = true;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error(String.format(WRITE_ERROR, file), e);
+        }
+    }
+
+    private long append(int bodyLength, RecordWriter writer) {
+
+        lock.lock();
+        try {
+            if (isClosed || failure != null) {
+                throw new ProductJournalException(String.format(CLOSED_ERROR, file), failure);
+            }
+
+            ensureCapacity(HEADER_SIZE + bodyLength);
+
+            int position = appendBuffer.position();
+            int bodyOffset = position + HEADER_SIZE;
+
+            writer.write(appendBuffer, bodyOffset);
+            appendBuffer.putInt(position, bodyLength)
+                        .putInt(position + Integer.BYTES,
+                                checksum(appendBuffer, bodyOffset, bodyLength))
+                        .position(bodyOffset + bodyLength);
+
+            if (++batchRecords == 1 || batchRecords >= maxBatchRecords) {
+                batchReady.signal();
+            }
+
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureCapacity(int recordSize) {
+
+        if (appendBuffer.remaining() >= recordSize) {
+            return;
+        }
+
+        ByteBuffer grownBuffer = ByteBuffer.allocate(Math.max(appendBuffer.capacity() * 2,
+                                                              appendBuffer.position() + recordSize));
+        grownBuffer.put(appendBuffer.flip());
+        appendBuffer = grownBuffer;
+    }
+
+    /**
+     * Цикл потока сброса, выполняется, пока журнал не закрыт и остаются записи для сброса
+     */
+    private void flush() {
+
+        while (true) {
+
+            long batchSequence;
+            ByteBuffer batch;
+
+            lock.lock();
+            try {
+                while (batchRecords == 0 && !isClosed) {
+                    batchReady.awaitUninterruptibly();
+                }
+
+                if (batchRecords == 0) {
+                    return;
+                }
+
+                long deadline = System.nanoTime() + maxBatchDelayNanos;
+                long remaining = maxBatchDelayNanos;
+
+                while (batchRecords < maxBatchRecords && !isClosed && remaining > 0) {
+                    batchReady.awaitNanos(remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+
+                batch = appendBuffer.flip();
+                appendBuffer = flushBuffer.clear();
+                flushBuffer = batch;
+                batchSequence = appendedSequence;
+                batchRecords = 0;
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException batchFailure = null;
+
+            try {
+                long position = size();
+
+                while (batch.hasRemaining()) {
+                    position += channel.write(batch, position);
+                }
+
+                channel.force(false);
+            } catch (IOException e) {
+                log.error(String.format(WRITE_ERROR, file), e);
+                batchFailure = e;
+            }
+
+            lock.lock();
+            try {
+                if (batchFailure != null) {
+                    failure = batchFailure;
+                    return;
+                }
+
+                size += batch.limit();
+                forcedSequence = batchSequence;
+            } finally {
+                batchForced.signalAll();
+                lock.unlock();
+            }
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.duplicate().clear().position(offset).limit(offset + length));
+
+        return (int) checksum.getValue();
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(ByteBuffer buffer, int offset);
+    }
+}
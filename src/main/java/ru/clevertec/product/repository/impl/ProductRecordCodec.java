@@ -0,0 +1,248 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Компактное двоичное представление одной записи продукта. Запись читается и пишется
+ * абсолютными операциями буфера, поэтому один буфер безопасно делят конкурентные читатели.
+ * <pre>
+ * int   размер слота записи в байтах, может превышать закодированный размер после обновления на месте
+ * byte  состояние, живая или мёртвая
+ * long  старшие биты идентификатора
+ * long  младшие биты идентификатора
+ * long  стоимость с {@value #PRICE_SCALE} знаками после запятой, как её хранит столбец product.price
+ * long  время создания в микросекундах от начала эпохи в UTC
+ * long  версия, 0 для null
+ * short длина названия в байтах UTF-8, -1 для null
+ * ...   название
+ * short длина описания в байтах UTF-8, -1 для null
+ * ...   описание
+ * </pre>
+ * Стоимость и время создания, равные null, записываются как {@link Long#MIN_VALUE}
+ */
+final class ProductRecordCodec {
+
+    static final int PRICE_SCALE = 2;
+
+    static final byte LIVE = 1;
+    static final byte DEAD = 0;
+
+    private static final int SIZE_OFFSET = 0;
+    private static final int STATE_OFFSET = SIZE_OFFSET + Integer.BYTES;
+    private static final int UUID_OFFSET = STATE_OFFSET + Byte.BYTES;
+    private static final int PRICE_OFFSET = UUID_OFFSET + 2 * Long.BYTES;
+    private static final int CREATED_OFFSET = PRICE_OFFSET + Long.BYTES;
+    private static final int VERSION_OFFSET = CREATED_OFFSET + Long.BYTES;
+    private static final int NAME_OFFSET = VERSION_OFFSET + Long.BYTES;
+
+    private static final long NULL_VALUE = Long.MIN_VALUE;
+    private static final short NULL_LENGTH = -1;
+
+    private static final long MICROS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+    private static final long NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private static final String TEXT_LENGTH_ERROR = "Text is too long for product record: %d bytes";
+    private static final String PRICE_RANGE_ERROR = "Price doesn't fit product record: %s";
+
+    private ProductRecordCodec() {
+    }
+
+    /**
+     * Продукт, подготовленный к записи, строки кодируются один раз
+     */
+    record Encoded(Product product, byte[] name, byte[] description) {
+
+        int size() {
+            return NAME_OFFSET + textSize(name) + textSize(description);
+        }
+    }
+
+    static Encoded encode(Product product) {
+        return new Encoded(product, toBytes(product.getName()), toBytes(product.getDescription()));
+    }
+
+    /**
+     * Записывает продукт в слот записи
+     *
+     * @param buffer   буфер для записи
+     * @param offset   смещение слота записи
+     * @param slotSize размер слота записи, не меньше закодированного размера
+     * @param encoded  записываемый продукт
+     */
+    static void write(ByteBuffer buffer, int offset, int slotSize, Encoded encoded) {
+
+        Product product = encoded.product();
+
+        buffer.putInt(offset + SIZE_OFFSET, slotSize);
+        buffer.putLong(offset + UUID_OFFSET, product.getUuid().getMostSignificantBits());
+        buffer.putLong(offset + UUID_OFFSET + Long.BYTES, product.getUuid().getLeastSignificantBits());
+        buffer.putLong(offset + PRICE_OFFSET, toScaledLong(product.getPrice()));
+        buffer.putLong(offset + CREATED_OFFSET, toEpochMicros(product.getCreated()));
+        buffer.putLong(offset + VERSION_OFFSET, product.getVersion() == null ? 0L : product.getVersion());
+
+        int descriptionOffset = putText(buffer, offset + NAME_OFFSET, encoded.name());
+        putText(buffer, descriptionOffset, encoded.description());
+
+        // state goes last, so record is never seen live half-written
+        buffer.put(offset + STATE_OFFSET, LIVE);
+    }
+
+    static int slotSize(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + SIZE_OFFSET);
+    }
+
+    static boolean isLive(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + STATE_OFFSET) == LIVE;
+    }
+
+    static void markDead(ByteBuffer buffer, int offset) {
+        buffer.put(offset + STATE_OFFSET, DEAD);
+    }
+
+    static UUID readUuid(ByteBuffer buffer, int offset) {
+        return new UUID(buffer.getLong(offset + UUID_OFFSET), buffer.getLong(offset + UUID_OFFSET + Long.BYTES));
+    }
+
+    static BigDecimal readPrice(ByteBuffer buffer, int offset) {
+        return fromScaledLong(buffer.getLong(offset + PRICE_OFFSET));
+    }
+
+    static LocalDateTime readCreated(ByteBuffer buffer, int offset) {
+        return fromEpochMicros(buffer.getLong(offset + CREATED_OFFSET));
+    }
+
+    static long readVersion(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + VERSION_OFFSET);
+    }
+
+    static Product readProduct(ByteBuffer buffer, int offset) {
+
+        int descriptionOffset = offset + NAME_OFFSET + textSize(buffer, offset + NAME_OFFSET);
+
+        return Product.builder()
+                      .uuid(readUuid(buffer, offset))
+                      .name(getText(buffer, offset + NAME_OFFSET))
+                      .description(getText(buffer, descriptionOffset))
+                      .price(fromScaledLong(buffer.getLong(offset + PRICE_OFFSET)))
+                      .created(fromEpochMicros(buffer.getLong(offset + CREATED_OFFSET)))
+                      .version(readVersion(buffer, offset))
+                      .build();
+    }
+
+    static InfoProductDto readInfo(ByteBuffer buffer, int offset) {
+
+        int descriptionOffset = offset + NAME_OFFSET + textSize(buffer, offset + NAME_OFFSET);
+
+        return new InfoProductDto(readUuid(buffer, offset),
+                                  getText(buffer, offset + NAME_OFFSET),
+                                  getText(buffer, descriptionOffset),
+                                  fromScaledLong(buffer.getLong(offset + PRICE_OFFSET)),
+                                  readVersion(buffer, offset));
+    }
+
+    private static byte[] toBytes(String text) {
+
+        if (text == null) {
+            return null;
+        }
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(TEXT_LENGTH_ERROR, bytes.length));
+        }
+
+        return bytes;
+    }
+
+    private static int textSize(byte[] bytes) {
+        return Short.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static int textSize(ByteBuffer buffer, int offset) {
+        short length = buffer.getShort(offset);
+
+        return Short.BYTES + Math.max(length, 0);
+    }
+
+    private static int putText(ByteBuffer buffer, int offset, byte[] bytes) {
+
+        if (bytes == null) {
+            buffer.putShort(offset, NULL_LENGTH);
+            return offset + Short.BYTES;
+        }
+
+        buffer.putShort(offset, (short) bytes.length);
+        buffer.put(offset + Short.BYTES, bytes);
+
+        return offset + Short.BYTES + bytes.length;
+    }
+
+    private static String getText(ByteBuffer buffer, int offset) {
+
+        short length = buffer.getShort(offset);
+
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Short.BYTES, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toScaledLong(BigDecimal price) {
+
+        if (price == null) {
+            return NULL_VALUE;
+        }
+
+        try {
+            long scaled = price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+
+            if (scaled == NULL_VALUE) {
+                throw new ArithmeticException();
+            }
+
+            return scaled;
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format(PRICE_RANGE_ERROR, price), e);
+        }
+    }
+
+    private static BigDecimal fromScaledLong(long scaled) {
+        return scaled == NULL_VALUE ? null : BigDecimal.valueOf(scaled, PRICE_SCALE);
+    }
+
+    static long toEpochMicros(LocalDateTime created) {
+
+        if (created == null) {
+            return NULL_VALUE;
+        }
+
+        return Math.addExact(Math.multiplyExact(created.toEpochSecond(ZoneOffset.UTC), MICROS_PER_SECOND),
+                             created.getNano() / NANOS_PER_MICRO);
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+
+        if (micros == NULL_VALUE) {
+            return null;
+        }
+
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                                           (int) (Math.floorMod(micros, MICROS_PER_SECOND) * NANOS_PER_MICRO),
+                                           ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,202 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс слов названия и описания продукта. Слова хранятся
+ * в отсортированной конкурентной карте, поэтому все слова, начинающиеся с префикса,
+ * находятся одним поиском по диапазону. Слова приводятся к нижнему регистру, а 'ё'
+ * считается 'е', поэтому запросы на кириллице находят продукты независимо от регистра.
+ * Индекс хранит копию каждого проиндексированного продукта, поэтому найденные продукты
+ * возвращаются без чтения хранилища. Записи упорядочены, чтения не блокируются
+ * и видят индекс слабо согласованным
+ */
+final class ProductSearchIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    /**
+     * Больше любого символа нормализованного слова, поэтому [prefix, prefix + MAX_CHAR)
+     * - диапазон слов, начинающихся с prefix
+     */
+    private static final char MAX_CHAR = Character.MAX_VALUE;
+
+    private final NavigableMap<String, Set<UUID>> postings = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Product> productsByUuid = new ConcurrentHashMap<>();
+
+    /**
+     * Индексирует копию продукта, заменяя продукт, ранее проиндексированный с тем же идентификатором
+     *
+     * @param product продукт с идентификатором
+     */
+    synchronized void put(Product product) {
+
+        Set<String> words = Set.copyOf(words(product));
+        Product previousProduct = productsByUuid.put(product.getUuid(), product.toBuilder().build());
+
+        if (previousProduct != null) {
+            words(previousProduct).stream()
+                         .filter(word -> !words.contains(word))
+                         .forEach(word -> unlink(word, product.getUuid()));
+        }
+
+        words.forEach(word -> postings.computeIfAbsent(word, key -> ConcurrentHashMap.newKeySet())
+                                      .add(product.getUuid()));
+    }
+
+    synchronized void remove(UUID uuid) {
+
+        Product product = productsByUuid.remove(uuid);
+
+        if (product != null) {
+            words(product).forEach(word -> unlink(word, uuid));
+        }
+    }
+
+    synchronized void clear() {
+        postings.clear();
+        productsByUuid.clear();
+    }
+
+    int size() {
+        return productsByUuid.size();
+    }
+
+    /**
+     * Ищет проиндексированный продукт по идентификатору
+     *
+     * @param uuid идентификатор продукта
+     * @return проиндексированный продукт, общий с индексом и не подлежащий изменению. null если продукт не проиндексирован
+     */
+    Product get(UUID uuid) {
+        return productsByUuid.get(uuid);
+    }
+
+    /**
+     * Ищет продукты, в которых есть слово, начинающееся с каждого слова запроса. Наименее
+     * избирательное слово запроса просматривается лениво, поэтому кандидатов создаётся столько,
+     * сколько потребляет вызывающий код
+     *
+     * @param queryWords нормализованные слова запроса
+     * @return различные идентификаторы подходящих продуктов в неопределённом порядке
+     */
+    Stream<UUID> search(List<String> queryWords) {
+
+        if (queryWords.isEmpty()) {
+            return Stream.empty();
+        }
+
+        List<Set<UUID>> filters = new ArrayList<>();
+        List<String> prefixes = queryWords.stream()
+                                          .distinct()
+                                          .sorted(Comparator.comparingInt(String::length).reversed())
+                                          .toList();
+
+        for (String prefix : prefixes.subList(0, prefixes.size() - 1)) {
+
+            Set<UUID> uuids = collect(prefix);
+
+            if (uuids.isEmpty()) {
+                return Stream.empty();
+            }
+
+            filters.add(uuids);
+        }
+
+        return withPrefix(prefixes.get(prefixes.size() - 1))
+                .flatMap(Collection::stream)
+                .distinct()
+                .filter(uuid -> filters.stream().allMatch(filter -> filter.contains(uuid)));
+    }
+
+    /**
+     * Разбивает текст на нормализованные слова
+     *
+     * @param text любой текст, может быть null
+     * @return нормализованные слова текста
+     */
+    static List<String> words(String text) {
+
+        if (text == null) {
+            return List.of();
+        }
+
+        return WORD_SEPARATOR.splitAsStream(normalize(text))
+                             .filter(word -> !word.isEmpty())
+                             .toList();
+    }
+
+    /**
+     * Проверяет, подходит ли продукт под запрос
+     *
+     * @param product    проверяемый продукт
+     * @param queryWords нормализованные слова запроса
+     * @return true если в продукте есть слово, начинающееся с каждого слова запроса
+     */
+    static boolean matches(Product product, List<String> queryWords) {
+
+        if (queryWords.isEmpty()) {
+            return false;
+        }
+
+        List<String> words = words(product);
+
+        return queryWords.stream()
+                         .allMatch(prefix -> words.stream().anyMatch(word -> word.startsWith(prefix)));
+    }
+
+    private static List<String> words(Product product) {
+
+        List<String> words = new ArrayList<>(words(product.getName()));
+        words.addAll(words(product.getDescription()));
+
+        return words;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT)
+                   .replace('ё', 'е');
+    }
+
+    private Stream<Set<UUID>> withPrefix(String prefix) {
+        return postings.subMap(prefix, true, prefix + MAX_CHAR, false)
+                       .values()
+                       .stream();
+    }
+
+    private Set<UUID> collect(String prefix) {
+
+        Set<UUID> uuids = new HashSet<>();
+        withPrefix(prefix).forEach(uuids::addAll);
+
+        return uuids;
+    }
+
+    private void unlink(String word, UUID uuid) {
+
+        Set<UUID> uuids = postings.get(word);
+
+        if (uuids != null) {
+            uuids.remove(uuid);
+
+            if (uuids.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package ru.clevertec.product.repository.impl;
+
+import org.hibernate.Cache;
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Репозиторий для пакетных заданий на основе stateless сессии Hibernate.
+ * Каждая операция открывает свою stateless сессию и транзакцию, поэтому нет контекста
+ * персистентности, растущего вместе с заданием, нет проверки изменений и автоматического сброса.
+ * Вставки копятся в JDBC пакете сессии размером hibernate.jdbc.batch_size и уходят в базу данных
+ * не позже фиксации. Обновления выполняются без предварительной загрузки продукта, при сохранении
+ * нескольких продуктов - JDBC пакетами того же размера. Операции не присоединяются к транзакции текущей сессии потока.
+ * Stateless записи обходят кэш второго уровня и кэш запросов фабрики сессий, поэтому после фиксации
+ * они вытесняют изменённые ими продукты из кэша и все закэшированные результаты запросов
+ */
+public class StatelessProductRepository implements ProductRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(StatelessProductRepository.class);
+
+    private static final String FIND_ALL_QUERY = "FROM Product";
+    private static final String FIND_ALL_INFO_QUERY = "SELECT new ru.clevertec.product.data.InfoProductDto("
+                                                      + "p.uuid, p.name, p.description, p.price, p.version) "
+                                                      + "FROM Product p";
+    private static final String FIRST_PAGE_QUERY = "FROM Product p ORDER BY p.created, p.uuid";
+    private static final String NEXT_PAGE_QUERY = "FROM Product p "
+                                                  + "WHERE p.created > :created "
+                                                  + "OR (p.created = :created AND p.uuid > :uuid) "
+                                                  + "ORDER BY p.created, p.uuid";
+    private static final String LAST_CHANGED_QUERY = "SELECT MAX(changed) FROM ("
+                                                     + "SELECT MAX(modified) AS changed FROM product "
+                                                     + "UNION ALL SELECT MAX(deleted) FROM product_deleted)";
+    private static final String CHANGED_QUERY = "SELECT * FROM product";
+    private static final String CHANGED_AFTER_QUERY = "SELECT * FROM product WHERE modified > :changedAfter";
+    private static final String DELETED_AFTER_QUERY = "SELECT id FROM product_deleted WHERE deleted > :deletedAfter";
+    private static final String RANGE_QUERY = "FROM Product p%s ORDER BY p.%s, p.uuid";
+    private static final String RANGE_FROM_CONDITION = "p.%s >= :from";
+    private static final String RANGE_TO_CONDITION = "p.%s <= :to";
+
+    private static final String UPDATE_BY_ID_QUERY = "UPDATE Product p "
+                                                     + "SET p.name = :name, p.description = :description, "
+                                                     + "p.price = :price, p.version = p.version + 1 "
+                                                     + "WHERE p.uuid = :uuid";
+    private static final String UPDATE_BY_ID_AND_VERSION_QUERY = UPDATE_BY_ID_QUERY + " AND p.version = :version";
+    private static final String DELETE_BY_ID_QUERY = "DELETE FROM Product p WHERE p.uuid = :uuid";
+    private static final String BATCH_UPDATE_QUERY = "UPDATE product "
+                                                     + "SET name = ?, description = ?, price = ?, "
+                                                     + "version = version + 1 WHERE id = ?";
+    private static final String BATCH_UPDATE_AND_VERSION_QUERY = BATCH_UPDATE_QUERY + " AND version = ?";
+
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final String SEARCHING_ERROR = "Error when searching product(s) {}";
+    private static final String NULL_POINTER_PRODUCT_ERROR = "Given product is null";
+    private static final String NULL_POINTER_UUID_ERROR = "Given product uuid is null";
+    private static final String NULL_POINTER_PRODUCTS_ERROR = "Given products or one of them is null";
+
+    private final SessionFactory sessionFactory;
+
+    public StatelessProductRepository(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+
+        if (uuid == null) {
+            return Optional.empty();
+        }
+
+        return read(session -> Optional.ofNullable(session.get(Product.class, uuid)), Optional.empty());
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return read(session -> session.createQuery(FIND_ALL_QUERY, Product.class)
+                                      .list(), List.of());
+    }
+
+    @Override
+    public List<InfoProductDto> findAllInfo() {
+        return read(session -> session.createQuery(FIND_ALL_INFO_QUERY, InfoProductDto.class)
+                                      .list(), List.of());
+    }
+
+    /**
+     * Поток держит свою stateless сессию, транзакцию и курсор открытыми, пока он не закрыт
+     */
+    @Override
+    public Stream<Product> streamAll() {
+
+        StatelessSession session = null;
+
+        try {
+            session = sessionFactory.openStatelessSession();
+            Transaction transaction = session.beginTransaction();
+
+            ScrollableResults<Product> results = session.createQuery(FIND_ALL_QUERY, Product.class)
+                                                        .setFetchSize(STREAM_FETCH_SIZE)
+                                                        .scroll(ScrollMode.FORWARD_ONLY);
+
+            Spliterator<Product> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Product> action) {
+
+                    if (!results.next()) {
+                        return false;
+                    }
+
+                    action.accept(results.get());
+
+                    return true;
+                }
+            };
+
+            StatelessSession streamSession = session;
+
+            return StreamSupport.stream(spliterator, false)
+                                .onClose(() -> {
+                                    try (streamSession) {
+                                        results.close();
+                                        transaction.commit();
+                                    }
+                                });
+
+        } catch (HibernateException e) {
+            log.error(SEARCHING_ERROR, e.getMessage(), e);
+
+            if (session != null) {
+                session.close();
+            }
+        }
+
+        return Stream.empty();
+    }
+
+    @Override
+    public List<Product> findPage(ProductPageCursor after, int limit) {
+        return read(session -> {
+
+            Query<Product> query = after == null
+                                   ? session.createQuery(FIRST_PAGE_QUERY, Product.class)
+                                   : session.createQuery(NEXT_PAGE_QUERY, Product.class)
+                                            .setParameter("created", after.created())
+                                            .setParameter("uuid", after.uuid());
+
+            return query.setMaxResults(limit)
+                        .list();
+        }, List.of());
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+
+        List<String> queryWords = ProductSearchIndex.words(query);
+
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        try (Stream<Product> products = streamAll()) {
+            return products.filter(product -> ProductSearchIndex.matches(product, queryWords))
+                           .limit(limit)
+                           .toList();
+        }
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal from, BigDecimal to) {
+        return findBetween(Product.Fields.price, from, to);
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return findBetween(Product.Fields.created, from, to);
+    }
+
+    /**
+     * Ищет время последнего изменения продуктов. Время изменения хранится базой данных
+     * в не отображённом столбце modified, оно задаётся при вставке и при каждом обновлении строки продукта.
+     * Время удаления записывается триггером в таблицу product_deleted
+     *
+     * @return время последней вставки, обновления или удаления продуктов, null если продукты не изменялись
+     * @throws HibernateException если базу данных не удалось прочитать
+     */
+    public LocalDateTime findLastChanged() {
+        return inTransaction(session -> session.createNativeQuery(LAST_CHANGED_QUERY, LocalDateTime.class)
+                                               .getSingleResult());
+    }
+
+    /**
+     * Ищет продукты, изменённые после заданного времени
+     *
+     * @param changedAfter граница времени изменения не включительно, null для всех продуктов
+     * @return продукты, вставленные или обновлённые после заданного времени. Удалённые продукты
+     *         не оставляют строк, их удаления возвращает {@link #findDeletedAfter(LocalDateTime)}
+     * @throws HibernateException если базу данных не удалось прочитать
+     */
+    public List<Product> findChangedAfter(LocalDateTime changedAfter) {
+        return inTransaction(session -> changedAfter == null
+                                        ? session.createNativeQuery(CHANGED_QUERY, Product.class)
+                                                 .list()
+                                        : session.createNativeQuery(CHANGED_AFTER_QUERY, Product.class)
+                                                 .setParameter("changedAfter", changedAfter)
+                                                 .list());
+    }
+
+    /**
+     * Ищет продукты, удалённые после заданного времени. Продукт, вставленный снова с тем же идентификатором,
+     * остаётся в результате, поэтому удаления применяются только к продуктам, которых нет среди изменённых
+     *
+     * @param deletedAfter граница времени удаления не включительно
+     * @return идентификаторы продуктов, удалённых после заданного времени
+     * @throws HibernateException если базу данных не удалось прочитать
+     */
+    public List<UUID> findDeletedAfter(LocalDateTime deletedAfter) {
+        return inTransaction(session -> session.createNativeQuery(DELETED_AFTER_QUERY, UUID.class)
+                                               .setParameter("deletedAfter", deletedAfter)
+                                               .list());
+    }
+
+    @Override
+    public Product save(Product product) {
+
+        if (product == null) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCT_ERROR);
+        }
+
+        return write(changedUuids(List.of(product)), session -> {
+            save(session, product);
+            return product;
+        });
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+
+        if (products == null || products.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCTS_ERROR);
+        }
+
+        List<Product> savingProducts = List.copyOf(products);
+
+        return write(changedUuids(savingProducts), session -> {
+            savingProducts.stream()
+                          .filter(product -> product.getUuid() == null)
+                          .forEach(session::insert);
+
+            List<Product> updatingProducts = savingProducts.stream()
+                                                           .filter(product -> product.getUuid() != null)
+                                                           .toList();
+
+            if (!updatingProducts.isEmpty()) {
+                session.doWork(connection -> updateAll(connection, updatingProducts));
+            }
+
+            return savingProducts;
+        });
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        deleteById(uuid);
+    }
+
+    @Override
+    public int updateById(Product product) {
+
+        if (product == null) {
+            throw new IllegalArgumentException(NULL_POINTER_PRODUCT_ERROR);
+        }
+
+        if (product.getUuid() == null) {
+            throw new IllegalArgumentException(NULL_POINTER_UUID_ERROR);
+        }
+
+        return write(List.of(product.getUuid()), session -> update(session, product));
+    }
+
+    @Override
+    public int deleteById(UUID uuid) {
+
+        if (uuid == null) {
+            return 0;
+        }
+
+        return write(List.of(uuid), session -> session.createMutationQuery(DELETE_BY_ID_QUERY)
+                                                      .setParameter("uuid", uuid)
+                                                      .executeUpdate());
+    }
+
+    private void save(StatelessSession session, Product product) {
+
+        if (product.getUuid() == null) {
+            session.insert(product);
+        } else {
+            update(session, product);
+        }
+    }
+
+    private int update(StatelessSession session, Product product) {
+
+        MutationQuery query = product.getVersion() == null
+                              ? session.createMutationQuery(UPDATE_BY_ID_QUERY)
+                              : session.createMutationQuery(UPDATE_BY_ID_AND_VERSION_QUERY)
+                                       .setParameter("version", product.getVersion());
+
+        return query.setParameter("name", product.getName())
+                    .setParameter("description", product.getDescription())
+                    .setParameter("price", product.getPrice())
+                    .setParameter("uuid", product.getUuid())
+                    .executeUpdate();
+    }
+
+    /**
+     * Обновляет продукты JDBC пакетами вместо отдельного запроса на каждый продукт,
+     * продукты с версией обновляются только если их версия не изменилась
+     *
+     * @param connection соединение stateless сессии
+     * @param products   обновляемые продукты с идентификаторами
+     * @throws SQLException при ошибке выполнения пакета
+     */
+    private void updateAll(Connection connection, List<Product> products) throws SQLException {
+
+        try (PreparedStatement updateStatement = connection.prepareStatement(BATCH_UPDATE_QUERY);
+             PreparedStatement versionedUpdateStatement = connection.prepareStatement(BATCH_UPDATE_AND_VERSION_QUERY)) {
+
+            int batchSize = getBatchSize();
+            int batched = 0;
+
+            for (Product product : products) {
+                PreparedStatement statement = product.getVersion() == null ? updateStatement : versionedUpdateStatement;
+
+                statement.setString(1, product.getName());
+                statement.setString(2, product.getDescription());
+                statement.setBigDecimal(3, product.getPrice());
+                statement.setObject(4, product.getUuid());
+
+                if (product.getVersion() != null) {
+                    statement.setLong(5, product.getVersion());
+                }
+
+                statement.addBatch();
+
+                if (++batched % batchSize == 0) {
+                    updateStatement.executeBatch();
+                    versionedUpdateStatement.executeBatch();
+                }
+            }
+
+            updateStatement.executeBatch();
+            versionedUpdateStatement.executeBatch();
+        }
+    }
+
+    private List<Product> findBetween(String property, Object from, Object to) {
+
+        List<String> conditions = new ArrayList<>();
+
+        if (from != null) {
+            conditions.add(String.format(RANGE_FROM_CONDITION, property));
+        }
+
+        if (to != null) {
+            conditions.add(String.format(RANGE_TO_CONDITION, property));
+        }
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+
+        return read(session -> {
+
+            Query<Product> query = session.createQuery(String.format(RANGE_QUERY, where, property), Product.class);
+
+            if (from != null) {
+                query.setParameter("from", from);
+            }
+
+            if (to != null) {
+                query.setParameter("to", to);
+            }
+
+            return query.list();
+        }, List.of());
+    }
+
+    private <T> T read(Function<StatelessSession, T> reading, T fallback) {
+
+        try {
+            return inTransaction(reading);
+        } catch (HibernateException e) {
+            log.error(SEARCHING_ERROR, e.getMessage(), e);
+        }
+
+        return fallback;
+    }
+
+    private <T> T write(Collection<UUID> changedUuids, Function<StatelessSession, T> writing) {
+
+        T result = inTransaction(writing);
+
+        Cache cache = sessionFactory.getCache();
+        changedUuids.forEach(uuid -> cache.evictEntityData(Product.class, uuid));
+        cache.evictQueryRegions();
+
+        return result;
+    }
+
+    private static List<UUID> changedUuids(Collection<Product> products) {
+        return products.stream()
+                       .map(Product::getUuid)
+                       .filter(Objects::nonNull)
+                       .toList();
+    }
+
+    private <T> T inTransaction(Function<StatelessSession, T> work) {
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+
+            try {
+                T result = work.apply(session);
+                transaction.commit();
+
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+
+                throw e;
+            }
+        }
+    }
+
+    private int getBatchSize() {
+
+        Object batchSize = sessionFactory.getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        int configuredBatchSize = batchSize == null ? 0 : Integer.parseInt(batchSize.toString().trim());
+
+        return configuredBatchSize > 0 ? configuredBatchSize : DEFAULT_BATCH_SIZE;
+    }
+}
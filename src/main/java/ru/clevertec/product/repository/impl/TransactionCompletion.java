@@ -0,0 +1,72 @@
+package ru.clevertec.product.repository.impl;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Выполняет действия декораторов репозитория по завершении Hibernate транзакции
+ * текущего потока. Запись без фабрики сессий или вне активной транзакции
+ * уже завершена, поэтому её действие выполняется сразу
+ */
+final class TransactionCompletion {
+
+    private TransactionCompletion() {
+    }
+
+    /**
+     * Выполняет действие по завершении активной транзакции или сразу, если её нет
+     *
+     * @param sessionFactory фабрика текущей сессии, null если репозиторий не участвует в транзакциях
+     * @param action         вызывается с true после фиксации и с false после отката
+     */
+    static void afterCompletion(SessionFactory sessionFactory, Consumer<Boolean> action) {
+        activeTransaction(sessionFactory).ifPresentOrElse(
+                transaction -> transaction.registerSynchronization(synchronization(() -> {
+                }, action)),
+                () -> action.accept(true));
+    }
+
+    /**
+     * Ищет активную транзакцию текущей сессии
+     *
+     * @param sessionFactory фабрика текущей сессии, null если репозиторий не участвует в транзакциях
+     * @return Optional<Transaction> если транзакция активна, иначе Optional.empty() - записи текущего потока завершены при возврате
+     */
+    static Optional<Transaction> activeTransaction(SessionFactory sessionFactory) {
+
+        if (sessionFactory == null) {
+            return Optional.empty();
+        }
+
+        Transaction transaction = sessionFactory.getCurrentSession().getTransaction();
+
+        return transaction.isActive() ? Optional.of(transaction) : Optional.empty();
+    }
+
+    /**
+     * Создаёт синхронизацию транзакции. Hibernate сбрасывает сессию до уведомления синхронизаций,
+     * поэтому beforeCompletion выполняется, когда записанные транзакцией строки уже заблокированы
+     *
+     * @param beforeCompletion вызывается перед фиксацией
+     * @param afterCompletion  вызывается с true после фиксации и с false после отката
+     * @return синхронизация для регистрации в транзакции
+     */
+    static Synchronization synchronization(Runnable beforeCompletion, Consumer<Boolean> afterCompletion) {
+        return new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                beforeCompletion.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                afterCompletion.accept(status == Status.STATUS_COMMITTED);
+            }
+        };
+    }
+}
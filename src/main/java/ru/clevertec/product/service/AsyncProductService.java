@@ -0,0 +1,69 @@
+package ru.clevertec.product.service;
+
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.InfoProductPage;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncProductService extends AutoCloseable {
+
+    /**
+     * Ищет продукт по идентификатору
+     *
+     * @param uuid идентификатор продукта
+     * @return найденный продукт, завершается с ProductNotFoundException если не найден
+     * @see ProductNotFoundException
+     */
+    CompletableFuture<InfoProductDto> get(UUID uuid);
+
+    /**
+     * Возвращает все существующие продукты
+     *
+     * @return лист с информацией о продуктах
+     */
+    CompletableFuture<List<InfoProductDto>> getAll();
+
+    /**
+     * Возвращает страницу продуктов, упорядоченных по дате создания
+     *
+     * @param pageToken токен страницы из предыдущего ответа, null для первой страницы
+     * @param limit     максимальное количество продуктов на странице
+     * @return страница с информацией о продуктах и токеном следующей страницы
+     */
+    CompletableFuture<InfoProductPage> getPage(String pageToken, int limit);
+
+    /**
+     * Создаёт новый продукт из DTO
+     *
+     * @param productDto DTO с информацией о создании
+     * @return идентификатор созданного продукта или null
+     */
+    CompletableFuture<UUID> create(ProductDto productDto);
+
+    /**
+     * Обновляет уже существующий продукт из информации полученной в DTO
+     *
+     * @param uuid       идентификатор продукта для обновления
+     * @param productDto DTO с информацией об обновлении
+     * @return true если продукт обновлён, false если продукт не найден или DTO невалиден
+     */
+    CompletableFuture<Boolean> update(UUID uuid, ProductDto productDto);
+
+    /**
+     * Удаляет существующий продукт
+     *
+     * @param uuid идентификатор продукта для удаления
+     * @return true если продукт удалён, false если продукт не найден
+     */
+    CompletableFuture<Boolean> delete(UUID uuid);
+
+    /**
+     * Завершает приём новых вызовов и ожидает завершения начатых
+     */
+    @Override
+    void close();
+}
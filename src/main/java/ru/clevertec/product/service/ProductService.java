@@ -1,11 +1,17 @@
 package ru.clevertec.product.service;
 
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.InfoProductPage;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.ProductUpdateConflictException;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ProductService {
 
@@ -25,6 +31,55 @@ public interface ProductService {
      */
     List<InfoProductDto> getAll();
 
+    /**
+     * Возвращает все существующие продукты потоком, не загружая их в память целиком.
+     * Поток должен быть закрыт после использования
+     *
+     * @return поток с информацией о продуктах
+     */
+    Stream<InfoProductDto> streamAll();
+
+    /**
+     * Возвращает страницу продуктов, упорядоченных по дате создания. Продукты, не прошедшие
+     * валидацию, пропускаются, и страница дочитывается до limit продуктов, пока они есть
+     *
+     * @param pageToken токен страницы из предыдущего ответа, null для первой страницы
+     * @param limit     максимальное количество продуктов на странице
+     * @return страница с информацией о продуктах и токеном следующей страницы
+     * @throws IllegalArgumentException если токен некорректен или limit не положителен
+     */
+    InfoProductPage getPage(String pageToken, int limit);
+
+    /**
+     * Ищет продукты по началу слов названия и описания без учёта регистра
+     *
+     * @param query строка поиска
+     * @param limit максимальное количество найденных продуктов
+     * @return лист с информацией о найденных продуктах
+     * @throws IllegalArgumentException если limit не положителен
+     */
+    List<InfoProductDto> search(String query, int limit);
+
+    /**
+     * Возвращает продукты со стоимостью в заданном диапазоне включительно, упорядоченные по стоимости
+     *
+     * @param from наименьшая стоимость, null если диапазон не ограничен снизу
+     * @param to   наибольшая стоимость, null если диапазон не ограничен сверху
+     * @return лист с информацией о найденных продуктах
+     * @throws IllegalArgumentException если начало диапазона больше его конца
+     */
+    List<InfoProductDto> getByPriceBetween(BigDecimal from, BigDecimal to);
+
+    /**
+     * Возвращает продукты, созданные в заданном диапазоне времени включительно, упорядоченные по времени создания
+     *
+     * @param from начало диапазона, null если диапазон не ограничен снизу
+     * @param to   конец диапазона, null если диапазон не ограничен сверху
+     * @return лист с информацией о найденных продуктах
+     * @throws IllegalArgumentException если начало диапазона позже его конца
+     */
+    List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to);
+
     /**
      * Создаёт новый продукт из DTO
      *
@@ -34,17 +89,36 @@ public interface ProductService {
     UUID create(ProductDto productDto);
 
     /**
-     * Обновляет уже существующий продукт из информации полученной в DTO
+     * Создаёт новые продукты из DTO одной транзакцией, невалидные DTO пропускаются
+     *
+     * @param productDtos DTO с информацией о создании
+     * @return идентификаторы созданных продуктов
+     */
+    List<UUID> createAll(List<ProductDto> productDtos);
+
+    /**
+     * Обновляет уже существующий продукт из информации полученной в DTO одним запросом без чтения продукта.
+     * Если в DTO передана версия, продукт обновляется, только если его версия не изменилась
      *
      * @param uuid       идентификатор продукта для обновления
      * @param productDto DTO с информацией об обновлении
+     * @return true если продукт обновлён, false если продукт не найден или DTO невалиден
+     * @throws ProductUpdateConflictException если в DTO передана версия, а продукт удалён или его версия другая
+     */
+    boolean update(UUID uuid, ProductDto productDto);
+
+    /**
+     * Обновляет уже существующие продукты одной транзакцией, невалидные DTO пропускаются
+     *
+     * @param productDtos DTO с информацией об обновлении по идентификаторам продуктов
      */
-    void update(UUID uuid, ProductDto productDto);
+    void updateAll(Map<UUID, ProductDto> productDtos);
 
     /**
      * Удаляет существующий продукт
      *
      * @param uuid идентификатор продукта для удаления
+     * @return true если продукт удалён, false если продукт не найден
      */
-    void delete(UUID uuid);
+    boolean delete(UUID uuid);
 }
@@ -0,0 +1,152 @@
+package ru.clevertec.product.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.InfoProductPage;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.service.AsyncProductService;
+import ru.clevertec.product.service.ProductService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет каждый вызов блокирующего сервиса продуктов в своём потоке внутри своей
+ * привязанной к потоку сессии и транзакции. Используется исполнитель с виртуальным потоком
+ * на задачу, если среда выполнения его предоставляет (JDK 21+), иначе пул из maxConcurrency
+ * платформенных потоков. Количество вызовов, держащих сессию, ограничено maxConcurrency, который
+ * должен быть равен размеру пула соединений: ожидающие вызовы паркуются на семафоре, а не занимают
+ * потоки-носители, ожидая соединение внутри JDBC драйвера
+ */
+@Slf4j
+public class AsyncProductServiceImpl implements AsyncProductService {
+
+    private static final String CONCURRENCY_ERROR = "Max concurrency must be positive";
+    private static final String VIRTUAL_THREADS_UNAVAILABLE = "Virtual threads are not available, "
+                                                              + "platform thread pool of size {} is used";
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final ProductService productService;
+    private final SessionFactory sessionFactory;
+    private final Semaphore permits;
+    private final ExecutorService executorService;
+
+    public AsyncProductServiceImpl(ProductService productService, SessionFactory sessionFactory,
+                                   int maxConcurrency) {
+        this(productService, sessionFactory, maxConcurrency, newExecutorService(maxConcurrency));
+    }
+
+    public AsyncProductServiceImpl(ProductService productService, SessionFactory sessionFactory,
+                                   int maxConcurrency, ExecutorService executorService) {
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException(CONCURRENCY_ERROR);
+        }
+
+        this.productService = productService;
+        this.sessionFactory = sessionFactory;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executorService = executorService;
+    }
+
+    @Override
+    public CompletableFuture<InfoProductDto> get(UUID uuid) {
+        return supplyInTransaction(() -> productService.get(uuid));
+    }
+
+    @Override
+    public CompletableFuture<List<InfoProductDto>> getAll() {
+        return supplyInTransaction(productService::getAll);
+    }
+
+    @Override
+    public CompletableFuture<InfoProductPage> getPage(String pageToken, int limit) {
+        return supplyInTransaction(() -> productService.getPage(pageToken, limit));
+    }
+
+    @Override
+    public CompletableFuture<UUID> create(ProductDto productDto) {
+        return supplyInTransaction(() -> productService.create(productDto));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> update(UUID uuid, ProductDto productDto) {
+        return supplyInTransaction(() -> productService.update(uuid, productDto));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(UUID uuid) {
+        return supplyInTransaction(() -> productService.delete(uuid));
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdown();
+
+        try {
+            if (!executorService.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> supplyInTransaction(Supplier<T> action) {
+        return CompletableFuture.supplyAsync(() -> inTransaction(action), executorService);
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        try {
+            Session session = sessionFactory.getCurrentSession();
+            Transaction transaction = session.beginTransaction();
+
+            try {
+                T result = action.get();
+                transaction.commit();
+
+                return result;
+            } catch (RuntimeException e) {
+
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+
+                throw e;
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static ExecutorService newExecutorService(int maxConcurrency) {
+
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                                                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info(VIRTUAL_THREADS_UNAVAILABLE, maxConcurrency);
+
+            return Executors.newFixedThreadPool(Math.max(maxConcurrency, 1));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.clevertec.product.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.InfoProductPage;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.service.ProductService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Декоратор сервиса продуктов, записывающий гистограмму задержки каждого метода
+ * и количество запросов несуществующих продуктов. Задержка streamAll включает
+ * потребление потока и записывается при закрытии потока
+ */
+public class MeteredProductService implements ProductService {
+
+    public static final String CALLS_METRIC = "product.service.calls";
+    public static final String NOT_FOUND_METRIC = "product.service.not.found";
+
+    private final ProductService productService;
+    private final MeterRegistry meterRegistry;
+
+    private final Timer getTimer;
+    private final Timer getAllTimer;
+    private final Timer streamAllTimer;
+    private final Timer getPageTimer;
+    private final Timer searchTimer;
+    private final Timer getByPriceBetweenTimer;
+    private final Timer getCreatedBetweenTimer;
+    private final Timer createTimer;
+    private final Timer createAllTimer;
+    private final Timer updateTimer;
+    private final Timer updateAllTimer;
+    private final Timer deleteTimer;
+
+    private final Counter notFoundCounter;
+
+    public MeteredProductService(ProductService productService, MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.meterRegistry = meterRegistry;
+
+        this.getTimer = timer("get");
+        this.getAllTimer = timer("getAll");
+        this.streamAllTimer = timer("streamAll");
+        this.getPageTimer = timer("getPage");
+        this.searchTimer = timer("search");
+        this.getByPriceBetweenTimer = timer("getByPriceBetween");
+        this.getCreatedBetweenTimer = timer("getCreatedBetween");
+        this.createTimer = timer("create");
+        this.createAllTimer = timer("createAll");
+        this.updateTimer = timer("update");
+        this.updateAllTimer = timer("updateAll");
+        this.deleteTimer = timer("delete");
+
+        this.notFoundCounter = Counter.builder(NOT_FOUND_METRIC)
+                                      .description("Requests for not existing products")
+                                      .register(meterRegistry);
+    }
+
+    @Override
+    public InfoProductDto get(UUID uuid) {
+        return getTimer.record(() -> {
+
+            try {
+                return productService.get(uuid);
+            } catch (ProductNotFoundException e) {
+                notFoundCounter.increment();
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public List<InfoProductDto> getAll() {
+        return getAllTimer.record(productService::getAll);
+    }
+
+    @Override
+    public Stream<InfoProductDto> streamAll() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        return productService.streamAll()
+                             .onClose(() -> sample.stop(streamAllTimer));
+    }
+
+    @Override
+    public InfoProductPage getPage(String pageToken, int limit) {
+        return getPageTimer.record(() -> productService.getPage(pageToken, limit));
+    }
+
+    @Override
+    public List<InfoProductDto> search(String query, int limit) {
+        return searchTimer.record(() -> productService.search(query, limit));
+    }
+
+    @Override
+    public List<InfoProductDto> getByPriceBetween(BigDecimal from, BigDecimal to) {
+        return getByPriceBetweenTimer.record(() -> productService.getByPriceBetween(from, to));
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return getCreatedBetweenTimer.record(() -> productService.getCreatedBetween(from, to));
+    }
+
+    @Override
+    public UUID create(ProductDto productDto) {
+        return createTimer.record(() -> productService.create(productDto));
+    }
+
+    @Override
+    public List<UUID> createAll(List<ProductDto> productDtos) {
+        return createAllTimer.record(() -> productService.createAll(productDtos));
+    }
+
+    @Override
+    public boolean update(UUID uuid, ProductDto productDto) {
+        return updateTimer.record(() -> productService.update(uuid, productDto));
+    }
+
+    @Override
+    public void updateAll(Map<UUID, ProductDto> productDtos) {
+        updateAllTimer.record(() -> productService.updateAll(productDtos));
+    }
+
+    @Override
+    public boolean delete(UUID uuid) {
+        return deleteTimer.record(() -> productService.delete(uuid));
+    }
+
+    private Timer timer(String method) {
+        return Timer.builder(CALLS_METRIC)
+                    .description("Product service method latency")
+                    .tag("method", method)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+    }
+}
@@ -1,75 +1,149 @@
 package ru.clevertec.product.service.impl;
 
-import jakarta.validation.Validation;
-import jakarta.validation.ValidatorFactory;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.InfoProductPage;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.entity.Product;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.ProductUpdateConflictException;
 import ru.clevertec.product.mapper.ProductMapper;
+import ru.clevertec.product.repository.ProductPageCursor;
 import ru.clevertec.product.repository.ProductRepository;
 import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.util.PageTokenCodec;
+import ru.clevertec.product.validation.ProductValidator;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Slf4j
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
-    private static final ValidatorFactory validatorFactory = Validation.byDefaultProvider()
-                                                             .configure()
-                                                             .messageInterpolator(new ParameterMessageInterpolator())
-                                                             .buildValidatorFactory();
+    private static final String PAGE_LIMIT_ERROR = "Page limit must be positive, but was %d";
+    private static final String SEARCH_LIMIT_ERROR = "Search limit must be positive, but was %d";
+    private static final String RANGE_ERROR = "Range start %s is after range end %s";
 
     private final ProductMapper productMapperImpl;
     private final ProductRepository productRepository;
+    private final ProductValidator productValidator;
 
     @Override
     public InfoProductDto get(UUID uuid) {
 
         return productRepository.findById(uuid)
                      .map(product -> productMapperImpl.toInfoProductDto(product))
-                     .filter(infoProductDto -> validatorFactory.getValidator()
-                                                                .validate(infoProductDto)
-                                                                .stream()
-                                                                .peek(constraint -> log.error(constraint.getMessage()))
-                                                                .collect(Collectors.toSet())
-                     .isEmpty())
+                     .filter(infoProductDto -> productValidator.isValid(infoProductDto))
                      .orElseThrow(() -> new ProductNotFoundException(uuid));
     }
 
     @Override
     public List<InfoProductDto> getAll() {
 
-        return productRepository.findAll().stream()
-                                          .map(product -> productMapperImpl.toInfoProductDto(product))
-                                          .filter(infoProductDto -> validatorFactory.getValidator()
-                                                  .validate(infoProductDto)
-                                                  .stream()
-                                                  .peek(constraint -> log.error(constraint.getMessage()))
-                                                  .collect(Collectors.toSet())
-                                          .isEmpty())
-                                          .toList();
+        return productRepository.findAllInfo().stream()
+                                              .filter(infoProductDto -> productValidator.isValid(infoProductDto))
+                                              .toList();
 
     }
 
+    @Override
+    public Stream<InfoProductDto> streamAll() {
+
+        return productRepository.streamAll()
+                                .map(product -> productMapperImpl.toInfoProductDto(product))
+                                .filter(infoProductDto -> productValidator.isValid(infoProductDto));
+    }
+
+    @Override
+    public InfoProductPage getPage(String pageToken, int limit) {
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException(String.format(PAGE_LIMIT_ERROR, limit));
+        }
+
+        ProductPageCursor cursor = pageToken == null ? null : PageTokenCodec.decode(pageToken);
+
+        List<InfoProductDto> infoProductDtos = new ArrayList<>(limit);
+        Product lastProduct = null;
+
+        // products rejected by validator are skipped, so page is read on until it is full or products end
+        while (true) {
+            int missingCount = limit - infoProductDtos.size();
+            List<Product> products = productRepository.findPage(cursor, missingCount + 1);
+
+            for (Product product : products) {
+
+                if (infoProductDtos.size() == limit) {
+                    return new InfoProductPage(infoProductDtos,
+                                               PageTokenCodec.encode(ProductPageCursor.of(lastProduct)));
+                }
+
+                InfoProductDto infoProductDto = productMapperImpl.toInfoProductDto(product);
+
+                if (productValidator.isValid(infoProductDto)) {
+                    infoProductDtos.add(infoProductDto);
+                    lastProduct = product;
+                }
+
+                cursor = ProductPageCursor.of(product);
+            }
+
+            if (products.size() <= missingCount) {
+                return new InfoProductPage(infoProductDtos, null);
+            }
+        }
+    }
+
+    @Override
+    public List<InfoProductDto> search(String query, int limit) {
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException(String.format(SEARCH_LIMIT_ERROR, limit));
+        }
+
+        return productRepository.search(query, limit).stream()
+                                .map(product -> productMapperImpl.toInfoProductDto(product))
+                                .filter(infoProductDto -> productValidator.isValid(infoProductDto))
+                                .toList();
+    }
+
+    @Override
+    public List<InfoProductDto> getByPriceBetween(BigDecimal from, BigDecimal to) {
+
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException(String.format(RANGE_ERROR, from, to));
+        }
+
+        return productRepository.findByPriceBetween(from, to).stream()
+                                .map(product -> productMapperImpl.toInfoProductDto(product))
+                                .filter(infoProductDto -> productValidator.isValid(infoProductDto))
+                                .toList();
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to) {
+
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException(String.format(RANGE_ERROR, from, to));
+        }
+
+        return productRepository.findCreatedBetween(from, to).stream()
+                                .map(product -> productMapperImpl.toInfoProductDto(product))
+                                .filter(infoProductDto -> productValidator.isValid(infoProductDto))
+                                .toList();
+    }
+
     @Override
     public UUID create(ProductDto productDto) {
 
         UUID uuid = null;
 
         if (productDto != null) {
-            if (validatorFactory.getValidator()
-                    .validate(productDto)
-                    .stream()
-                    .peek(constraint -> log.error(constraint.getMessage()))
-                    .collect(Collectors.toSet())
-                    .isEmpty()) {
+            if (productValidator.isValid(productDto)) {
                 uuid = productRepository.save(productMapperImpl.toProduct(productDto)).getUuid();
             }
         }
@@ -78,26 +152,69 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public void update(UUID uuid, ProductDto productDto) {
-
-        if (productDto != null && uuid != null) {
-            if (validatorFactory.getValidator()
-                    .validate(productDto)
-                    .stream()
-                    .peek(constraint -> log.error(constraint.getMessage()))
-                    .collect(Collectors.toSet())
-                    .isEmpty()) {
-
-                productRepository.save(productMapperImpl.merge(Product.builder()
-                        .uuid(uuid)
-                        .build(), productDto));
-            }
+    public List<UUID> createAll(List<ProductDto> productDtos) {
+
+        if (productDtos == null) {
+            return List.of();
+        }
+
+        List<Product> products = productDtos.stream()
+                                            .filter(productDto -> productValidator.isValid(productDto))
+                                            .map(productDto -> productMapperImpl.toProduct(productDto))
+                                            .toList();
+
+        if (products.isEmpty()) {
+            return List.of();
         }
 
+        return productRepository.saveAll(products).stream()
+                                                   .map(Product::getUuid)
+                                                   .toList();
+    }
+
+    @Override
+    public boolean update(UUID uuid, ProductDto productDto) {
+
+        if (productDto == null || uuid == null || !productValidator.isValid(productDto)) {
+            return false;
+        }
+
+        Product updatingProduct = productMapperImpl.merge(Product.builder()
+                .uuid(uuid)
+                .version(productDto.version())
+                .build(), productDto);
+
+        boolean isUpdated = productRepository.updateById(updatingProduct) > 0;
+
+        if (!isUpdated && productDto.version() != null) {
+            throw new ProductUpdateConflictException(uuid, productDto.version());
+        }
+
+        return isUpdated;
+    }
+
+    @Override
+    public void updateAll(Map<UUID, ProductDto> productDtos) {
+
+        if (productDtos == null) {
+            return;
+        }
+
+        List<Product> products = productDtos.entrySet().stream()
+                                            .filter(entry -> entry.getKey() != null)
+                                            .filter(entry -> productValidator.isValid(entry.getValue()))
+                                            .map(entry -> productMapperImpl.merge(Product.builder()
+                                                    .uuid(entry.getKey())
+                                                    .build(), entry.getValue()))
+                                            .toList();
+
+        if (!products.isEmpty()) {
+            productRepository.saveAll(products);
+        }
     }
 
     @Override
-    public void delete(UUID uuid) {
-        productRepository.delete(uuid);
+    public boolean delete(UUID uuid) {
+        return productRepository.deleteById(uuid) > 0;
     }
 }
@@ -0,0 +1,119 @@
+package ru.clevertec.product.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import ru.clevertec.product.repository.database.connnection.AppConnection;
+import ru.clevertec.product.repository.database.data.DatabaseManager;
+import ru.clevertec.product.repository.database.service.DatabaseService;
+import ru.clevertec.product.startup.exception.StartupException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Запускает базу данных и соединение приложения, выполняя независимые фазы параллельно.
+ * Сначала запускается сервис базы данных, затем миграция базы данных выполняется, пока строятся
+ * метаданные Hibernate и прогревается пул соединений. Hibernate не проверяет схему,
+ * поэтому фабрика сессий не ждёт миграцию
+ */
+@Slf4j
+public class StartupOrchestrator {
+
+    public static final String DATABASE_PHASE = "database";
+    public static final String MIGRATION_PHASE = "migration";
+    public static final String SESSION_FACTORY_PHASE = "sessionFactory";
+    public static final String WARM_UP_PHASE = "warmUp";
+
+    private static final String STARTUP_ERROR = "Error starting application";
+    private static final String SESSION_FACTORY_ERROR = "Session factory is not built";
+    private static final String WARM_UP_QUERY = "SELECT 1";
+    private static final String STARTUP_REPORT = "Started in {}";
+
+    private final DatabaseService databaseService;
+    private final DatabaseManager databaseManager;
+    private final AppConnection connection;
+
+    public StartupOrchestrator(DatabaseService databaseService, DatabaseManager databaseManager,
+                               AppConnection connection) {
+        this.databaseService = databaseService;
+        this.databaseManager = databaseManager;
+        this.connection = connection;
+    }
+
+    /**
+     * Запускает приложение
+     *
+     * @return длительности фаз запуска
+     * @throws StartupException если любая фаза завершилась с ошибкой, тогда фабрика сессий и сервис базы данных закрываются
+     */
+    public StartupReport start() {
+        Map<String, Duration> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+        long startedAt = System.nanoTime();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            timed(DATABASE_PHASE, phases, databaseService::start);
+
+            CompletableFuture<Void> migration = CompletableFuture.runAsync(
+                    () -> timed(MIGRATION_PHASE, phases, databaseManager::loadData), executorService);
+
+            CompletableFuture<Void> sessionFactory = CompletableFuture.runAsync(() -> {
+                SessionFactory builtSessionFactory = timed(SESSION_FACTORY_PHASE, phases,
+                                                           connection::getSessionFactory);
+
+                if (builtSessionFactory == null) {
+                    throw new StartupException(SESSION_FACTORY_ERROR);
+                }
+
+                timed(WARM_UP_PHASE, phases, () -> warmUp(builtSessionFactory));
+            }, executorService);
+
+            CompletableFuture.allOf(migration, sessionFactory).join();
+        } catch (RuntimeException e) {
+            // session factory may be built even if migration failed
+            AppConnection.shutdown();
+            databaseService.stop();
+
+            throw new StartupException(STARTUP_ERROR, e instanceof CompletionException ? e.getCause() : e);
+        } finally {
+            executorService.shutdown();
+        }
+
+        StartupReport startupReport = new StartupReport(phases, Duration.ofNanos(System.nanoTime() - startedAt));
+        log.info(STARTUP_REPORT, startupReport);
+
+        return startupReport;
+    }
+
+    private static void warmUp(SessionFactory sessionFactory) {
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.createNativeQuery(WARM_UP_QUERY, Integer.class).getSingleResult();
+        }
+    }
+
+    private static void timed(String phase, Map<String, Duration> phases, Runnable action) {
+        timed(phase, phases, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static <T> T timed(String phase, Map<String, Duration> phases, Supplier<T> action) {
+        long startedAt = System.nanoTime();
+
+        T result = action.get();
+        phases.put(phase, Duration.ofNanos(System.nanoTime() - startedAt));
+
+        return result;
+    }
+}
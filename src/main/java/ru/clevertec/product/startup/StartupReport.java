@@ -0,0 +1,22 @@
+package ru.clevertec.product.startup;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Длительности фаз запуска в порядке завершения. Фазы выполняются параллельно,
+ * поэтому общее время меньше суммы фаз
+ *
+ * @param phases длительности по имени фазы
+ * @param total  время всего запуска
+ */
+public record StartupReport(Map<String, Duration> phases, Duration total) {
+
+    @Override
+    public String toString() {
+        return phases.entrySet().stream()
+                     .map(phase -> phase.getKey() + "=" + phase.getValue().toMillis() + "ms")
+                     .collect(Collectors.joining(", ", "", ", total=" + total.toMillis() + "ms"));
+    }
+}
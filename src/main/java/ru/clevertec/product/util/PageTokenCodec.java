@@ -0,0 +1,63 @@
+package ru.clevertec.product.util;
+
+import ru.clevertec.product.repository.ProductPageCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Преобразует позицию страницы в непрозрачный токен продолжения и обратно
+ */
+public final class PageTokenCodec {
+
+    private static final String SEPARATOR = "|";
+    private static final String INVALID_TOKEN_ERROR = "Invalid page token: %s";
+    private static final String NULL_CREATED_ERROR = "Page cursor has no created";
+
+    private PageTokenCodec() {
+    }
+
+    /**
+     * Кодирует позицию страницы в токен продолжения
+     *
+     * @param cursor позиция последнего продукта страницы
+     * @return токен продолжения
+     * @throws IllegalArgumentException если в позиции нет времени создания, такой токен нельзя раскодировать
+     */
+    public static String encode(ProductPageCursor cursor) {
+
+        if (cursor.created() == null) {
+            throw new IllegalArgumentException(NULL_CREATED_ERROR);
+        }
+
+        String token = cursor.created() + SEPARATOR + cursor.uuid();
+
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Раскодирует токен продолжения в позицию страницы
+     *
+     * @param token токен продолжения
+     * @return позиция последнего продукта предыдущей страницы
+     * @throws IllegalArgumentException если токен повреждён
+     */
+    public static ProductPageCursor decode(String token) {
+
+        try {
+            String decodedToken = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = decodedToken.indexOf(SEPARATOR);
+
+            return new ProductPageCursor(LocalDateTime.parse(decodedToken.substring(0, separatorIndex)),
+                                         UUID.fromString(decodedToken.substring(separatorIndex + 1)));
+
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException(String.format(INVALID_TOKEN_ERROR, token), e);
+        }
+    }
+}
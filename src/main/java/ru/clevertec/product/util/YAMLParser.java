@@ -17,6 +17,12 @@ public class YAMLParser {
 	@SuppressWarnings("unchecked")
 	public String getProperty(String propertyObject, String propertyName) {
 		Map<String, Object> objectProperties = (Map<String, Object>) yamlProperties.get(propertyObject);
+		
+		// missing block reads like missing property
+		if (objectProperties == null) {
+			return String.valueOf((Object) null);
+		}
+		
 		String propertyValue = String.valueOf((Object) objectProperties.get(propertyName));
 		return propertyValue;
 	}
@@ -25,6 +31,12 @@ public class YAMLParser {
 	public String getProperty(String propertyObject, String propertySubObject, String propertyName) {
 		Map<Object, Object> objectProperties = (Map<Object, Object>) yamlProperties.get(propertyObject);
 		Map<Object, Object> subObjectProperties = (Map<Object, Object>) objectProperties.get(propertySubObject);
+		
+		// missing block reads like missing property
+		if (subObjectProperties == null) {
+			return String.valueOf((Object) null);
+		}
+		
 		String propertyValue = String.valueOf((Object) subObjectProperties.get(propertyName));
 		return propertyValue;
 	}
@@ -0,0 +1,27 @@
+package ru.clevertec.product.validation;
+
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+
+/**
+ * Валидатор данных продукта
+ */
+public interface ProductValidator {
+
+    /**
+     * Проверяет данные продукта, переданные для создания или обновления продукта.
+     * Нарушенные ограничения логируются
+     *
+     * @param productDto данные продукта
+     * @return true если данные продукта валидны, false если они null или невалидны
+     */
+    boolean isValid(ProductDto productDto);
+
+    /**
+     * Проверяет информацию о продукте. Нарушенные ограничения логируются
+     *
+     * @param infoProductDto информация о продукте
+     * @return true если информация о продукте валидна, false если она null или невалидна
+     */
+    boolean isValid(InfoProductDto infoProductDto);
+}
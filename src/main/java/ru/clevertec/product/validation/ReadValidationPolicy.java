@@ -0,0 +1,42 @@
+package ru.clevertec.product.validation;
+
+import java.util.Locale;
+
+/**
+ * Способ проверки информации о продуктах, прочитанной из хранилища
+ */
+public enum ReadValidationPolicy {
+
+    /**
+     * Проверяется каждый прочитанный продукт
+     */
+    ALWAYS,
+
+    /**
+     * Проверяется один из каждых N прочитанных продуктов
+     */
+    SAMPLED,
+
+    /**
+     * Прочитанным продуктам доверяют, они проверены при записи
+     */
+    NEVER;
+
+    private static final String UNKNOWN_POLICY_ERROR = "Unknown read validation policy: %s";
+
+    /**
+     * Ищет политику проверки по имени
+     *
+     * @param name имя политики так, как оно записано в настройках (always, sampled, never)
+     * @return политика проверки при чтении
+     * @throws IllegalArgumentException если имя политики неизвестно
+     */
+    public static ReadValidationPolicy fromName(String name) {
+
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException(String.format(UNKNOWN_POLICY_ERROR, name), e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.clevertec.product.validation.impl;
+
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.groups.Default;
+import jakarta.validation.metadata.BeanDescriptor;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+
+import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Ограничения одного класса, один раз скомпилированные из метаданных Bean Validation
+ * в простые предикаты над методами доступа к свойствам. Регулярные выражения берутся
+ * из самих аннотаций ограничений, поэтому план не расходится с объявленными ограничениями.
+ * План компилируется, только если поддержано каждое объявленное ограничение, иначе он пуст
+ * и класс должен проверяться Bean Validation
+ *
+ * @param <T> тип проверяемого объекта
+ */
+final class ConstraintPlan<T> {
+
+    private final Predicate<T> check;
+
+    private ConstraintPlan(Predicate<T> check) {
+        this.check = check;
+    }
+
+    /**
+     * Компилирует план ограничений класса
+     *
+     * @param validator валидатор, из которого читаются метаданные ограничений
+     * @param type      проверяемый класс
+     * @param accessors методы доступа к ограниченным свойствам по имени свойства
+     * @return скомпилированный план или Optional.empty() если у класса есть неподдерживаемые ограничения
+     */
+    static <T> Optional<ConstraintPlan<T>> compile(Validator validator, Class<T> type,
+                                                   Map<String, Function<T, Object>> accessors) {
+
+        BeanDescriptor beanDescriptor = validator.getConstraintsForClass(type);
+
+        if (!beanDescriptor.getConstraintDescriptors().isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Predicate<T>> checks = new ArrayList<>();
+
+        for (PropertyDescriptor propertyDescriptor : beanDescriptor.getConstrainedProperties()) {
+
+            Function<T, Object> accessor = accessors.get(propertyDescriptor.getPropertyName());
+
+            if (accessor == null || propertyDescriptor.isCascaded()
+                || !propertyDescriptor.getConstrainedContainerElementTypes().isEmpty()) {
+                return Optional.empty();
+            }
+
+            for (ConstraintDescriptor<?> constraintDescriptor : propertyDescriptor.getConstraintDescriptors()) {
+
+                Optional<Predicate<Object>> valueCheck = compile(constraintDescriptor,
+                                                                 propertyDescriptor.getElementClass());
+
+                if (valueCheck.isEmpty()) {
+                    return Optional.empty();
+                }
+
+                Predicate<Object> compiledCheck = valueCheck.get();
+                checks.add(object -> compiledCheck.test(accessor.apply(object)));
+            }
+        }
+
+        Predicate<T> check = checks.stream()
+                                   .reduce(object -> true, Predicate::and);
+
+        return Optional.of(new ConstraintPlan<>(check));
+    }
+
+    /**
+     * Проверяет объект по плану
+     *
+     * @param object проверяемый объект, не null
+     * @return true если объект удовлетворяет всем ограничениям
+     */
+    boolean test(T object) {
+        return check.test(object);
+    }
+
+    private static Optional<Predicate<Object>> compile(ConstraintDescriptor<?> constraintDescriptor,
+                                                       Class<?> propertyType) {
+
+        if (!constraintDescriptor.getComposingConstraints().isEmpty()
+            || !constraintDescriptor.getGroups().equals(Set.of(Default.class))) {
+            return Optional.empty();
+        }
+
+        Annotation annotation = constraintDescriptor.getAnnotation();
+
+        if (annotation instanceof NotNull) {
+            return Optional.of(value -> value != null);
+        }
+
+        if (annotation instanceof NotEmpty && CharSequence.class.isAssignableFrom(propertyType)) {
+            return Optional.of(value -> value != null && !((CharSequence) value).isEmpty());
+        }
+
+        if (annotation instanceof Pattern pattern && pattern.flags().length == 0
+            && CharSequence.class.isAssignableFrom(propertyType)) {
+            java.util.regex.Pattern compiledPattern = java.util.regex.Pattern.compile(pattern.regexp());
+
+            return Optional.of(value -> value == null || compiledPattern.matcher((CharSequence) value).matches());
+        }
+
+        if (annotation instanceof Positive && BigDecimal.class.equals(propertyType)) {
+            return Optional.of(value -> value == null || ((BigDecimal) value).signum() > 0);
+        }
+
+        if (annotation instanceof PositiveOrZero && BigDecimal.class.equals(propertyType)) {
+            return Optional.of(value -> value == null || ((BigDecimal) value).signum() >= 0);
+        }
+
+        return Optional.empty();
+    }
+}
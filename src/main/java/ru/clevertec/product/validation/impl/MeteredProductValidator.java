@@ -0,0 +1,59 @@
+package ru.clevertec.product.validation.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.validation.ProductValidator;
+
+/**
+ * Декоратор валидатора, считающий отклонённые данные продуктов, переданные для записи,
+ * и отклонённую информацию о продуктах, прочитанную из хранилища
+ */
+public class MeteredProductValidator implements ProductValidator {
+
+    public static final String REJECTED_METRIC = "product.validation.rejected";
+
+    private final ProductValidator productValidator;
+
+    private final Counter rejectedWritesCounter;
+    private final Counter rejectedReadsCounter;
+
+    public MeteredProductValidator(ProductValidator productValidator, MeterRegistry meterRegistry) {
+        this.productValidator = productValidator;
+
+        this.rejectedWritesCounter = counter(meterRegistry, "write");
+        this.rejectedReadsCounter = counter(meterRegistry, "read");
+    }
+
+    @Override
+    public boolean isValid(ProductDto productDto) {
+
+        boolean isValid = productValidator.isValid(productDto);
+
+        if (!isValid) {
+            rejectedWritesCounter.increment();
+        }
+
+        return isValid;
+    }
+
+    @Override
+    public boolean isValid(InfoProductDto infoProductDto) {
+
+        boolean isValid = productValidator.isValid(infoProductDto);
+
+        if (!isValid) {
+            rejectedReadsCounter.increment();
+        }
+
+        return isValid;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder(REJECTED_METRIC)
+                      .description("Product data rejected by validation")
+                      .tag("operation", operation)
+                      .register(meterRegistry);
+    }
+}
@@ -0,0 +1,85 @@
+package ru.clevertec.product.validation.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.validation.ProductValidator;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Валидатор создаётся один раз и используется совместно, он потокобезопасен. Валидные данные
+ * принимаются заранее скомпилированным планом ограничений без рефлексии, Hibernate Validator
+ * запускается только для данных, отклонённых планом (чтобы сообщить о нарушениях), или для классов,
+ * ограничения которых план не поддерживает
+ */
+@Slf4j
+public class ProductValidatorImpl implements ProductValidator {
+
+    private final Validator validator;
+
+    /**
+     * null если у класса есть ограничения, не поддерживаемые планом
+     */
+    private final ConstraintPlan<ProductDto> productDtoPlan;
+    private final ConstraintPlan<InfoProductDto> infoProductDtoPlan;
+
+    public ProductValidatorImpl() {
+        this(Validation.byDefaultProvider()
+                       .configure()
+                       .messageInterpolator(new ParameterMessageInterpolator())
+                       .buildValidatorFactory()
+                       .getValidator());
+    }
+
+    public ProductValidatorImpl(Validator validator) {
+        this.validator = validator;
+
+        this.productDtoPlan = ConstraintPlan.compile(validator, ProductDto.class,
+                Map.<String, Function<ProductDto, Object>>of(
+                        "name", ProductDto::name,
+                        "description", ProductDto::description,
+                        "price", ProductDto::price))
+                .orElse(null);
+
+        this.infoProductDtoPlan = ConstraintPlan.compile(validator, InfoProductDto.class,
+                Map.<String, Function<InfoProductDto, Object>>of(
+                        "uuid", InfoProductDto::uuid,
+                        "name", InfoProductDto::name,
+                        "description", InfoProductDto::description,
+                        "price", InfoProductDto::price))
+                .orElse(null);
+    }
+
+    @Override
+    public boolean isValid(ProductDto productDto) {
+        return isValid(productDto, productDtoPlan);
+    }
+
+    @Override
+    public boolean isValid(InfoProductDto infoProductDto) {
+        return isValid(infoProductDto, infoProductDtoPlan);
+    }
+
+    private <T> boolean isValid(T object, ConstraintPlan<T> plan) {
+
+        if (object == null) {
+            return false;
+        }
+
+        if (plan != null && plan.test(object)) {
+            return true;
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(object);
+        violations.forEach(constraint -> log.error(constraint.getMessage()));
+
+        return violations.isEmpty();
+    }
+}
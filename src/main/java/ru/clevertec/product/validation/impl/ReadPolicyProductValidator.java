@@ -0,0 +1,82 @@
+package ru.clevertec.product.validation.impl;
+
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.validation.ProductValidator;
+import ru.clevertec.product.validation.ReadValidationPolicy;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Декоратор валидатора, применяющий политику проверки при чтении к информации о продуктах,
+ * прочитанной из хранилища. Данные продуктов, переданные для записи, проверяются всегда
+ */
+public class ReadPolicyProductValidator implements ProductValidator {
+
+    private static final String SAMPLE_RATE_ERROR = "Read validation sample rate must be positive";
+
+    private final ProductValidator productValidator;
+    private final ReadValidationPolicy readValidationPolicy;
+    private final int sampleRate;
+
+    private final AtomicLong reads = new AtomicLong();
+    private final LongAdder invalidReads = new LongAdder();
+
+    /**
+     * @param productValidator     валидатор, которому делегируется проверка
+     * @param readValidationPolicy политика проверки при чтении
+     * @param sampleRate           для выборочной политики проверяется один из sampleRate прочитанных продуктов
+     */
+    public ReadPolicyProductValidator(ProductValidator productValidator, ReadValidationPolicy readValidationPolicy,
+                                      int sampleRate) {
+
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException(SAMPLE_RATE_ERROR);
+        }
+
+        this.productValidator = productValidator;
+        this.readValidationPolicy = readValidationPolicy;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public boolean isValid(ProductDto productDto) {
+        return productValidator.isValid(productDto);
+    }
+
+    @Override
+    public boolean isValid(InfoProductDto infoProductDto) {
+
+        if (infoProductDto == null) {
+            return false;
+        }
+
+        boolean isValidating = switch (readValidationPolicy) {
+            case ALWAYS -> true;
+            case SAMPLED -> reads.getAndIncrement() % sampleRate == 0;
+            case NEVER -> false;
+        };
+
+        if (!isValidating) {
+            return true;
+        }
+
+        boolean isValid = productValidator.isValid(infoProductDto);
+
+        if (!isValid) {
+            invalidReads.increment();
+        }
+
+        return isValid;
+    }
+
+    /**
+     * Возвращает количество невалидных продуктов среди проверенных прочитанных продуктов
+     *
+     * @return количество невалидных прочитанных продуктов
+     */
+    public long getInvalidReadCount() {
+        return invalidReads.sum();
+    }
+}
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS product_deleted (
+id UUID NOT NULL,
+deleted TIMESTAMP(6) DEFAULT LOCALTIMESTAMP(6) NOT NULL,
+
+PRIMARY KEY(id)
+);
+CREATE INDEX IF NOT EXISTS product_deleted_deleted_idx ON product_deleted(deleted);
+CREATE TRIGGER IF NOT EXISTS product_deleted_trg AFTER DELETE ON product FOR EACH ROW CALL 'ru.clevertec.product.repository.database.trigger.ProductDeletedTrigger';
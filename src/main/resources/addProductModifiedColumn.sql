@@ -0,0 +1,2 @@
+ALTER TABLE product ADD COLUMN IF NOT EXISTS modified TIMESTAMP(6) DEFAULT LOCALTIMESTAMP(6) ON UPDATE LOCALTIMESTAMP(6) NOT NULL;
+CREATE INDEX IF NOT EXISTS product_modified_idx ON product(modified);
\ No newline at end of file
@@ -0,0 +1 @@
+ALTER TABLE product ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
\ No newline at end of file
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS product_created_id_idx ON product(created, id);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS product_price_id_idx ON product(price, id);
\ No newline at end of file
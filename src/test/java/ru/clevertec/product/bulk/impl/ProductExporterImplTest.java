@@ -0,0 +1,141 @@
+package ru.clevertec.product.bulk.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.bulk.ExportReport;
+import ru.clevertec.product.bulk.ProductFileFormat;
+import ru.clevertec.product.bulk.exception.ProductExportException;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.service.ProductService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductExporterImplTest {
+
+    private static final InfoProductDto FIRST_PRODUCT = new InfoProductDto(new UUID(1L, 2L), "Варенье",
+                                                                           "Консервы, \"сладкие\"",
+                                                                           new BigDecimal("8.25"), null);
+    private static final InfoProductDto SECOND_PRODUCT = new InfoProductDto(new UUID(3L, 4L), "Печенье",
+                                                                            "Сладости мучные",
+                                                                            new BigDecimal("1E+1"), null);
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ProductService productServiceMock;
+
+    private ProductExporterImpl productExporterImpl;
+
+    @BeforeEach
+    public void setUp() {
+        productExporterImpl = new ProductExporterImpl(productServiceMock);
+    }
+
+    @Test
+    public void checkExportShouldWriteCsvWithQuotedValuesAndCloseStream() throws IOException {
+
+        Path target = directory.resolve("products.csv");
+        boolean[] isClosed = {false};
+
+        Mockito.when(productServiceMock.streamAll())
+               .thenReturn(Stream.of(FIRST_PRODUCT, SECOND_PRODUCT).onClose(() -> isClosed[0] = true));
+
+        ExportReport actualExportReport = productExporterImpl.export(target, ProductFileFormat.CSV, false);
+
+        assertAll(
+                () -> assertThat(Files.readAllLines(target)).containsExactly(
+                        "uuid,name,description,price",
+                        "00000000-0000-0001-0000-000000000002,Варенье,\"Консервы, \"\"сладкие\"\"\",8.25",
+                        "00000000-0000-0003-0000-000000000004,Печенье,Сладости мучные,10"),
+                () -> assertThat(actualExportReport.exported()).isEqualTo(2L),
+                () -> assertThat(actualExportReport.bytes()).isEqualTo(Files.size(target)),
+                () -> assertThat(isClosed[0]).isTrue(),
+                () -> assertThat(directory.resolve("products.csv.tmp")).doesNotExist()
+        );
+    }
+
+    @Test
+    public void checkExportShouldWriteCompressedNdjsonReadableByImporter() throws IOException {
+
+        Path target = directory.resolve("products.ndjson.gz");
+
+        Mockito.when(productServiceMock.streamAll()).thenReturn(Stream.of(FIRST_PRODUCT, SECOND_PRODUCT));
+
+        productExporterImpl.export(target, ProductFileFormat.NDJSON, true);
+
+        List<String> actualLines;
+
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(target))) {
+            actualLines = new String(input.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+
+        NdjsonProductLineParser ndjsonProductLineParser = new NdjsonProductLineParser();
+
+        assertAll(
+                () -> assertThat(actualLines).hasSize(2),
+                () -> assertThat(ndjsonProductLineParser.parse(actualLines.get(0)).description())
+                        .isEqualTo(FIRST_PRODUCT.description()),
+                () -> assertThat(ndjsonProductLineParser.parse(actualLines.get(1)).price())
+                        .isEqualByComparingTo(SECOND_PRODUCT.price())
+        );
+    }
+
+    @Test
+    public void checkExportShouldKeepExistingFileAndThrowProductExportExceptionOnStreamFailure() throws IOException {
+
+        Path target = directory.resolve("products.csv");
+        Files.writeString(target, "old");
+
+        Mockito.when(productServiceMock.streamAll()).thenReturn(Stream.of(FIRST_PRODUCT).map(product -> {
+            throw new UncheckedIOException(new IOException("Disk is full"));
+        }));
+
+        assertThatExceptionOfType(ProductExportException.class)
+                .isThrownBy(() -> productExporterImpl.export(target, ProductFileFormat.CSV, false));
+
+        assertAll(
+                () -> assertThat(Files.readString(target)).isEqualTo("old"),
+                () -> assertThat(directory.resolve("products.csv.tmp")).doesNotExist()
+        );
+    }
+
+    @Test
+    public void checkExportShouldDeleteTemporaryFileOnRuntimeFailure() throws IOException {
+
+        Path target = directory.resolve("products.ndjson");
+        Files.writeString(target, "old");
+
+        Mockito.when(productServiceMock.streamAll()).thenReturn(Stream.of(FIRST_PRODUCT).map(product -> {
+            throw new IllegalStateException("Session is closed");
+        }));
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> productExporterImpl.export(target, ProductFileFormat.NDJSON, false));
+
+        assertAll(
+                () -> assertThat(Files.readString(target)).isEqualTo("old"),
+                () -> assertThat(directory.resolve("products.ndjson.tmp")).doesNotExist()
+        );
+    }
+}
@@ -0,0 +1,150 @@
+package ru.clevertec.product.bulk.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import ru.clevertec.product.bulk.ImportReport;
+import ru.clevertec.product.bulk.ProductFileFormat;
+import ru.clevertec.product.bulk.exception.ProductImportException;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.mapper.ProductMapper;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.impl.HeapProductRepository;
+import ru.clevertec.product.validation.impl.ProductValidatorImpl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ProductImporterImplTest {
+
+    private static final int CHUNK_SIZE = 4;
+
+    @TempDir
+    private Path directory;
+
+    private ProductRepository productRepository;
+    private ProductImporterImpl productImporterImpl;
+
+    @BeforeEach
+    public void setUp() {
+        productRepository = Mockito.spy(new HeapProductRepository());
+        productImporterImpl = new ProductImporterImpl(productRepository, new ProductMapperImpl(),
+                                                      new ProductValidatorImpl(), CHUNK_SIZE, 2, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        productImporterImpl.close();
+    }
+
+    @Test
+    public void checkImportFileShouldSaveValidCsvLinesInChunksAndRejectOthers() throws IOException {
+
+        Path source = Files.writeString(directory.resolve("products.csv"), """
+                price,name,description
+                5.22,Печенье,"Сладости мучные"
+                abc,Печенье,Сладости мучные
+
+                8.25,Варенье,"Консервы сладкие"
+                1,Soup,Консервы сладкие
+                3.10,"Сухари",Сладости мучные
+                """);
+        Path rejectedFile = directory.resolve("products.rejected");
+
+        ImportReport actualImportReport = productImporterImpl.importFile(source, ProductFileFormat.CSV, rejectedFile);
+
+        List<String> actualRejectedLines = Files.readAllLines(rejectedFile);
+
+        assertAll(
+                () -> assertThat(actualImportReport.read()).isEqualTo(5L),
+                () -> assertThat(actualImportReport.imported()).isEqualTo(3L),
+                () -> assertThat(actualImportReport.rejected()).isEqualTo(2L),
+                () -> assertThat(productRepository.findAll()).extracting(Product::getName)
+                        .containsExactlyInAnyOrder("Печенье", "Варенье", "Сухари"),
+                () -> assertThat(actualRejectedLines).containsExactly(
+                        "3\tMalformed price: abc\tabc,Печенье,Сладости мучные",
+                        "6\tProduct is not valid\t1,Soup,Консервы сладкие"),
+                () -> Mockito.verify(productRepository, Mockito.times(2)).saveAll(Mockito.anyCollection())
+        );
+    }
+
+    @Test
+    public void checkImportFileShouldParseNdjsonLines() throws IOException {
+
+        Path source = Files.writeString(directory.resolve("products.ndjson"), """
+                {"name": "Печенье", "description": "Сладости мучные", "price": 5.22, "sku": [1, 2]}
+                {"name": "Варенье", "price": "8.25"}
+                {"name": "Варенье", "price": 8.25
+                [1, 2]
+                """);
+        Path rejectedFile = directory.resolve("products.rejected");
+
+        ImportReport actualImportReport = productImporterImpl.importFile(source, ProductFileFormat.NDJSON,
+                                                                         rejectedFile);
+
+        assertAll(
+                () -> assertThat(actualImportReport.imported()).isEqualTo(2L),
+                () -> assertThat(actualImportReport.rejected()).isEqualTo(2L),
+                () -> assertThat(productRepository.findAll()).extracting(Product::getPrice)
+                        .usingElementComparator(BigDecimal::compareTo)
+                        .containsExactlyInAnyOrder(new BigDecimal("5.22"), new BigDecimal("8.25")),
+                () -> assertThat(Files.readAllLines(rejectedFile)).extracting(line -> line.split("\t")[0])
+                        .containsExactly("3", "4")
+        );
+    }
+
+    @Test
+    public void checkImportFileShouldRejectChunkWhichIsNotSaved() throws IOException {
+
+        Mockito.doThrow(new IllegalStateException("Database is unavailable"))
+               .when(productRepository).saveAll(Mockito.anyCollection());
+
+        Path source = Files.writeString(directory.resolve("products.csv"), IntStream.range(0, 10)
+                .mapToObj(i -> "Печенье,Сладости мучные," + (i + 1))
+                .collect(Collectors.joining("\n", "name,description,price\n", "\n")));
+        Path rejectedFile = directory.resolve("products.rejected");
+
+        ImportReport actualImportReport = productImporterImpl.importFile(source, ProductFileFormat.CSV, rejectedFile);
+
+        assertAll(
+                () -> assertThat(actualImportReport.imported()).isZero(),
+                () -> assertThat(actualImportReport.rejected()).isEqualTo(10L),
+                () -> assertThat(Files.readAllLines(rejectedFile))
+                        .allMatch(line -> line.contains("Chunk is not saved: Database is unavailable"))
+        );
+    }
+
+    @Test
+    public void checkImportFileShouldThrowProductImportExceptionWhenWorkerFails() throws IOException {
+
+        ProductMapper productMapperMock = Mockito.mock(ProductMapper.class);
+        Mockito.when(productMapperMock.toProduct(Mockito.any()))
+               .thenThrow(new IllegalStateException("Mapper is broken"));
+
+        Path source = Files.writeString(directory.resolve("products.csv"), """
+                price,name,description
+                5.22,Печенье,"Сладости мучные"
+                """);
+
+        try (ProductImporterImpl productImporterImpl = new ProductImporterImpl(productRepository, productMapperMock,
+                new ProductValidatorImpl(), CHUNK_SIZE, 2, 2)) {
+
+            assertThatExceptionOfType(ProductImportException.class)
+                    .isThrownBy(() -> productImporterImpl.importFile(source, ProductFileFormat.CSV,
+                                                                     directory.resolve("products.rejected")))
+                    .withCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+}
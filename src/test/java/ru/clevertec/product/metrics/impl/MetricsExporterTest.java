@@ -0,0 +1,64 @@
+package ru.clevertec.product.metrics.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.validation.ProductValidator;
+import ru.clevertec.product.validation.impl.MeteredProductValidator;
+import ru.clevertec.product.validation.impl.ProductValidatorImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MetricsExporterTest {
+
+    private PrometheusMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+        ProductValidator productValidator = new MeteredProductValidator(new ProductValidatorImpl(), meterRegistry);
+        productValidator.isValid((ProductDto) null);
+    }
+
+    @Test
+    public void checkHttpExporterShouldServeScrape() throws IOException {
+
+        try (HttpMetricsExporter httpMetricsExporter = new HttpMetricsExporter(meterRegistry, 0)) {
+            httpMetricsExporter.start();
+
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:"
+                                                                       + httpMetricsExporter.getPort()
+                                                                       + "/metrics").openConnection();
+
+            try (InputStream body = connection.getInputStream()) {
+
+                assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8))
+                        .contains("product_validation_rejected_total{operation=\"write\",} 1.0");
+            }
+        }
+    }
+
+    @Test
+    public void checkFileExporterShouldDumpScrapeOnClose(@TempDir Path directory) throws IOException {
+
+        Path file = directory.resolve("metrics").resolve("product.prom");
+
+        try (FileMetricsExporter fileMetricsExporter = new FileMetricsExporter(meterRegistry, file, 60)) {
+            fileMetricsExporter.start();
+        }
+
+        assertThat(Files.readString(file)).contains("product_validation_rejected_total{operation=\"read\",} 0.0");
+    }
+}
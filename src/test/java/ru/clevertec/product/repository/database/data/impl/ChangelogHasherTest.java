@@ -0,0 +1,29 @@
+package ru.clevertec.product.repository.database.data.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.repository.database.data.exception.DatabaseManagerException;
+
+public class ChangelogHasherTest {
+
+    private static final String CHANGELOG_FILE = "liquibase/db-shop-changelog.xml";
+
+    @Test
+    public void checkHashShouldReturnStableSha256Hex() {
+
+        String actualHash = ChangelogHasher.hash(CHANGELOG_FILE);
+
+        assertThat(actualHash).hasSize(64)
+                              .isHexadecimal()
+                              .isEqualTo(ChangelogHasher.hash(CHANGELOG_FILE));
+    }
+
+    @Test
+    public void checkHashShouldThrowDatabaseManagerExceptionWhenChangelogNotFound() {
+
+        assertThatExceptionOfType(DatabaseManagerException.class)
+                .isThrownBy(() -> ChangelogHasher.hash("liquibase/unknown-changelog.xml"));
+    }
+}
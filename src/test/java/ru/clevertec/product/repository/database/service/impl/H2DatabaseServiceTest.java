@@ -0,0 +1,45 @@
+package ru.clevertec.product.repository.database.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.clevertec.product.repository.database.DatabaseMode;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+public class H2DatabaseServiceTest {
+
+    @ParameterizedTest
+    @EnumSource(value = DatabaseMode.class, names = {"EMBEDDED_FILE", "EMBEDDED_MEM"})
+    public void checkStartShouldNotOpenTcpPortInEmbeddedMode(DatabaseMode inputDatabaseMode) throws IOException {
+
+        H2DatabaseService h2DatabaseService = new H2DatabaseService(inputDatabaseMode);
+        h2DatabaseService.start();
+
+        try (ServerSocket serverSocket = new ServerSocket(9092)) {
+            assertThat(serverSocket.isBound()).isTrue();
+        } finally {
+            h2DatabaseService.stop();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"tcp, TCP", "embedded-file, EMBEDDED_FILE", " embedded-mem , EMBEDDED_MEM"})
+    public void checkFromNameShouldParseModeName(String inputName, DatabaseMode expectedDatabaseMode) {
+
+        assertThat(DatabaseMode.fromName(inputName)).isEqualTo(expectedDatabaseMode);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"embedded", "EMBEDDED_FILE", ""})
+    public void checkFromNameShouldThrowIllegalArgumentExceptionOnUnknownName(String inputName) {
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> DatabaseMode.fromName(inputName));
+    }
+}
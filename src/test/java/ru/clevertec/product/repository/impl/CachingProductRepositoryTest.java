@@ -0,0 +1,261 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingProductRepositoryTest {
+
+    @Mock
+    private ProductRepository productRepositoryMock;
+
+    @Mock
+    private SessionFactory sessionFactoryMock;
+
+    @Mock
+    private Session sessionMock;
+
+    @Mock
+    private Transaction transactionMock;
+
+    private CachingProductRepository cachingProductRepository;
+
+    @BeforeEach
+    public void setUp() {
+        cachingProductRepository = new CachingProductRepository(productRepositoryMock, 2);
+    }
+
+    @Test
+    public void checkFindByIdShouldReturnCachedProductOnSecondCall() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+        Product expectedProduct = buildProduct(inputUUID);
+
+        Mockito.when(productRepositoryMock.findById(inputUUID))
+                .thenReturn(Optional.of(expectedProduct));
+
+        cachingProductRepository.findById(inputUUID);
+        Optional<Product> actualProductWrap = cachingProductRepository.findById(inputUUID);
+
+        Mockito.verify(productRepositoryMock, Mockito.times(1)).findById(inputUUID);
+
+        assertAll(
+                () -> assertThat(actualProductWrap).contains(expectedProduct),
+                () -> assertThat(cachingProductRepository.getStatistics().hits()).isEqualTo(1L),
+                () -> assertThat(cachingProductRepository.getStatistics().misses()).isEqualTo(1L)
+        );
+    }
+
+    @Test
+    public void checkInvalidateAllShouldReloadProductsWrittenBypassingDecorator() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+        Product expectedProduct = buildProduct(inputUUID);
+
+        Mockito.when(productRepositoryMock.findById(inputUUID))
+                .thenReturn(Optional.of(buildProduct(inputUUID)), Optional.of(expectedProduct));
+        Mockito.when(productRepositoryMock.findAll())
+                .thenReturn(List.of(), List.of(expectedProduct));
+
+        cachingProductRepository.findById(inputUUID);
+        cachingProductRepository.findAll();
+
+        cachingProductRepository.invalidateAll();
+
+        assertAll(
+                () -> assertThat(cachingProductRepository.findById(inputUUID).get()).isSameAs(expectedProduct),
+                () -> assertThat(cachingProductRepository.findAll()).containsExactly(expectedProduct),
+                () -> assertThat(cachingProductRepository.getStatistics().size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    public void checkFindByIdShouldNotCacheMissingProduct() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+
+        Mockito.when(productRepositoryMock.findById(inputUUID))
+                .thenReturn(Optional.empty());
+
+        cachingProductRepository.findById(inputUUID);
+        cachingProductRepository.findById(inputUUID);
+
+        Mockito.verify(productRepositoryMock, Mockito.times(2)).findById(inputUUID);
+    }
+
+    @Test
+    public void checkSaveShouldInvalidateCachedProduct() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+        Product product = buildProduct(inputUUID);
+
+        Mockito.when(productRepositoryMock.findById(inputUUID))
+                .thenReturn(Optional.of(product));
+        Mockito.when(productRepositoryMock.save(product))
+                .thenReturn(product);
+
+        cachingProductRepository.findById(inputUUID);
+        cachingProductRepository.save(product);
+        cachingProductRepository.findById(inputUUID);
+
+        Mockito.verify(productRepositoryMock, Mockito.times(2)).findById(inputUUID);
+    }
+
+    @Test
+    public void checkDeleteShouldInvalidateFindAllSnapshot() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+
+        Mockito.when(productRepositoryMock.findAll())
+                .thenReturn(List.of(buildProduct(inputUUID)));
+
+        cachingProductRepository.findAll();
+        cachingProductRepository.findAll();
+        cachingProductRepository.delete(inputUUID);
+        List<Product> actualProducts = cachingProductRepository.findAll();
+
+        Mockito.verify(productRepositoryMock, Mockito.times(2)).findAll();
+
+        assertThat(actualProducts).hasSize(1);
+    }
+
+    @Test
+    public void checkFindAllInfoShouldBeServedFromFindAllSnapshot() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+
+        Mockito.when(productRepositoryMock.findAll())
+                .thenReturn(List.of(buildProduct(inputUUID)));
+
+        cachingProductRepository.findAll();
+        List<InfoProductDto> actualInfoProductDtos = cachingProductRepository.findAllInfo();
+
+        Mockito.verify(productRepositoryMock, Mockito.never()).findAllInfo();
+
+        assertThat(actualInfoProductDtos).extracting(InfoProductDto::uuid)
+                                         .containsExactly(inputUUID);
+    }
+
+    @Test
+    public void checkFindAllInfoShouldLoadFindAllSnapshotOnMiss() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+
+        Mockito.when(productRepositoryMock.findAll())
+                .thenReturn(List.of(buildProduct(inputUUID)));
+
+        cachingProductRepository.findAllInfo();
+        List<InfoProductDto> actualInfoProductDtos = cachingProductRepository.findAllInfo();
+        cachingProductRepository.streamAll().close();
+
+        Mockito.verify(productRepositoryMock, Mockito.times(1)).findAll();
+        Mockito.verify(productRepositoryMock, Mockito.never()).findAllInfo();
+        Mockito.verify(productRepositoryMock, Mockito.never()).streamAll();
+
+        assertAll(
+                () -> assertThat(actualInfoProductDtos).extracting(InfoProductDto::uuid)
+                                                       .containsExactly(inputUUID),
+                () -> assertThat(cachingProductRepository.getStatistics().hits()).isEqualTo(1L),
+                () -> assertThat(cachingProductRepository.getStatistics().misses()).isEqualTo(1L)
+        );
+    }
+
+    @Test
+    public void checkUpdateByIdShouldNotLetProductBeCachedUntilTransactionCompletes() {
+
+        UUID inputUUID = new UUID(128L, 256L);
+        Product product = buildProduct(inputUUID);
+        ArgumentCaptor<Synchronization> synchronizationCaptor = ArgumentCaptor.forClass(Synchronization.class);
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.getTransaction()).thenReturn(transactionMock);
+        Mockito.when(transactionMock.isActive()).thenReturn(true);
+        Mockito.when(productRepositoryMock.findById(inputUUID))
+                .thenReturn(Optional.of(product));
+        Mockito.when(productRepositoryMock.updateById(product))
+                .thenReturn(1);
+
+        CachingProductRepository cachingProductRepository = new CachingProductRepository(productRepositoryMock, 2,
+                                                                                         sessionFactoryMock);
+
+        cachingProductRepository.findById(inputUUID);
+        cachingProductRepository.updateById(product);
+        cachingProductRepository.findById(inputUUID);
+        cachingProductRepository.findById(inputUUID);
+
+        Mockito.verify(transactionMock).registerSynchronization(synchronizationCaptor.capture());
+        Mockito.verify(productRepositoryMock, Mockito.times(3)).findById(inputUUID);
+
+        synchronizationCaptor.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+        cachingProductRepository.findById(inputUUID);
+        cachingProductRepository.findById(inputUUID);
+
+        Mockito.verify(productRepositoryMock, Mockito.times(4)).findById(inputUUID);
+    }
+
+    @Test
+    public void checkFindByIdShouldEvictLeastRecentlyUsedProduct() {
+
+        UUID firstUUID = new UUID(1L, 1L);
+        UUID secondUUID = new UUID(2L, 2L);
+        UUID thirdUUID = new UUID(3L, 3L);
+
+        Mockito.when(productRepositoryMock.findById(Mockito.any(UUID.class)))
+                .thenAnswer(invocation -> Optional.of(buildProduct(invocation.getArgument(0))));
+
+        cachingProductRepository.findById(firstUUID);
+        cachingProductRepository.findById(secondUUID);
+        cachingProductRepository.findById(firstUUID);
+        cachingProductRepository.findById(thirdUUID);
+        cachingProductRepository.findById(secondUUID);
+
+        CachingProductRepository.Statistics actualStatistics = cachingProductRepository.getStatistics();
+
+        assertAll(
+                () -> assertThat(actualStatistics.hits()).isEqualTo(1L),
+                () -> assertThat(actualStatistics.misses()).isEqualTo(4L),
+                () -> assertThat(actualStatistics.evictions()).isEqualTo(2L),
+                () -> assertThat(actualStatistics.size()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    public void checkConstructorShouldThrowIllegalArgumentExceptionOnNonPositiveSize() {
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new CachingProductRepository(productRepositoryMock, 0));
+    }
+
+    private static Product buildProduct(UUID uuid) {
+        return Product.builder()
+                .uuid(uuid)
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal("6.28"))
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
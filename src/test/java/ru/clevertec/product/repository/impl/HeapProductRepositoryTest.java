@@ -0,0 +1,331 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class HeapProductRepositoryTest {
+
+    private HeapProductRepository heapProductRepository;
+
+    @BeforeEach
+    public void setUp() {
+        heapProductRepository = new HeapProductRepository();
+    }
+
+    @Test
+    public void checkSaveShouldGenerateUUIDForNewProduct() {
+
+        Product inputSavingProduct = Product.builder()
+                .name("Соленье")
+                .description("Сладость")
+                .price(new BigDecimal(3.44f))
+                .created(LocalDateTime.now())
+                .build();
+
+        Product actualProduct = heapProductRepository.save(inputSavingProduct);
+
+        assertAll(
+                () -> assertThat(actualProduct.getUuid()).isNotNull(),
+                () -> assertThat(heapProductRepository.findById(actualProduct.getUuid())).contains(inputSavingProduct)
+        );
+    }
+
+    @Test
+    public void checkSaveShouldMergeExistingProduct() {
+
+        LocalDateTime created = LocalDateTime.now();
+        UUID uuid = heapProductRepository.save(Product.builder()
+                .name("Соленье")
+                .description("Сладость")
+                .price(new BigDecimal(3.44f))
+                .created(created)
+                .build()).getUuid();
+
+        Product inputMergingProduct = Product.builder()
+                .uuid(uuid)
+                .name("Печенье")
+                .description("Сладкие товары")
+                .price(new BigDecimal(4.48f))
+                .build();
+
+        heapProductRepository.save(inputMergingProduct);
+
+        Product actualProduct = heapProductRepository.findById(uuid).orElseThrow();
+
+        assertAll(
+                () -> assertThat(actualProduct.getName()).isEqualTo("Печенье"),
+                () -> assertThat(actualProduct.getDescription()).isEqualTo("Сладкие товары"),
+                () -> assertThat(actualProduct.getPrice()).isEqualByComparingTo(inputMergingProduct.getPrice()),
+                () -> assertThat(actualProduct.getCreated()).isEqualTo(created)
+        );
+    }
+
+    @Test
+    public void checkSaveShouldNotInsertProductWithUnknownUUID() {
+
+        Product inputMergingProduct = Product.builder()
+                .uuid(new UUID(100L, 201L))
+                .name("Печенье")
+                .description("Сладкие товары")
+                .price(new BigDecimal(4.48f))
+                .created(LocalDateTime.now())
+                .build();
+
+        heapProductRepository.save(inputMergingProduct);
+
+        assertThat(heapProductRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    public void checkSaveShouldThrowIllegalArgumentExceptionWhenNullProductGiven() {
+
+        Product inputProduct = null;
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> heapProductRepository.save(inputProduct));
+    }
+
+    @Test
+    public void checkFindByIdShouldReturnCopyOfStoredProduct() {
+
+        UUID uuid = heapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal(6.28f))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        heapProductRepository.findById(uuid).orElseThrow().setName("Варенье");
+
+        assertThat(heapProductRepository.findById(uuid).orElseThrow().getName()).isEqualTo("Печенье");
+    }
+
+    @Test
+    public void checkFindByIdShouldReturnOptionalEmptyWhenNullUUIDGiven() {
+
+        UUID inputUUID = null;
+
+        Optional<Product> actualProductWrap = heapProductRepository.findById(inputUUID);
+
+        assertThat(actualProductWrap).isEmpty();
+    }
+
+    @Test
+    public void checkDeleteShouldRemoveProductByUUID() {
+
+        UUID uuid = heapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal(6.28f))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        heapProductRepository.delete(uuid);
+
+        assertThat(heapProductRepository.findById(uuid)).isEmpty();
+    }
+
+    @Test
+    public void checkFindPageShouldReturnProductsOrderedByCreated() {
+
+        LocalDateTime created = LocalDateTime.of(2023, 10, 1, 12, 0);
+
+        IntStream.of(3, 1, 2, 0).forEach(i -> heapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal(i + 1))
+                .created(created.plusDays(i))
+                .build()));
+
+        List<Product> firstPage = heapProductRepository.findPage(null, 3);
+        List<Product> secondPage = heapProductRepository.findPage(ProductPageCursor.of(firstPage.get(2)), 3);
+
+        assertAll(
+                () -> assertThat(firstPage).extracting(Product::getCreated)
+                        .containsExactly(created, created.plusDays(1), created.plusDays(2)),
+                () -> assertThat(secondPage).extracting(Product::getCreated)
+                        .containsExactly(created.plusDays(3))
+        );
+    }
+
+    @Test
+    public void checkFindPageShouldSkipDeletedProducts() {
+
+        LocalDateTime created = LocalDateTime.of(2023, 10, 1, 12, 0);
+
+        UUID deletingUUID = heapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal(1))
+                .created(created)
+                .build()).getUuid();
+        heapProductRepository.save(Product.builder()
+                .name("Варенье")
+                .description("Сладость")
+                .price(new BigDecimal(2))
+                .created(created.plusDays(1))
+                .build());
+
+        heapProductRepository.delete(deletingUUID);
+
+        assertThat(heapProductRepository.findPage(null, 10)).extracting(Product::getName)
+                .containsExactly("Варенье");
+    }
+
+    @Test
+    public void checkFindByPriceBetweenShouldReturnProductsOrderedByPriceAfterUpdate() {
+
+        LocalDateTime created = LocalDateTime.now();
+        UUID cheapUUID = heapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal("2.50"))
+                .created(created)
+                .build()).getUuid();
+        UUID expensiveUUID = heapProductRepository.save(Product.builder()
+                .name("Варенье")
+                .description("Сладость")
+                .price(new BigDecimal("9.00"))
+                .created(created)
+                .build()).getUuid();
+
+        heapProductRepository.updateById(Product.builder()
+                .uuid(expensiveUUID)
+                .name("Варенье")
+                .description("Сладость")
+                .price(new BigDecimal("1.0"))
+                .build());
+
+        assertAll(
+                () -> assertThat(heapProductRepository.findByPriceBetween(null, new BigDecimal("5")))
+                        .extracting(Product::getUuid)
+                        .containsExactly(expensiveUUID, cheapUUID),
+                () -> assertThat(heapProductRepository.findByPriceBetween(new BigDecimal("2.5"), new BigDecimal("2.5")))
+                        .extracting(Product::getUuid)
+                        .containsExactly(cheapUUID),
+                () -> assertThat(heapProductRepository.findByPriceBetween(new BigDecimal("5"), null)).isEmpty()
+        );
+    }
+
+    @Test
+    public void checkFindCreatedBetweenShouldReturnProductsWithinInclusiveRange() {
+
+        LocalDateTime created = LocalDateTime.of(2023, 11, 10, 12, 0);
+
+        IntStream.range(0, 5).forEach(day -> heapProductRepository.save(Product.builder()
+                .name("Печенье" + day)
+                .description("Сладость")
+                .price(BigDecimal.ONE)
+                .created(created.plusDays(day))
+                .build()));
+
+        assertAll(
+                () -> assertThat(heapProductRepository.findCreatedBetween(created.plusDays(1), created.plusDays(3)))
+                        .extracting(Product::getName)
+                        .containsExactly("Печенье1", "Печенье2", "Печенье3"),
+                () -> assertThat(heapProductRepository.findCreatedBetween(created.plusDays(4), null))
+                        .extracting(Product::getName)
+                        .containsExactly("Печенье4")
+        );
+    }
+
+    @Test
+    public void checkSaveShouldKeepAllProductsOnConcurrentInserts() throws InterruptedException {
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+        IntStream.range(0, 1000).forEach(i -> executorService.execute(() ->
+                heapProductRepository.save(Product.builder()
+                        .name("Печенье")
+                        .description("Сладость")
+                        .price(new BigDecimal(i + 1))
+                        .created(LocalDateTime.now())
+                        .build())));
+
+        executorService.shutdown();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<Product> actualProducts = heapProductRepository.findAll();
+
+        assertThat(actualProducts).hasSize(1000);
+    }
+
+    @Test
+    public void checkUpdateByIdShouldRejectStaleVersion() {
+
+        UUID uuid = heapProductRepository.save(Product.builder()
+                .name("Соленье")
+                .description("Сладость")
+                .price(new BigDecimal("3.44"))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        Product inputUpdatingProduct = Product.builder()
+                .uuid(uuid)
+                .name("Печенье")
+                .description("Сладкие товары")
+                .price(new BigDecimal("4.48"))
+                .version(0L)
+                .build();
+
+        int actualFirstCount = heapProductRepository.updateById(inputUpdatingProduct);
+        int actualStaleCount = heapProductRepository.updateById(inputUpdatingProduct);
+
+        assertAll(
+                () -> assertThat(actualFirstCount).isEqualTo(1),
+                () -> assertThat(actualStaleCount).isZero(),
+                () -> assertThat(heapProductRepository.findById(uuid)).map(Product::getVersion).contains(1L)
+        );
+    }
+
+    @Test
+    public void checkUpdateByIdShouldNotLoseConcurrentUpdatesOfOneProduct() throws InterruptedException {
+
+        UUID uuid = heapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладость")
+                .price(BigDecimal.ZERO)
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        IntStream.range(0, 1000).forEach(i -> executorService.execute(() -> {
+
+            int updatedCount = 0;
+
+            while (updatedCount == 0) {
+                Product savedProduct = heapProductRepository.findById(uuid).orElseThrow();
+                updatedCount = heapProductRepository.updateById(savedProduct.toBuilder()
+                        .price(savedProduct.getPrice().add(BigDecimal.ONE))
+                        .build());
+            }
+        }));
+
+        executorService.shutdown();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+
+        Product actualProduct = heapProductRepository.findById(uuid).orElseThrow();
+
+        assertAll(
+                () -> assertThat(actualProduct.getPrice()).isEqualByComparingTo("1000"),
+                () -> assertThat(actualProduct.getVersion()).isEqualTo(1000L)
+        );
+    }
+}
@@ -4,15 +4,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertAll;
 
+import org.hibernate.CacheMode;
 import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.query.MutationQuery;
 import org.hibernate.query.NativeQuery;
+import org.hibernate.query.Query;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
 import ru.clevertec.product.entity.Product;
 
 import java.math.BigDecimal;
@@ -21,6 +28,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
 public class InMemoryProductRepositoryTest {
@@ -33,6 +41,18 @@ public class InMemoryProductRepositoryTest {
     @Mock
     private NativeQuery<Product> nativeQueryMock;
 
+    @Mock
+    private Query<Product> queryMock;
+
+    @Mock
+    private Query<InfoProductDto> infoQueryMock;
+
+    @Mock
+    private ScrollableResults<Product> scrollableResultsMock;
+
+    @Mock
+    private MutationQuery mutationQueryMock;
+
     @Mock
     private Transaction transactionMock;
 
@@ -105,6 +125,7 @@ public class InMemoryProductRepositoryTest {
         Mockito.when(sessionMock.createNativeQuery(Mockito.anyString(), Mockito.any(Class.class)))
                 .thenReturn(nativeQueryMock);
         Mockito.when(nativeQueryMock.setReadOnly(Mockito.anyBoolean())).thenReturn(nativeQueryMock);
+        Mockito.when(nativeQueryMock.setCacheMode(CacheMode.IGNORE)).thenReturn(nativeQueryMock);
         Mockito.when(nativeQueryMock.list()).thenReturn(expectedProducts);
 
         List<Product> actualProducts = inMemoryProductRepository.findAll();
@@ -116,6 +137,40 @@ public class InMemoryProductRepositoryTest {
 
     }
 
+    @Test
+    public void checkFindAllShouldMapEveryColumnOfProductTable() {
+
+        SessionFactory sessionFactory = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:in-memory-find-all;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.current_session_context_class", "thread")
+                .addAnnotatedClass(Product.class)
+                .buildSessionFactory();
+
+        try (sessionFactory) {
+            InMemoryProductRepository repository = new InMemoryProductRepository(sessionFactory);
+            Product expectedProduct = Product.builder()
+                    .name("Печенье")
+                    .description("Сладость")
+                    .price(new BigDecimal("6.280"))
+                    .created(LocalDateTime.of(2023, 10, 18, 12, 0))
+                    .build();
+
+            Transaction saveTransaction = sessionFactory.getCurrentSession().beginTransaction();
+            repository.save(expectedProduct);
+            saveTransaction.commit();
+
+            Transaction findTransaction = sessionFactory.getCurrentSession().beginTransaction();
+            List<Product> actualProducts = repository.findAll();
+            findTransaction.commit();
+
+            assertThat(actualProducts).usingRecursiveFieldByFieldElementComparator()
+                                      .containsExactly(expectedProduct.toBuilder()
+                                                                      .version(0L)
+                                                                      .build());
+        }
+    }
+
     @Test
     public void checkFindAllShouldReturnEmptyList() {
 
@@ -126,6 +181,124 @@ public class InMemoryProductRepositoryTest {
         assertThat(actualProducts).isEmpty();
     }
 
+    @Test
+    public void checkFindAllInfoShouldSelectDtosWithConstructorExpression() {
+
+        List<InfoProductDto> expectedInfoProductDtos = List.of(
+                new InfoProductDto(new UUID(128L, 256L), "Печенье", "Сладость", new BigDecimal("6.28"), null));
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.createQuery(Mockito.startsWith("SELECT new "), Mockito.eq(InfoProductDto.class)))
+                .thenReturn(infoQueryMock);
+        Mockito.when(infoQueryMock.list()).thenReturn(expectedInfoProductDtos);
+
+        List<InfoProductDto> actualInfoProductDtos = inMemoryProductRepository.findAllInfo();
+
+        Mockito.verify(sessionMock, Mockito.never()).createQuery(Mockito.anyString(), Mockito.eq(Product.class));
+
+        assertThat(actualInfoProductDtos).isEqualTo(expectedInfoProductDtos);
+    }
+
+    @Test
+    public void checkStreamAllShouldReturnDetachedProductsAndCloseCursor() {
+
+        Product firstProduct = Product.builder()
+                .uuid(new UUID(128L, 256L))
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal(6.28f))
+                .created(LocalDateTime.now())
+                .build();
+        Product secondProduct = Product.builder()
+                .uuid(new UUID(100L, 201L))
+                .name("Варенье")
+                .description("Сладость")
+                .price(new BigDecimal(3.44f))
+                .created(LocalDateTime.now())
+                .build();
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.createQuery(Mockito.anyString(), Mockito.eq(Product.class)))
+                .thenReturn(queryMock);
+        Mockito.when(queryMock.setReadOnly(true)).thenReturn(queryMock);
+        Mockito.when(queryMock.setFetchSize(Mockito.anyInt())).thenReturn(queryMock);
+        Mockito.when(queryMock.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(scrollableResultsMock);
+        Mockito.when(scrollableResultsMock.next()).thenReturn(true, true, false);
+        Mockito.when(scrollableResultsMock.get()).thenReturn(firstProduct, secondProduct);
+
+        List<Product> actualProducts;
+        try (Stream<Product> products = inMemoryProductRepository.streamAll()) {
+            actualProducts = products.toList();
+        }
+
+        Mockito.verify(sessionMock, Mockito.times(2)).detach(Mockito.any(Product.class));
+        Mockito.verify(sessionMock, Mockito.times(3)).setCacheMode(CacheMode.IGNORE);
+        Mockito.verify(scrollableResultsMock).close();
+
+        assertThat(actualProducts).containsExactly(firstProduct, secondProduct);
+    }
+
+    @Test
+    public void checkFindByPriceBetweenShouldQueryOnlyGivenBounds() {
+
+        Product expectedProduct = Product.builder()
+                .uuid(new UUID(128L, 256L))
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal("2.50"))
+                .created(LocalDateTime.now())
+                .build();
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.createQuery(Mockito.anyString(), Mockito.eq(Product.class)))
+                .thenReturn(queryMock);
+        Mockito.when(queryMock.setReadOnly(true)).thenReturn(queryMock);
+        Mockito.when(queryMock.list()).thenReturn(List.of(expectedProduct));
+
+        List<Product> actualProducts = inMemoryProductRepository.findByPriceBetween(null, new BigDecimal("5"));
+
+        Mockito.verify(sessionMock).createQuery("FROM Product p WHERE p.price <= :to ORDER BY p.price, p.uuid",
+                                                Product.class);
+        Mockito.verify(queryMock).setParameter("to", new BigDecimal("5"));
+        Mockito.verify(queryMock, Mockito.never()).setParameter(Mockito.eq("from"), Mockito.any());
+
+        assertThat(actualProducts).containsExactly(expectedProduct);
+    }
+
+    @Test
+    public void checkFindPageShouldUseQueryCache() {
+
+        Product expectedProduct = Product.builder()
+                .uuid(new UUID(128L, 256L))
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal("2.50"))
+                .created(LocalDateTime.now())
+                .build();
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.createQuery(Mockito.anyString(), Mockito.eq(Product.class)))
+                .thenReturn(queryMock);
+        Mockito.when(queryMock.setReadOnly(true)).thenReturn(queryMock);
+        Mockito.when(queryMock.setCacheable(true)).thenReturn(queryMock);
+        Mockito.when(queryMock.setMaxResults(10)).thenReturn(queryMock);
+        Mockito.when(queryMock.list()).thenReturn(List.of(expectedProduct));
+
+        List<Product> actualProducts = inMemoryProductRepository.findPage(null, 10);
+
+        Mockito.verify(queryMock).setCacheable(true);
+
+        assertThat(actualProducts).containsExactly(expectedProduct);
+    }
+
+    @Test
+    public void checkStreamAllShouldReturnEmptyStream() {
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenThrow(HibernateException.class);
+
+        assertThat(inMemoryProductRepository.streamAll()).isEmpty();
+    }
+
     @Test
     public void checkSaveShouldReturnSavedProduct() {
 
@@ -203,6 +376,92 @@ public class InMemoryProductRepositoryTest {
                 .isThrownBy(() -> inMemoryProductRepository.save(inputProduct));
     }
 
+    @Test
+    public void checkSaveAllShouldPersistNewProductsInOneTransaction() {
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.getTransaction()).thenReturn(transactionMock);
+        Mockito.when(transactionMock.isActive()).thenReturn(false);
+
+        List<Product> inputSavingProducts = List.of(
+                Product.builder()
+                        .name("Соленье")
+                        .description("Сладость")
+                        .price(new BigDecimal(3.44f))
+                        .created(LocalDateTime.now())
+                        .build(),
+                Product.builder()
+                        .name("Варенье")
+                        .description("Сладость")
+                        .price(new BigDecimal(5.12f))
+                        .created(LocalDateTime.now())
+                        .build());
+
+        List<Product> actualProducts = inMemoryProductRepository.saveAll(inputSavingProducts);
+
+        Mockito.verify(sessionMock, Mockito.times(2)).persist(productArgumentCaptor.capture());
+        Mockito.verify(sessionMock).flush();
+        Mockito.verify(sessionMock, Mockito.times(2)).detach(Mockito.any(Product.class));
+        Mockito.verify(sessionMock, Mockito.never()).clear();
+        Mockito.verify(transactionMock).begin();
+        Mockito.verify(transactionMock).commit();
+
+        assertAll(
+                () -> assertThat(productArgumentCaptor.getAllValues()).isEqualTo(inputSavingProducts),
+                () -> assertThat(actualProducts).isEqualTo(inputSavingProducts)
+        );
+    }
+
+    @Test
+    public void checkSaveAllShouldKeepOtherEntitiesOfSessionManaged() {
+
+        SessionFactory sessionFactory = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:in-memory-save-all;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.current_session_context_class", "thread")
+                .setProperty("hibernate.jdbc.batch_size", "1")
+                .addAnnotatedClass(Product.class)
+                .buildSessionFactory();
+
+        try (sessionFactory) {
+            InMemoryProductRepository repository = new InMemoryProductRepository(sessionFactory);
+            Product loadedProduct = Product.builder()
+                    .name("Печенье")
+                    .description("Сладость")
+                    .price(BigDecimal.ONE)
+                    .created(LocalDateTime.now())
+                    .build();
+            List<Product> inputSavingProducts = List.of(
+                    loadedProduct.toBuilder().name("Соленье").build(),
+                    loadedProduct.toBuilder().name("Варенье").build());
+
+            Session session = sessionFactory.getCurrentSession();
+            Transaction transaction = session.beginTransaction();
+            session.persist(loadedProduct);
+
+            repository.saveAll(inputSavingProducts);
+
+            boolean isLoadedProductManaged = session.contains(loadedProduct);
+            boolean isSavedProductManaged = session.contains(inputSavingProducts.get(0));
+            transaction.commit();
+
+            assertAll(
+                    () -> assertThat(isLoadedProductManaged).isTrue(),
+                    () -> assertThat(isSavedProductManaged).isFalse()
+            );
+        }
+    }
+
+    @Test
+    public void checkSaveAllShouldThrowIllegalArgumentExceptionWhenNullProductGiven() {
+
+        List<Product> inputProducts = new ArrayList<>();
+        inputProducts.add(null);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> inMemoryProductRepository.saveAll(inputProducts));
+    }
+
     @Test
     public void checkDeleteShouldRemoveProductByUUID() {
 
@@ -232,4 +491,85 @@ public class InMemoryProductRepositoryTest {
         assertThat(productArgumentCaptor.getValue()).isEqualTo(expectedDeletingProduct);
     }
 
+    @Test
+    public void checkUpdateByIdShouldReturnUpdatedRowCountWithoutSelect() {
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.getTransaction()).thenReturn(transactionMock);
+        Mockito.when(transactionMock.isActive()).thenReturn(true);
+        Mockito.when(sessionMock.createMutationQuery(Mockito.anyString())).thenReturn(mutationQueryMock);
+        Mockito.when(mutationQueryMock.setParameter(Mockito.anyString(), Mockito.any())).thenReturn(mutationQueryMock);
+        Mockito.when(mutationQueryMock.executeUpdate()).thenReturn(1);
+
+        Product inputUpdatingProduct = Product.builder()
+                .uuid(new UUID(100L, 201L))
+                .name("Печенье")
+                .description("Сладкие товары")
+                .price(new BigDecimal(4.48f))
+                .build();
+
+        int actualUpdatedRows = inMemoryProductRepository.updateById(inputUpdatingProduct);
+
+        Mockito.verify(sessionMock, Mockito.never()).find(Mockito.any(Class.class), Mockito.any());
+        Mockito.verify(mutationQueryMock).setParameter("uuid", inputUpdatingProduct.getUuid());
+        Mockito.verify(transactionMock, Mockito.never()).commit();
+
+        assertThat(actualUpdatedRows).isEqualTo(1);
+    }
+
+    @Test
+    public void checkUpdateByIdShouldCompareVersionWhenVersionGiven() {
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.getTransaction()).thenReturn(transactionMock);
+        Mockito.when(transactionMock.isActive()).thenReturn(true);
+        Mockito.when(sessionMock.createMutationQuery(Mockito.anyString())).thenReturn(mutationQueryMock);
+        Mockito.when(mutationQueryMock.setParameter(Mockito.anyString(), Mockito.any())).thenReturn(mutationQueryMock);
+        Mockito.when(mutationQueryMock.executeUpdate()).thenReturn(0);
+
+        Product inputUpdatingProduct = Product.builder()
+                .uuid(new UUID(100L, 201L))
+                .name("Печенье")
+                .description("Сладкие товары")
+                .price(new BigDecimal(4.48f))
+                .version(3L)
+                .build();
+
+        int actualUpdatedRows = inMemoryProductRepository.updateById(inputUpdatingProduct);
+
+        Mockito.verify(sessionMock).createMutationQuery(Mockito.endsWith("AND p.version = :version"));
+        Mockito.verify(mutationQueryMock).setParameter("version", 3L);
+
+        assertThat(actualUpdatedRows).isZero();
+    }
+
+    @Test
+    public void checkUpdateByIdShouldThrowIllegalArgumentExceptionWhenNullUUIDGiven() {
+
+        Product inputUpdatingProduct = Product.builder()
+                .name("Печенье")
+                .build();
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> inMemoryProductRepository.updateById(inputUpdatingProduct));
+    }
+
+    @Test
+    public void checkDeleteByIdShouldReturnZeroWhenProductNotFound() {
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.getTransaction()).thenReturn(transactionMock);
+        Mockito.when(transactionMock.isActive()).thenReturn(false);
+        Mockito.when(sessionMock.createMutationQuery(Mockito.anyString())).thenReturn(mutationQueryMock);
+        Mockito.when(mutationQueryMock.setParameter(Mockito.anyString(), Mockito.any())).thenReturn(mutationQueryMock);
+        Mockito.when(mutationQueryMock.executeUpdate()).thenReturn(0);
+
+        int actualDeletedRows = inMemoryProductRepository.deleteById(new UUID(128L, 256L));
+
+        Mockito.verify(transactionMock).begin();
+        Mockito.verify(transactionMock).commit();
+
+        assertThat(actualDeletedRows).isZero();
+    }
+
 }
@@ -0,0 +1,243 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class IndexedProductRepositoryTest {
+
+    private ProductRepository productRepository;
+    private IndexedProductRepository indexedProductRepository;
+
+    @BeforeEach
+    public void setUp() {
+        productRepository = Mockito.spy(new HeapProductRepository());
+        indexedProductRepository = new IndexedProductRepository(productRepository);
+    }
+
+    @Test
+    public void checkSearchShouldMatchWordPrefixesIgnoringCaseAndYo() {
+
+        UUID beetUuid = save("Свёкла", "Овощи всесезонные");
+        UUID jamUuid = save("Варенье", "Консервы сладкие");
+        save("Сверло ДП", "Инструмент для ремонта");
+
+        assertAll(
+                () -> assertThat(uuids(indexedProductRepository.search("СВЕК", 10))).containsExactly(beetUuid),
+                () -> assertThat(uuids(indexedProductRepository.search("сладк варен", 10))).containsExactly(jamUuid),
+                () -> assertThat(uuids(indexedProductRepository.search("св", 10))).hasSize(2),
+                () -> assertThat(indexedProductRepository.search("св", 1)).hasSize(1),
+                () -> assertThat(indexedProductRepository.search("ладкие", 10)).isEmpty(),
+                () -> assertThat(indexedProductRepository.search(" ,. ", 10)).isEmpty()
+        );
+    }
+
+    @Test
+    public void checkSearchShouldReflectUpdatesAndDeletesWithoutRescan() {
+
+        UUID uuid = save("Свекла", "Овощи всесезонные");
+        indexedProductRepository.rebuild();
+
+        indexedProductRepository.updateById(Product.builder()
+                .uuid(uuid)
+                .name("Морковь")
+                .description("Овощи всесезонные")
+                .price(BigDecimal.ONE)
+                .build());
+
+        List<Product> actualAfterUpdate = indexedProductRepository.search("морк", 10);
+        List<Product> actualOldName = indexedProductRepository.search("свекла", 10);
+
+        indexedProductRepository.deleteById(uuid);
+
+        List<Product> actualAfterDelete = indexedProductRepository.search("овощи", 10);
+
+        Mockito.verify(productRepository, Mockito.times(1)).streamAll();
+
+        assertAll(
+                () -> assertThat(uuids(actualAfterUpdate)).containsExactly(uuid),
+                () -> assertThat(actualOldName).isEmpty(),
+                () -> assertThat(actualAfterDelete).isEmpty(),
+                () -> assertThat(indexedProductRepository.size()).isZero()
+        );
+    }
+
+    @Test
+    public void checkSearchShouldReturnIndexedProductsWithoutReadingRepository() {
+
+        UUID uuid = save("Свекла", "Овощи всесезонные");
+        indexedProductRepository.rebuild();
+
+        List<Product> actualProducts = indexedProductRepository.search("свекла", 10);
+        actualProducts.get(0).setName("Изменено");
+
+        Mockito.verify(productRepository, Mockito.never()).findById(Mockito.any());
+
+        assertAll(
+                () -> assertThat(actualProducts).extracting(Product::getUuid).containsExactly(uuid),
+                () -> assertThat(indexedProductRepository.search("свекла", 10)).extracting(Product::getName)
+                                                                               .containsExactly("Свекла")
+        );
+    }
+
+    @Test
+    public void checkSearchShouldSeeWritesOfTransactionOnlyAfterCommit() {
+
+        UUID beetUuid = save("Свекла", "Овощи всесезонные");
+        UUID carrotUuid = save("Морковь", "Овощи всесезонные");
+        Transaction transactionMock = mockActiveTransaction();
+
+        indexedProductRepository.updateById(Product.builder()
+                .uuid(beetUuid)
+                .name("Редис")
+                .description("Овощи всесезонные")
+                .price(BigDecimal.ONE)
+                .build());
+        Synchronization updateSynchronization = registeredSynchronization(transactionMock, 1);
+
+        indexedProductRepository.deleteById(carrotUuid);
+        Synchronization deleteSynchronization = registeredSynchronization(transactionMock, 2);
+
+        List<Product> actualBeforeCommit = indexedProductRepository.search("овощи", 10);
+
+        updateSynchronization.beforeCompletion();
+        updateSynchronization.afterCompletion(Status.STATUS_COMMITTED);
+        deleteSynchronization.afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertAll(
+                () -> assertThat(uuids(actualBeforeCommit)).containsExactlyInAnyOrder(beetUuid, carrotUuid),
+                () -> assertThat(indexedProductRepository.search("свекла", 10)).isEmpty(),
+                () -> assertThat(uuids(indexedProductRepository.search("редис", 10))).containsExactly(beetUuid),
+                () -> assertThat(uuids(indexedProductRepository.search("морковь", 10))).containsExactly(carrotUuid)
+        );
+    }
+
+    @Test
+    public void checkSearchShouldKeepLastCommittedWriteWhenCompletionsComeOutOfOrder() {
+
+        UUID uuid = save("Свекла", "Овощи всесезонные");
+        Transaction transactionMock = mockActiveTransaction();
+
+        indexedProductRepository.updateById(Product.builder()
+                .uuid(uuid)
+                .name("Редис")
+                .description("Овощи всесезонные")
+                .price(BigDecimal.ONE)
+                .build());
+        Synchronization firstSynchronization = registeredSynchronization(transactionMock, 1);
+
+        indexedProductRepository.deleteById(uuid);
+        Synchronization secondSynchronization = registeredSynchronization(transactionMock, 2);
+
+        firstSynchronization.beforeCompletion();
+        secondSynchronization.beforeCompletion();
+        secondSynchronization.afterCompletion(Status.STATUS_COMMITTED);
+        firstSynchronization.afterCompletion(Status.STATUS_COMMITTED);
+
+        assertAll(
+                () -> assertThat(indexedProductRepository.search("редис", 10)).isEmpty(),
+                () -> assertThat(indexedProductRepository.size()).isZero()
+        );
+    }
+
+    @Test
+    public void checkSaveAllShouldNotIndexProductsMissingInRepository() {
+
+        UUID uuid = save("Свекла", "Овощи всесезонные");
+        indexedProductRepository.rebuild();
+
+        indexedProductRepository.saveAll(List.of(
+                Product.builder()
+                        .uuid(new UUID(12L, 50L))
+                        .name("Свекольник")
+                        .description("Суп холодный")
+                        .price(BigDecimal.ONE)
+                        .created(LocalDateTime.now())
+                        .build(),
+                Product.builder()
+                        .uuid(uuid)
+                        .name("Свекла")
+                        .description("Овощи сезонные")
+                        .price(BigDecimal.TEN)
+                        .build()));
+
+        assertAll(
+                () -> assertThat(indexedProductRepository.findById(new UUID(12L, 50L))).isEmpty(),
+                () -> assertThat(uuids(indexedProductRepository.search("свек", 10))).containsExactly(uuid),
+                () -> assertThat(indexedProductRepository.search("свек", 10).get(0).getCreated()).isNotNull(),
+                () -> assertThat(indexedProductRepository.size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    public void checkRebuildShouldIndexProductsSavedBypassingDecorator() {
+
+        UUID uuid = productRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладости мучные")
+                .price(BigDecimal.TEN)
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        assertAll(
+                () -> assertThat(indexedProductRepository.rebuild()).isEqualTo(1),
+                () -> assertThat(uuids(indexedProductRepository.search("мучн", 10))).containsExactly(uuid)
+        );
+    }
+
+    private Transaction mockActiveTransaction() {
+
+        SessionFactory sessionFactoryMock = Mockito.mock(SessionFactory.class);
+        Session sessionMock = Mockito.mock(Session.class);
+        Transaction transactionMock = Mockito.mock(Transaction.class);
+
+        Mockito.when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.when(sessionMock.getTransaction()).thenReturn(transactionMock);
+        Mockito.when(transactionMock.isActive()).thenReturn(true);
+
+        indexedProductRepository = new IndexedProductRepository(productRepository, sessionFactoryMock);
+        indexedProductRepository.rebuild();
+
+        return transactionMock;
+    }
+
+    private static Synchronization registeredSynchronization(Transaction transactionMock, int registeredCount) {
+
+        ArgumentCaptor<Synchronization> synchronizationCaptor = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(transactionMock, Mockito.times(registeredCount))
+               .registerSynchronization(synchronizationCaptor.capture());
+
+        return synchronizationCaptor.getValue();
+    }
+
+    private UUID save(String name, String description) {
+        return indexedProductRepository.save(Product.builder()
+                .name(name)
+                .description(description)
+                .price(BigDecimal.ONE)
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+    }
+
+    private static List<UUID> uuids(List<Product> products) {
+        return products.stream()
+                       .map(Product::getUuid)
+                       .toList();
+    }
+}
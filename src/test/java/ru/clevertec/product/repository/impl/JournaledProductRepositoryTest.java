@@ -0,0 +1,206 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.exception.ProductJournalException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class JournaledProductRepositoryTest {
+
+    private static final int SLAB_SIZE = 64 * 1024;
+
+    @TempDir
+    private Path directory;
+
+    private Path journalFile;
+    private Path snapshotFile;
+    private JournaledProductRepository journaledProductRepository;
+
+    @BeforeEach
+    public void setUp() {
+        journalFile = directory.resolve("products.journal");
+        snapshotFile = directory.resolve("products.snapshot");
+        journaledProductRepository = open(new OffHeapProductRepository(SLAB_SIZE, 0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        journaledProductRepository.close();
+    }
+
+    @Test
+    public void checkRecoverShouldReplayWritesMadeBeforeClose() {
+
+        UUID updatedUuid = journaledProductRepository.save(product("Печенье", "4.48")).getUuid();
+        UUID deletedUuid = journaledProductRepository.save(product("Пряник", "2.10")).getUuid();
+        journaledProductRepository.updateById(Product.builder()
+                .uuid(updatedUuid)
+                .name("Печенье овсяное")
+                .description("Сладкие товары")
+                .price(new BigDecimal("5.00"))
+                .build());
+        journaledProductRepository.deleteById(deletedUuid);
+        journaledProductRepository.close();
+
+        OffHeapProductRepository actualRepository = new OffHeapProductRepository(SLAB_SIZE, 0);
+        journaledProductRepository = open(actualRepository);
+
+        int actualReplayedCount = journaledProductRepository.recover();
+
+        assertAll(
+                () -> assertThat(actualReplayedCount).isEqualTo(4),
+                () -> assertThat(actualRepository.findById(deletedUuid)).isEmpty(),
+                () -> assertThat(actualRepository.findById(updatedUuid)).map(Product::getName)
+                                                                        .contains("Печенье овсяное"),
+                () -> assertThat(actualRepository.getStatistics().size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    public void checkRecoverShouldCutOffIncompleteRecord() throws IOException {
+
+        UUID uuid = journaledProductRepository.save(product("Печенье", "4.48")).getUuid();
+        journaledProductRepository.close();
+
+        long journalSize = Files.size(journalFile);
+        Files.write(journalFile, new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        OffHeapProductRepository actualRepository = new OffHeapProductRepository(SLAB_SIZE, 0);
+        journaledProductRepository = open(actualRepository);
+
+        int actualReplayedCount = journaledProductRepository.recover();
+
+        assertAll(
+                () -> assertThat(actualReplayedCount).isEqualTo(1),
+                () -> assertThat(actualRepository.findById(uuid)).isPresent(),
+                () -> assertThat(Files.size(journalFile)).isEqualTo(journalSize)
+        );
+    }
+
+    @Test
+    public void checkCompactShouldWriteSnapshotAndTruncateJournal() throws IOException {
+
+        UUID uuid = journaledProductRepository.save(product("Печенье", "4.48")).getUuid();
+
+        journaledProductRepository.compact();
+        UUID savedAfterCompactionUuid = journaledProductRepository.save(product("Пряник", "2.10")).getUuid();
+        journaledProductRepository.close();
+
+        OffHeapProductRepository actualRepository = OffHeapProductRepository.openSnapshot(snapshotFile);
+        journaledProductRepository = open(actualRepository);
+
+        int actualReplayedCount = journaledProductRepository.recover();
+
+        assertAll(
+                () -> assertThat(actualReplayedCount).isEqualTo(1),
+                () -> assertThat(actualRepository.findById(uuid)).isPresent(),
+                () -> assertThat(actualRepository.findById(savedAfterCompactionUuid)).isPresent()
+        );
+    }
+
+    @Test
+    public void checkSaveShouldKeepAllConcurrentWritesInJournal() throws InterruptedException {
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        IntStream.range(0, 400)
+                 .forEach(i -> executorService.submit(() -> journaledProductRepository.save(
+                         product("Товар " + i, "1.00"))));
+
+        executorService.shutdown();
+        executorService.awaitTermination(30, TimeUnit.SECONDS);
+        journaledProductRepository.close();
+
+        OffHeapProductRepository actualRepository = new OffHeapProductRepository(SLAB_SIZE, 0);
+        journaledProductRepository = open(actualRepository);
+
+        int actualReplayedCount = journaledProductRepository.recover();
+
+        assertAll(
+                () -> assertThat(actualReplayedCount).isEqualTo(400),
+                () -> assertThat(actualRepository.getStatistics().size()).isEqualTo(400)
+        );
+    }
+
+    @Test
+    public void checkWritesShouldNotChangeRepositoryWhenJournalFails() {
+
+        OffHeapProductRepository offHeapProductRepository = new OffHeapProductRepository(SLAB_SIZE, 0);
+        ProductJournal productJournal = new ProductJournal(directory.resolve("failing.journal"), 32, 1);
+        JournaledProductRepository failingRepository = new JournaledProductRepository(offHeapProductRepository,
+                productJournal, null, Long.MAX_VALUE);
+
+        UUID uuid = failingRepository.save(product("Печенье", "4.48")).getUuid();
+        productJournal.close();
+
+        Product inputUpdatingProduct = Product.builder()
+                .uuid(uuid)
+                .name("Пряник")
+                .price(new BigDecimal("2.10"))
+                .build();
+
+        assertAll(
+                () -> assertThatExceptionOfType(ProductJournalException.class)
+                        .isThrownBy(() -> failingRepository.save(product("Варенье", "3.00"))),
+                () -> assertThatExceptionOfType(ProductJournalException.class)
+                        .isThrownBy(() -> failingRepository.updateById(inputUpdatingProduct)),
+                () -> assertThatExceptionOfType(ProductJournalException.class)
+                        .isThrownBy(() -> failingRepository.deleteById(uuid)),
+                () -> assertThat(offHeapProductRepository.findById(uuid)).map(Product::getName).contains("Печенье"),
+                () -> assertThat(offHeapProductRepository.getStatistics().size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    public void checkUpdateByIdShouldCompareVersionWithAppendedState() {
+
+        UUID uuid = journaledProductRepository.save(product("Печенье", "4.48")).getUuid();
+
+        Product inputUpdatingProduct = Product.builder()
+                .uuid(uuid)
+                .name("Пряник")
+                .price(new BigDecimal("2.10"))
+                .version(0L)
+                .build();
+
+        int actualFirstCount = journaledProductRepository.updateById(inputUpdatingProduct);
+        int actualStaleCount = journaledProductRepository.updateById(inputUpdatingProduct);
+
+        assertAll(
+                () -> assertThat(actualFirstCount).isEqualTo(1),
+                () -> assertThat(actualStaleCount).isZero(),
+                () -> assertThat(journaledProductRepository.findById(uuid)).map(Product::getVersion).contains(1L)
+        );
+    }
+
+    private JournaledProductRepository open(OffHeapProductRepository offHeapProductRepository) {
+        return new JournaledProductRepository(offHeapProductRepository, new ProductJournal(journalFile, 32, 1),
+                                              snapshotFile, Long.MAX_VALUE);
+    }
+
+    private static Product product(String name, String price) {
+        return Product.builder()
+                      .name(name)
+                      .price(new BigDecimal(price))
+                      .created(LocalDateTime.now())
+                      .build();
+    }
+}
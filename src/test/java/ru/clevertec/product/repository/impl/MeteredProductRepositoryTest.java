@@ -0,0 +1,74 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@ExtendWith(MockitoExtension.class)
+public class MeteredProductRepositoryTest {
+
+    @Mock
+    private ProductRepository productRepositoryMock;
+
+    private MeterRegistry meterRegistry;
+    private MeteredProductRepository meteredProductRepository;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        meteredProductRepository = new MeteredProductRepository(productRepositoryMock, meterRegistry);
+    }
+
+    @Test
+    public void checkFindByIdShouldDelegateAndRecordCallLatency() {
+
+        UUID inputUuid = new UUID(25L, 56L);
+
+        Mockito.when(productRepositoryMock.findById(inputUuid)).thenReturn(Optional.empty());
+
+        Optional<Product> actualProduct = meteredProductRepository.findById(inputUuid);
+
+        assertAll(
+                () -> assertThat(actualProduct).isEmpty(),
+                () -> assertThat(meterRegistry.get(MeteredProductRepository.CALLS_METRIC)
+                                              .tag("method", "findById")
+                                              .timer()
+                                              .count()).isEqualTo(1L),
+                () -> assertThat(meterRegistry.get(MeteredProductRepository.CALLS_METRIC)
+                                              .tag("method", "save")
+                                              .timer()
+                                              .count()).isZero()
+        );
+    }
+
+    @Test
+    public void checkDeleteByIdShouldRecordCallLatency() {
+
+        UUID inputUuid = new UUID(25L, 56L);
+
+        Mockito.when(productRepositoryMock.deleteById(inputUuid)).thenReturn(1);
+
+        int actualDeleted = meteredProductRepository.deleteById(inputUuid);
+
+        assertAll(
+                () -> assertThat(actualDeleted).isEqualTo(1),
+                () -> assertThat(meterRegistry.get(MeteredProductRepository.CALLS_METRIC)
+                                              .tag("method", "deleteById")
+                                              .timer()
+                                              .count()).isEqualTo(1L)
+        );
+    }
+}
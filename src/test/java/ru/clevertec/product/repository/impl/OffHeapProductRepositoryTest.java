@@ -0,0 +1,404 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductPageCursor;
+import ru.clevertec.product.repository.exception.ProductSnapshotException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class OffHeapProductRepositoryTest {
+
+    private static final int SLAB_SIZE = 64 * 1024;
+
+    private OffHeapProductRepository offHeapProductRepository;
+
+    @BeforeEach
+    public void setUp() {
+        offHeapProductRepository = new OffHeapProductRepository(SLAB_SIZE, 0);
+    }
+
+    @Test
+    public void checkSaveShouldStoreProductReadableByUUID() {
+
+        LocalDateTime created = LocalDateTime.of(2023, 10, 18, 12, 30, 15, 123_456_789);
+        Product inputSavingProduct = Product.builder()
+                .name("Свёкла")
+                .description("Овощи с грядки")
+                .price(new BigDecimal("3.44"))
+                .created(created)
+                .build();
+
+        UUID uuid = offHeapProductRepository.save(inputSavingProduct).getUuid();
+
+        Product actualProduct = offHeapProductRepository.findById(uuid).orElseThrow();
+
+        assertAll(
+                () -> assertThat(actualProduct.getUuid()).isEqualTo(uuid),
+                () -> assertThat(actualProduct.getName()).isEqualTo("Свёкла"),
+                () -> assertThat(actualProduct.getDescription()).isEqualTo("Овощи с грядки"),
+                () -> assertThat(actualProduct.getPrice()).isEqualTo(new BigDecimal("3.44")),
+                () -> assertThat(actualProduct.getCreated()).isEqualTo(created.withNano(123_456_000))
+        );
+    }
+
+    @Test
+    public void checkSaveShouldRoundPriceToColumnScale() {
+
+        UUID uuid = offHeapProductRepository.save(Product.builder()
+                .name("Соленье")
+                .price(new BigDecimal("4.485"))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        Product actualProduct = offHeapProductRepository.findById(uuid).orElseThrow();
+
+        assertAll(
+                () -> assertThat(actualProduct.getPrice()).isEqualTo(new BigDecimal("4.49")),
+                () -> assertThat(actualProduct.getDescription()).isNull()
+        );
+    }
+
+    @Test
+    public void checkSaveShouldMergeExistingProductInPlaceOrRelocated() {
+
+        LocalDateTime created = LocalDateTime.of(2023, 10, 18, 12, 0);
+        UUID uuid = offHeapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .description("Сладкие товары")
+                .price(new BigDecimal("4.48"))
+                .created(created)
+                .build()).getUuid();
+
+        offHeapProductRepository.save(Product.builder()
+                .uuid(uuid)
+                .name("Пряник")
+                .description("Сладость")
+                .price(new BigDecimal("2.10"))
+                .build());
+
+        OffHeapProductRepository.Statistics inPlaceStatistics = offHeapProductRepository.getStatistics();
+
+        offHeapProductRepository.save(Product.builder()
+                .uuid(uuid)
+                .name("Пряник тульский")
+                .description("Сладость с начинкой из повидла")
+                .price(new BigDecimal("5.00"))
+                .build());
+
+        OffHeapProductRepository.Statistics relocatedStatistics = offHeapProductRepository.getStatistics();
+        Product actualProduct = offHeapProductRepository.findById(uuid).orElseThrow();
+
+        assertAll(
+                () -> assertThat(inPlaceStatistics.garbageBytes()).isZero(),
+                () -> assertThat(relocatedStatistics.garbageBytes()).isPositive(),
+                () -> assertThat(relocatedStatistics.size()).isEqualTo(1),
+                () -> assertThat(actualProduct.getName()).isEqualTo("Пряник тульский"),
+                () -> assertThat(actualProduct.getDescription()).isEqualTo("Сладость с начинкой из повидла"),
+                () -> assertThat(actualProduct.getCreated()).isEqualTo(created),
+                () -> assertThat(offHeapProductRepository.findAll()).hasSize(1)
+        );
+    }
+
+    @Test
+    public void checkSaveShouldNotInsertProductWithUnknownUUID() {
+
+        offHeapProductRepository.save(Product.builder()
+                .uuid(new UUID(100L, 201L))
+                .name("Печенье")
+                .price(new BigDecimal("4.48"))
+                .created(LocalDateTime.now())
+                .build());
+
+        assertAll(
+                () -> assertThat(offHeapProductRepository.findById(new UUID(100L, 201L))).isEmpty(),
+                () -> assertThat(offHeapProductRepository.getStatistics().size()).isZero()
+        );
+    }
+
+    @Test
+    public void checkUpdateByIdShouldIncrementVersionAndRejectStaleVersion() {
+
+        UUID uuid = offHeapProductRepository.save(Product.builder()
+                .name("Соленье")
+                .price(new BigDecimal("3.44"))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        Product inputUpdatingProduct = Product.builder()
+                .uuid(uuid)
+                .name("Печенье")
+                .price(new BigDecimal("4.48"))
+                .version(0L)
+                .build();
+
+        int actualFirstCount = offHeapProductRepository.updateById(inputUpdatingProduct);
+        int actualStaleCount = offHeapProductRepository.updateById(inputUpdatingProduct.toBuilder()
+                .name("Пряник")
+                .build());
+
+        Product actualProduct = offHeapProductRepository.findById(uuid).orElseThrow();
+
+        assertAll(
+                () -> assertThat(actualFirstCount).isEqualTo(1),
+                () -> assertThat(actualStaleCount).isZero(),
+                () -> assertThat(actualProduct.getName()).isEqualTo("Печенье"),
+                () -> assertThat(actualProduct.getVersion()).isEqualTo(1L)
+        );
+    }
+
+    @Test
+    public void checkDeleteByIdShouldRemoveProductAndSkipItInScans() {
+
+        List<UUID> uuids = IntStream.range(0, 3)
+                                    .mapToObj(i -> offHeapProductRepository.save(Product.builder()
+                                            .name("Товар " + i)
+                                            .price(BigDecimal.valueOf(i))
+                                            .created(LocalDateTime.of(2023, 10, 18, 12, i))
+                                            .build()).getUuid())
+                                    .toList();
+
+        int actualDeletedCount = offHeapProductRepository.deleteById(uuids.get(1));
+
+        assertAll(
+                () -> assertThat(actualDeletedCount).isEqualTo(1),
+                () -> assertThat(offHeapProductRepository.deleteById(uuids.get(1))).isZero(),
+                () -> assertThat(offHeapProductRepository.findById(uuids.get(1))).isEmpty(),
+                () -> assertThat(offHeapProductRepository.findAllInfo()).hasSize(2),
+                () -> assertThat(offHeapProductRepository.findPage(null, 10))
+                        .extracting(Product::getUuid)
+                        .containsExactly(uuids.get(0), uuids.get(2))
+        );
+    }
+
+    @Test
+    public void checkFindPageShouldReturnProductsAfterCursorOrderedByCreated() {
+
+        LocalDateTime created = LocalDateTime.of(2023, 10, 18, 12, 0);
+        List<Product> products = IntStream.range(0, 5)
+                                          .mapToObj(i -> offHeapProductRepository.save(Product.builder()
+                                                  .name("Товар " + i)
+                                                  .price(BigDecimal.ONE)
+                                                  .created(created.minusMinutes(i))
+                                                  .build()))
+                                          .toList();
+
+        List<Product> firstPage = offHeapProductRepository.findPage(null, 2);
+        List<Product> secondPage = offHeapProductRepository.findPage(ProductPageCursor.of(firstPage.get(1)), 2);
+
+        assertAll(
+                () -> assertThat(firstPage).extracting(Product::getUuid)
+                                           .containsExactly(products.get(4).getUuid(), products.get(3).getUuid()),
+                () -> assertThat(secondPage).extracting(Product::getUuid)
+                                            .containsExactly(products.get(2).getUuid(), products.get(1).getUuid())
+        );
+    }
+
+    @Test
+    public void checkFindByPriceBetweenShouldReturnProductsOrderedByPrice() {
+
+        UUID expensive = offHeapProductRepository.save(Product.builder()
+                .name("Торт")
+                .price(new BigDecimal("10.00"))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+        UUID cheap = offHeapProductRepository.save(Product.builder()
+                .name("Хлеб")
+                .price(new BigDecimal("1.50"))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+        offHeapProductRepository.save(Product.builder()
+                .name("Икра")
+                .price(new BigDecimal("99.99"))
+                .created(LocalDateTime.now())
+                .build());
+
+        List<Product> actualProducts = offHeapProductRepository.findByPriceBetween(new BigDecimal("1.5"),
+                                                                                   new BigDecimal("10"));
+
+        assertThat(actualProducts).extracting(Product::getUuid)
+                                  .containsExactly(cheap, expensive);
+    }
+
+    @Test
+    public void checkLoadShouldKeepUUIDsAndGrowIndexAndSlabs() {
+
+        List<Product> inputProducts = IntStream.range(0, 5_000)
+                                               .mapToObj(i -> Product.builder()
+                                                       .uuid(new UUID(0L, i))
+                                                       .name("Товар " + i)
+                                                       .description("Описание товара номер " + i)
+                                                       .price(BigDecimal.valueOf(i, 2))
+                                                       .created(LocalDateTime.of(2023, 10, 18, 12, 0))
+                                                       .build())
+                                               .toList();
+
+        int actualLoadedCount = offHeapProductRepository.load(inputProducts.stream());
+
+        OffHeapProductRepository.Statistics actualStatistics = offHeapProductRepository.getStatistics();
+
+        try (Stream<Product> products = offHeapProductRepository.streamAll()) {
+            assertAll(
+                    () -> assertThat(actualLoadedCount).isEqualTo(5_000),
+                    () -> assertThat(actualStatistics.size()).isEqualTo(5_000),
+                    () -> assertThat(actualStatistics.slabs()).isGreaterThan(1),
+                    () -> assertThat(offHeapProductRepository.findById(new UUID(0L, 4_321L)))
+                            .map(Product::getName)
+                            .contains("Товар 4321"),
+                    () -> assertThat(products.count()).isEqualTo(5_000)
+            );
+        }
+    }
+
+    @Test
+    public void checkOpenSnapshotShouldReturnProductsOfWrittenSnapshot(@TempDir Path directory) {
+
+        Path snapshotFile = directory.resolve("products.snapshot");
+        List<UUID> uuids = IntStream.range(0, 2_000)
+                                    .mapToObj(i -> offHeapProductRepository.save(Product.builder()
+                                            .name("Товар " + i)
+                                            .description("Описание товара номер " + i)
+                                            .price(BigDecimal.valueOf(i, 2))
+                                            .created(LocalDateTime.of(2023, 10, 18, 12, 0).plusSeconds(i))
+                                            .build()).getUuid())
+                                    .toList();
+        offHeapProductRepository.deleteById(uuids.get(0));
+        offHeapProductRepository.setLoadedUntil(LocalDateTime.of(2023, 10, 19, 9, 30, 0, 123_000));
+
+        long actualSnapshotSize = offHeapProductRepository.writeSnapshot(snapshotFile);
+
+        OffHeapProductRepository actualRepository = OffHeapProductRepository.openSnapshot(snapshotFile);
+
+        assertAll(
+                () -> assertThat(actualSnapshotSize).isEqualTo(Files.size(snapshotFile)),
+                () -> assertThat(actualRepository.getStatistics()).isEqualTo(offHeapProductRepository.getStatistics()),
+                () -> assertThat(actualRepository.getLoadedUntil())
+                        .isEqualTo(LocalDateTime.of(2023, 10, 19, 9, 30, 0, 123_000)),
+                () -> assertThat(actualRepository.findById(uuids.get(0))).isEmpty(),
+                () -> assertThat(actualRepository.findById(uuids.get(1_234))).map(Product::getName)
+                                                                              .contains("Товар 1234"),
+                () -> assertThat(actualRepository.findAll()).containsExactlyElementsOf(
+                        offHeapProductRepository.findAll())
+        );
+    }
+
+    @Test
+    public void checkOpenSnapshotShouldNotWriteChangesToSnapshotFile(@TempDir Path directory) {
+
+        Path snapshotFile = directory.resolve("products.snapshot");
+        UUID uuid = offHeapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .price(new BigDecimal("4.48"))
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+        offHeapProductRepository.writeSnapshot(snapshotFile);
+
+        OffHeapProductRepository openedRepository = OffHeapProductRepository.openSnapshot(snapshotFile);
+        openedRepository.updateById(Product.builder()
+                .uuid(uuid)
+                .name("Пряник")
+                .price(new BigDecimal("2.10"))
+                .build());
+        UUID addedUuid = openedRepository.save(Product.builder()
+                .name("Хлеб")
+                .price(BigDecimal.ONE)
+                .created(LocalDateTime.now())
+                .build()).getUuid();
+
+        OffHeapProductRepository actualRepository = OffHeapProductRepository.openSnapshot(snapshotFile);
+
+        assertAll(
+                () -> assertThat(openedRepository.findById(uuid)).map(Product::getName).contains("Пряник"),
+                () -> assertThat(openedRepository.findById(addedUuid)).isPresent(),
+                () -> assertThat(actualRepository.findById(uuid)).map(Product::getName).contains("Печенье"),
+                () -> assertThat(actualRepository.findById(addedUuid)).isEmpty()
+        );
+    }
+
+    @Test
+    public void checkOpenSnapshotShouldThrowProductSnapshotExceptionWhenFileCorrupted(@TempDir Path directory)
+            throws IOException {
+
+        Path snapshotFile = directory.resolve("products.snapshot");
+        offHeapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .price(new BigDecimal("4.48"))
+                .created(LocalDateTime.now())
+                .build());
+        offHeapProductRepository.writeSnapshot(snapshotFile);
+
+        byte[] snapshot = Files.readAllBytes(snapshotFile);
+        snapshot[snapshot.length - 1] ^= 1;
+        Files.write(snapshotFile, snapshot);
+
+        assertThatExceptionOfType(ProductSnapshotException.class)
+                .isThrownBy(() -> OffHeapProductRepository.openSnapshot(snapshotFile))
+                .withMessageContaining("checksum");
+    }
+
+    @Test
+    public void checkOpenSnapshotShouldCheckIndexOnlyWhenVerificationAsked(@TempDir Path directory)
+            throws IOException {
+
+        Path snapshotFile = directory.resolve("products.snapshot");
+        offHeapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .price(new BigDecimal("4.48"))
+                .created(LocalDateTime.now())
+                .build());
+        offHeapProductRepository.writeSnapshot(snapshotFile);
+
+        byte[] snapshot = Files.readAllBytes(snapshotFile);
+        int indexOffset = 64 + 2 * Long.BYTES;
+        snapshot[indexOffset + 3] ^= 1;
+        Files.write(snapshotFile, snapshot);
+
+        assertAll(
+                () -> assertThat(OffHeapProductRepository.openSnapshot(snapshotFile)).isNotNull(),
+                () -> assertThatExceptionOfType(ProductSnapshotException.class)
+                        .isThrownBy(() -> OffHeapProductRepository.openSnapshot(snapshotFile, true))
+                        .withMessageContaining("uuid index")
+        );
+    }
+
+    @Test
+    public void checkOpenSnapshotShouldThrowProductSnapshotExceptionWhenDigestsCorrupted(@TempDir Path directory)
+            throws IOException {
+
+        Path snapshotFile = directory.resolve("products.snapshot");
+        offHeapProductRepository.save(Product.builder()
+                .name("Печенье")
+                .price(new BigDecimal("4.48"))
+                .created(LocalDateTime.now())
+                .build());
+        offHeapProductRepository.writeSnapshot(snapshotFile);
+
+        byte[] snapshot = Files.readAllBytes(snapshotFile);
+        snapshot[64] ^= 1;
+        Files.write(snapshotFile, snapshot);
+
+        assertThatExceptionOfType(ProductSnapshotException.class)
+                .isThrownBy(() -> OffHeapProductRepository.openSnapshot(snapshotFile))
+                .withMessageContaining("checksum");
+    }
+
+    @Test
+    public void checkConstructorShouldThrowIllegalArgumentExceptionWhenSlabTooSmall() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new OffHeapProductRepository(1024, 0));
+    }
+}
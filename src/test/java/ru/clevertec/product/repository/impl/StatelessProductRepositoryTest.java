@@ -0,0 +1,258 @@
+package ru.clevertec.product.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Cache;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.jdbc.Work;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+public class StatelessProductRepositoryTest {
+
+    @Mock
+    private SessionFactory sessionFactoryMock;
+
+    @Mock
+    private StatelessSession statelessSessionMock;
+
+    @Mock
+    private Transaction transactionMock;
+
+    @Mock
+    private Cache cacheMock;
+
+    @Mock
+    private Query<Product> queryMock;
+
+    @Mock
+    private ScrollableResults<Product> scrollableResultsMock;
+
+    @Mock
+    private Connection connectionMock;
+
+    @Mock
+    private PreparedStatement preparedStatementMock;
+
+    @InjectMocks
+    private StatelessProductRepository statelessProductRepository;
+
+    @Test
+    public void checkSaveAllShouldInsertNewAndUpdateExistingProductsInOneTransaction() throws Exception {
+
+        Product newProduct = buildProduct(null);
+        Product existingProduct = buildProduct(new UUID(128L, 256L));
+
+        Mockito.when(sessionFactoryMock.openStatelessSession()).thenReturn(statelessSessionMock);
+        Mockito.when(statelessSessionMock.beginTransaction()).thenReturn(transactionMock);
+        Mockito.when(sessionFactoryMock.getCache()).thenReturn(cacheMock);
+        Mockito.when(connectionMock.prepareStatement(Mockito.anyString())).thenReturn(preparedStatementMock);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Work>getArgument(0).execute(connectionMock);
+            return null;
+        }).when(statelessSessionMock).doWork(Mockito.any());
+
+        List<Product> actualProducts = statelessProductRepository.saveAll(List.of(newProduct, existingProduct));
+
+        InOrder inOrder = Mockito.inOrder(statelessSessionMock, transactionMock, preparedStatementMock, cacheMock);
+        inOrder.verify(statelessSessionMock).insert(newProduct);
+        inOrder.verify(preparedStatementMock).setObject(4, existingProduct.getUuid());
+        inOrder.verify(preparedStatementMock).addBatch();
+        inOrder.verify(preparedStatementMock, Mockito.times(2)).executeBatch();
+        inOrder.verify(transactionMock).commit();
+        inOrder.verify(statelessSessionMock).close();
+        inOrder.verify(cacheMock).evictEntityData(Product.class, existingProduct.getUuid());
+        inOrder.verify(cacheMock).evictQueryRegions();
+
+        Mockito.verify(sessionFactoryMock, Mockito.times(1)).openStatelessSession();
+        Mockito.verify(statelessSessionMock, Mockito.never()).get(Mockito.eq(Product.class), Mockito.any());
+        Mockito.verify(statelessSessionMock, Mockito.never()).createMutationQuery(Mockito.anyString());
+
+        assertThat(actualProducts).containsExactly(newProduct, existingProduct);
+    }
+
+    @Test
+    public void checkSaveAllShouldRollbackAndCloseSessionWhenInsertFails() {
+
+        Product newProduct = buildProduct(null);
+
+        Mockito.when(sessionFactoryMock.openStatelessSession()).thenReturn(statelessSessionMock);
+        Mockito.when(statelessSessionMock.beginTransaction()).thenReturn(transactionMock);
+        Mockito.when(transactionMock.isActive()).thenReturn(true);
+        Mockito.when(statelessSessionMock.insert(newProduct)).thenThrow(new PersistenceException("Constraint violation"));
+
+        assertThatExceptionOfType(PersistenceException.class)
+                .isThrownBy(() -> statelessProductRepository.saveAll(List.of(newProduct)));
+
+        assertAll(
+                () -> Mockito.verify(transactionMock).rollback(),
+                () -> Mockito.verify(transactionMock, Mockito.never()).commit(),
+                () -> Mockito.verify(statelessSessionMock).close()
+        );
+    }
+
+    @Test
+    public void checkDeleteByIdShouldReturnZeroWithoutOpeningSessionWhenNullUUIDGiven() {
+
+        int actualDeleted = statelessProductRepository.deleteById(null);
+
+        Mockito.verifyNoInteractions(sessionFactoryMock);
+
+        assertThat(actualDeleted).isZero();
+    }
+
+    @Test
+    public void checkStreamAllShouldKeepSessionOpenUntilStreamIsClosed() {
+
+        Product product = buildProduct(new UUID(128L, 256L));
+
+        Mockito.when(sessionFactoryMock.openStatelessSession()).thenReturn(statelessSessionMock);
+        Mockito.when(statelessSessionMock.beginTransaction()).thenReturn(transactionMock);
+        Mockito.when(statelessSessionMock.createQuery(Mockito.anyString(), Mockito.eq(Product.class)))
+                .thenReturn(queryMock);
+        Mockito.when(queryMock.setFetchSize(Mockito.anyInt())).thenReturn(queryMock);
+        Mockito.when(queryMock.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(scrollableResultsMock);
+        Mockito.when(scrollableResultsMock.next()).thenReturn(true, false);
+        Mockito.when(scrollableResultsMock.get()).thenReturn(product);
+
+        List<Product> actualProducts;
+        try (Stream<Product> products = statelessProductRepository.streamAll()) {
+            actualProducts = products.toList();
+
+            Mockito.verify(statelessSessionMock, Mockito.never()).close();
+        }
+
+        assertAll(
+                () -> assertThat(actualProducts).containsExactly(product),
+                () -> Mockito.verify(scrollableResultsMock).close(),
+                () -> Mockito.verify(transactionMock).commit(),
+                () -> Mockito.verify(statelessSessionMock).close()
+        );
+    }
+
+    @Test
+    public void checkSaveShouldNotLeaveStalePageInQueryCache() {
+
+        SessionFactory sessionFactory = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:stateless-query-cache;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.current_session_context_class", "thread")
+                .setProperty("hibernate.cache.use_second_level_cache", "true")
+                .setProperty("hibernate.cache.use_query_cache", "true")
+                .setProperty("hibernate.cache.region.factory_class", "jcache")
+                .setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .setProperty("hibernate.javax.cache.uri", "ehcache.xml")
+                .addAnnotatedClass(Product.class)
+                .buildSessionFactory();
+
+        try (sessionFactory) {
+            InMemoryProductRepository inMemoryProductRepository = new InMemoryProductRepository(sessionFactory);
+            StatelessProductRepository repository = new StatelessProductRepository(sessionFactory);
+
+            Product firstProduct = repository.save(buildProduct(null));
+            List<Product> cachedPage = findFirstPage(sessionFactory, inMemoryProductRepository);
+
+            Product secondProduct = repository.save(buildProduct(null));
+            repository.updateById(firstProduct.toBuilder()
+                                              .name("Пряник")
+                                              .version(null)
+                                              .build());
+
+            List<Product> actualPage = findFirstPage(sessionFactory, inMemoryProductRepository);
+
+            assertAll(
+                    () -> assertThat(cachedPage).extracting(Product::getUuid)
+                                                .containsExactly(firstProduct.getUuid()),
+                    () -> assertThat(actualPage).extracting(Product::getUuid)
+                                                .containsExactlyInAnyOrder(firstProduct.getUuid(),
+                                                                           secondProduct.getUuid()),
+                    () -> assertThat(actualPage).extracting(Product::getName)
+                                                .contains("Пряник")
+            );
+        }
+    }
+
+    @Test
+    public void checkSaveAllShouldUpdateProductsInBatchesCheckingVersionWhenGiven() {
+
+        SessionFactory sessionFactory = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:stateless-batch-update;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "2")
+                .addAnnotatedClass(Product.class)
+                .buildSessionFactory();
+
+        try (sessionFactory) {
+            StatelessProductRepository repository = new StatelessProductRepository(sessionFactory);
+
+            List<Product> savedProducts = findAll(repository, repository.saveAll(
+                    List.of(buildProduct(null), buildProduct(null), buildProduct(null))));
+            long firstVersion = savedProducts.get(0).getVersion();
+            long secondVersion = savedProducts.get(1).getVersion();
+            long thirdVersion = savedProducts.get(2).getVersion();
+
+            repository.saveAll(List.of(savedProducts.get(0).toBuilder().name("Пряник").version(null).build(),
+                                       savedProducts.get(1).toBuilder().name("Пряник").build(),
+                                       savedProducts.get(2).toBuilder().name("Пряник").version(thirdVersion + 1)
+                                                    .build()));
+
+            List<Product> actualProducts = findAll(repository, savedProducts);
+
+            assertThat(actualProducts).extracting(Product::getName, Product::getVersion)
+                                      .containsExactly(tuple("Пряник", firstVersion + 1),
+                                                       tuple("Пряник", secondVersion + 1),
+                                                       tuple("Печенье", thirdVersion));
+        }
+    }
+
+    private static List<Product> findAll(ProductRepository productRepository, List<Product> products) {
+        return products.stream()
+                       .map(product -> productRepository.findById(product.getUuid()).orElseThrow())
+                       .toList();
+    }
+
+    private static List<Product> findFirstPage(SessionFactory sessionFactory, ProductRepository productRepository) {
+
+        Transaction transaction = sessionFactory.getCurrentSession().beginTransaction();
+        List<Product> page = productRepository.findPage(null, 10);
+        transaction.commit();
+
+        return page;
+    }
+
+    private static Product buildProduct(UUID uuid) {
+        return Product.builder()
+                .uuid(uuid)
+                .name("Печенье")
+                .description("Сладость")
+                .price(new BigDecimal("6.28"))
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package ru.clevertec.product.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.service.ProductService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncProductServiceImplTest {
+
+    private static final int MAX_CONCURRENCY = 2;
+
+    @Mock
+    private ProductService productServiceMock;
+    @Mock
+    private SessionFactory sessionFactoryMock;
+    @Mock
+    private Session sessionMock;
+    @Mock
+    private Transaction transactionMock;
+
+    private AsyncProductServiceImpl asyncProductServiceImpl;
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.lenient().when(sessionFactoryMock.getCurrentSession()).thenReturn(sessionMock);
+        Mockito.lenient().when(sessionMock.beginTransaction()).thenReturn(transactionMock);
+
+        asyncProductServiceImpl = new AsyncProductServiceImpl(productServiceMock, sessionFactoryMock,
+                                                              MAX_CONCURRENCY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        asyncProductServiceImpl.close();
+    }
+
+    @Test
+    public void checkGetShouldCompleteWithInfoProductDtoAndCommitTransaction() {
+
+        UUID inputUuid = new UUID(25L, 56L);
+        InfoProductDto expectedInfoProductDto = new InfoProductDto(inputUuid, "Варенье", "Консервы сладкие",
+                                                                   new BigDecimal("8.25"), null);
+
+        Mockito.when(productServiceMock.get(inputUuid)).thenReturn(expectedInfoProductDto);
+
+        InfoProductDto actualInfoProductDto = asyncProductServiceImpl.get(inputUuid).join();
+
+        Mockito.verify(transactionMock).commit();
+        Mockito.verify(transactionMock, Mockito.never()).rollback();
+
+        assertThat(actualInfoProductDto).isEqualTo(expectedInfoProductDto);
+    }
+
+    @Test
+    public void checkGetShouldCompleteExceptionallyAndRollbackTransaction() {
+
+        UUID inputUuid = new UUID(25L, 56L);
+
+        Mockito.when(productServiceMock.get(inputUuid)).thenThrow(new ProductNotFoundException(inputUuid));
+        Mockito.when(transactionMock.isActive()).thenReturn(true);
+
+        CompletableFuture<InfoProductDto> actualFuture = asyncProductServiceImpl.get(inputUuid);
+
+        assertThatExceptionOfType(CompletionException.class)
+                .isThrownBy(actualFuture::join)
+                .withCauseInstanceOf(ProductNotFoundException.class);
+
+        Mockito.verify(transactionMock).rollback();
+        Mockito.verify(transactionMock, Mockito.never()).commit();
+    }
+
+    @Test
+    public void checkCallsShouldNotExceedMaxConcurrency() throws InterruptedException {
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(MAX_CONCURRENCY);
+
+        Mockito.when(productServiceMock.getAll()).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            TimeUnit.MILLISECONDS.sleep(20);
+            running.decrementAndGet();
+
+            return List.of();
+        });
+
+        List<CompletableFuture<List<InfoProductDto>>> actualFutures = IntStream.range(0, 20)
+                .mapToObj(i -> asyncProductServiceImpl.getAll())
+                .toList();
+
+        CompletableFuture.allOf(actualFutures.toArray(CompletableFuture[]::new)).join();
+
+        assertAll(
+                () -> assertThat(started.await(0, TimeUnit.SECONDS)).isTrue(),
+                () -> assertThat(maxRunning.get()).isLessThanOrEqualTo(MAX_CONCURRENCY),
+                () -> Mockito.verify(transactionMock, Mockito.times(20)).commit()
+        );
+    }
+
+    @Test
+    public void checkConstructorShouldThrowIllegalArgumentExceptionWhenConcurrencyIsNotPositive() {
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new AsyncProductServiceImpl(productServiceMock, sessionFactoryMock, 0));
+    }
+}
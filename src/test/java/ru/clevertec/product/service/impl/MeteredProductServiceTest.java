@@ -0,0 +1,103 @@
+package ru.clevertec.product.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.service.ProductService;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+public class MeteredProductServiceTest {
+
+    @Mock
+    private ProductService productServiceMock;
+
+    private MeterRegistry meterRegistry;
+    private MeteredProductService meteredProductService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        meteredProductService = new MeteredProductService(productServiceMock, meterRegistry);
+    }
+
+    @Test
+    public void checkGetShouldRecordCallLatency() {
+
+        UUID inputUuid = new UUID(25L, 56L);
+        InfoProductDto expectedInfoProductDto = new InfoProductDto(inputUuid, "Варенье", "Консервы сладкие",
+                                                                   new BigDecimal("8.25"), null);
+
+        Mockito.when(productServiceMock.get(inputUuid)).thenReturn(expectedInfoProductDto);
+
+        InfoProductDto actualInfoProductDto = meteredProductService.get(inputUuid);
+
+        assertAll(
+                () -> assertThat(actualInfoProductDto).isEqualTo(expectedInfoProductDto),
+                () -> assertThat(meterRegistry.get(MeteredProductService.CALLS_METRIC)
+                                              .tag("method", "get")
+                                              .timer()
+                                              .count()).isEqualTo(1L),
+                () -> assertThat(meterRegistry.get(MeteredProductService.NOT_FOUND_METRIC)
+                                              .counter()
+                                              .count()).isZero()
+        );
+    }
+
+    @Test
+    public void checkGetShouldCountProductNotFoundException() {
+
+        UUID inputUuid = new UUID(25L, 56L);
+
+        Mockito.when(productServiceMock.get(inputUuid)).thenThrow(new ProductNotFoundException(inputUuid));
+
+        assertThatExceptionOfType(ProductNotFoundException.class)
+                .isThrownBy(() -> meteredProductService.get(inputUuid));
+
+        assertAll(
+                () -> assertThat(meterRegistry.get(MeteredProductService.NOT_FOUND_METRIC)
+                                              .counter()
+                                              .count()).isEqualTo(1.0),
+                () -> assertThat(meterRegistry.get(MeteredProductService.CALLS_METRIC)
+                                              .tag("method", "get")
+                                              .timer()
+                                              .count()).isEqualTo(1L)
+        );
+    }
+
+    @Test
+    public void checkStreamAllShouldRecordLatencyWhenStreamIsClosed() {
+
+        Mockito.when(productServiceMock.streamAll()).thenReturn(Stream.empty());
+
+        Stream<InfoProductDto> actualStream = meteredProductService.streamAll();
+
+        long countBeforeClose = meterRegistry.get(MeteredProductService.CALLS_METRIC)
+                                             .tag("method", "streamAll")
+                                             .timer()
+                                             .count();
+        actualStream.close();
+
+        assertAll(
+                () -> assertThat(countBeforeClose).isZero(),
+                () -> assertThat(meterRegistry.get(MeteredProductService.CALLS_METRIC)
+                                              .tag("method", "streamAll")
+                                              .timer()
+                                              .count()).isEqualTo(1L)
+        );
+    }
+}
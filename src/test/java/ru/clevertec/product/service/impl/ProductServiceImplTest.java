@@ -1,5 +1,6 @@
 package ru.clevertec.product.service.impl;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -8,20 +9,28 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.InfoProductPage;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.entity.Product;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.exception.ProductUpdateConflictException;
 import ru.clevertec.product.mapper.ProductMapper;
 import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.ProductPageCursor;
 import ru.clevertec.product.repository.ProductRepository;
 import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.util.PageTokenCodec;
+import ru.clevertec.product.validation.ProductValidator;
+import ru.clevertec.product.validation.impl.ProductValidatorImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -35,13 +44,19 @@ public class ProductServiceImplTest {
     private ProductMapper productMapperSpy = new ProductMapperImpl();
     @Mock
     private ProductRepository productRepositoryMock;
+    @Spy
+    private ProductValidator productValidatorSpy = new ProductValidatorImpl();
 
     @Captor
     private ArgumentCaptor<Product> productArgumentCaptor;
 
-    @InjectMocks
     private ProductServiceImpl productServiceImpl;
 
+    @BeforeEach
+    public void setUp() {
+        productServiceImpl = new ProductServiceImpl(productMapperSpy, productRepositoryMock, productValidatorSpy);
+    }
+
     @Test
     public void checkGetShouldReturnInfoProductDTO() {
 
@@ -83,38 +98,25 @@ public class ProductServiceImplTest {
     @Test
     public void checkGetAllShouldReturnInfoProductDTOs() {
 
-        List<Product> expectedProducts = new ArrayList<>() {{
-            add(Product.builder()
-                    .uuid(new UUID(12L, 50L))
-                    .name("Варенье")
-                    .description("Консервы сладкие")
-                    .price(new BigDecimal(8.25f))
-                    .created(LocalDateTime.now())
-                    .build());
-            add(Product.builder()
-                    .uuid(new UUID(25L, 56L))
-                    .name("Печенье")
-                    .description("Консервы соленые")
-                    .price(new BigDecimal(5.12f))
-                    .created(LocalDateTime.now())
-                    .build());
-        }};
+        List<InfoProductDto> expectedInfoProductDtos = List.of(
+                new InfoProductDto(new UUID(12L, 50L), "Варенье", "Консервы сладкие", new BigDecimal("8.25"), null),
+                new InfoProductDto(new UUID(25L, 56L), "Печенье", "Консервы соленые", new BigDecimal("5.12"), null));
 
-        Mockito.when(productRepositoryMock.findAll())
-                .thenReturn(expectedProducts);
+        Mockito.when(productRepositoryMock.findAllInfo())
+                .thenReturn(expectedInfoProductDtos);
 
         List<InfoProductDto> actualInfoProductDTOs = productServiceImpl.getAll();
 
-        assertAll(
-                () -> assertThat(actualInfoProductDTOs).isNotEmpty(),
-                () -> assertThat(actualInfoProductDTOs).hasSize(2)
-        );
+        Mockito.verify(productRepositoryMock, Mockito.never()).findAll();
+        Mockito.verify(productMapperSpy, Mockito.never()).toInfoProductDto(Mockito.any(Product.class));
+
+        assertThat(actualInfoProductDTOs).containsExactlyElementsOf(expectedInfoProductDtos);
     }
 
     @Test
     public void checkGetAllShouldReturnEmptyListInfoProductDTOs() {
 
-        Mockito.when(productRepositoryMock.findAll())
+        Mockito.when(productRepositoryMock.findAllInfo())
                 .thenReturn(new ArrayList<>());
 
         List<InfoProductDto> actualInfoProductDTOs = productServiceImpl.getAll();
@@ -122,6 +124,176 @@ public class ProductServiceImplTest {
         assertThat(actualInfoProductDTOs).isEmpty();
     }
 
+    @Test
+    public void checkStreamAllShouldReturnValidInfoProductDTOs() {
+
+        Mockito.when(productRepositoryMock.streamAll())
+                .thenReturn(Stream.of(Product.builder()
+                                .uuid(new UUID(12L, 50L))
+                                .name("Варенье")
+                                .description("Консервы сладкие")
+                                .price(new BigDecimal(8.25f))
+                                .created(LocalDateTime.now())
+                                .build(),
+                        Product.builder()
+                                .uuid(new UUID(25L, 56L))
+                                .name("Суп")
+                                .description("Консервы соленые")
+                                .price(new BigDecimal(5.12f))
+                                .created(LocalDateTime.now())
+                                .build()));
+
+        List<InfoProductDto> actualInfoProductDTOs;
+        try (Stream<InfoProductDto> infoProductDTOs = productServiceImpl.streamAll()) {
+            actualInfoProductDTOs = infoProductDTOs.toList();
+        }
+
+        assertAll(
+                () -> assertThat(actualInfoProductDTOs).hasSize(1),
+                () -> assertThat(actualInfoProductDTOs.get(0).name()).isEqualTo("Варенье")
+        );
+    }
+
+    @Test
+    public void checkGetPageShouldReturnPageWithNextPageToken() {
+
+        List<Product> expectedProducts = List.of(
+                Product.builder()
+                        .uuid(new UUID(12L, 50L))
+                        .name("Варенье")
+                        .description("Консервы сладкие")
+                        .price(new BigDecimal(8.25f))
+                        .created(LocalDateTime.of(2023, 10, 1, 12, 0))
+                        .build(),
+                Product.builder()
+                        .uuid(new UUID(25L, 56L))
+                        .name("Печенье")
+                        .description("Консервы соленые")
+                        .price(new BigDecimal(5.12f))
+                        .created(LocalDateTime.of(2023, 10, 2, 12, 0))
+                        .build());
+
+        Mockito.when(productRepositoryMock.findPage(Mockito.isNull(), Mockito.eq(2)))
+                .thenReturn(expectedProducts);
+
+        InfoProductPage firstPage = productServiceImpl.getPage(null, 1);
+
+        Mockito.when(productRepositoryMock.findPage(Mockito.any(ProductPageCursor.class), Mockito.eq(2)))
+                .thenReturn(expectedProducts.subList(1, 2));
+
+        InfoProductPage secondPage = productServiceImpl.getPage(firstPage.nextPageToken(), 1);
+
+        ArgumentCaptor<ProductPageCursor> cursorArgumentCaptor = ArgumentCaptor.forClass(ProductPageCursor.class);
+        Mockito.verify(productRepositoryMock, Mockito.times(2))
+                .findPage(cursorArgumentCaptor.capture(), Mockito.eq(2));
+
+        assertAll(
+                () -> assertThat(firstPage.products()).hasSize(1),
+                () -> assertThat(firstPage.products().get(0).name()).isEqualTo("Варенье"),
+                () -> assertThat(firstPage.nextPageToken()).isNotNull(),
+                () -> assertThat(cursorArgumentCaptor.getAllValues())
+                        .containsExactly(null, ProductPageCursor.of(expectedProducts.get(0))),
+                () -> assertThat(cursorArgumentCaptor.getValue())
+                        .isEqualTo(ProductPageCursor.of(expectedProducts.get(0))),
+                () -> assertThat(secondPage.products()).hasSize(1),
+                () -> assertThat(secondPage.nextPageToken()).isNull()
+        );
+    }
+
+    @Test
+    public void checkGetPageShouldFillPageWithValidProducts() {
+
+        List<Product> expectedProducts = IntStream.range(0, 5)
+                .mapToObj(i -> Product.builder()
+                        .uuid(new UUID(i, i))
+                        .name(i == 1 || i == 2 ? "Soup" : "Варенье")
+                        .description("Консервы сладкие")
+                        .price(BigDecimal.TEN)
+                        .created(LocalDateTime.of(2023, 10, 1, 12, 0).plusDays(i))
+                        .build())
+                .toList();
+
+        Mockito.when(productRepositoryMock.findPage(Mockito.isNull(), Mockito.eq(3)))
+                .thenReturn(expectedProducts.subList(0, 3));
+        Mockito.when(productRepositoryMock.findPage(ProductPageCursor.of(expectedProducts.get(2)), 2))
+                .thenReturn(expectedProducts.subList(3, 5));
+
+        InfoProductPage actualPage = productServiceImpl.getPage(null, 2);
+
+        assertAll(
+                () -> assertThat(actualPage.products()).extracting(InfoProductDto::uuid)
+                        .containsExactly(expectedProducts.get(0).getUuid(), expectedProducts.get(3).getUuid()),
+                () -> assertThat(PageTokenCodec.decode(actualPage.nextPageToken()))
+                        .isEqualTo(ProductPageCursor.of(expectedProducts.get(3)))
+        );
+    }
+
+    @Test
+    public void checkGetPageShouldThrowIllegalArgumentExceptionOnInvalidToken() {
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> productServiceImpl.getPage("not a token", 10));
+    }
+
+    @Test
+    public void checkGetPageShouldThrowIllegalArgumentExceptionOnNonPositiveLimit() {
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> productServiceImpl.getPage(null, 0));
+    }
+
+    @Test
+    public void checkSearchShouldReturnValidInfoProductDTOs() {
+
+        Product foundProduct = Product.builder()
+                .uuid(new UUID(12L, 34L))
+                .name("Свекла")
+                .description("Овощи всесезонные")
+                .price(new BigDecimal("5.21"))
+                .build();
+
+        Mockito.when(productRepositoryMock.search("свек", 5)).thenReturn(List.of(foundProduct));
+
+        List<InfoProductDto> actualInfoProductDtos = productServiceImpl.search("свек", 5);
+
+        assertThat(actualInfoProductDtos).extracting(InfoProductDto::uuid)
+                                         .containsExactly(foundProduct.getUuid());
+    }
+
+    @Test
+    public void checkSearchShouldThrowIllegalArgumentExceptionOnNonPositiveLimit() {
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> productServiceImpl.search("свек", 0));
+    }
+
+    @Test
+    public void checkGetByPriceBetweenShouldReturnValidInfoProductDTOs() {
+
+        Product foundProduct = Product.builder()
+                .uuid(new UUID(12L, 34L))
+                .name("Свекла")
+                .description("Овощи всесезонные")
+                .price(new BigDecimal("5.21"))
+                .build();
+
+        Mockito.when(productRepositoryMock.findByPriceBetween(null, BigDecimal.TEN)).thenReturn(List.of(foundProduct));
+
+        List<InfoProductDto> actualInfoProductDtos = productServiceImpl.getByPriceBetween(null, BigDecimal.TEN);
+
+        assertThat(actualInfoProductDtos).extracting(InfoProductDto::uuid)
+                                         .containsExactly(foundProduct.getUuid());
+    }
+
+    @Test
+    public void checkGetCreatedBetweenShouldThrowIllegalArgumentExceptionOnReversedRange() {
+
+        LocalDateTime to = LocalDateTime.now();
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> productServiceImpl.getCreatedBetween(to.plusDays(1), to));
+    }
+
     @Test
     public void checkCreateShouldReturnUUIDOfCreatedProduct() {
 
@@ -157,6 +329,72 @@ public class ProductServiceImplTest {
         assertThat(actualUUID).isNull();
     }
 
+    @Test
+    public void checkCreateAllShouldSaveOnlyValidProducts() {
+
+        Mockito.when(productRepositoryMock.saveAll(Mockito.anyCollection()))
+                .thenAnswer(invocation -> {
+                    List<Product> savedProducts = invocation.getArgument(0);
+                    savedProducts.forEach(product -> product.setUuid(UUID.randomUUID()));
+                    return savedProducts;
+                });
+
+        List<ProductDto> inputProductDTOs = new ArrayList<>() {{
+            add(ProductDto.builder()
+                    .name("Печенье")
+                    .description("Сладости мучные")
+                    .price(new BigDecimal(5.22f))
+                    .build());
+            add(null);
+            add(ProductDto.builder()
+                    .name("Суп")
+                    .description("Сладости мучные")
+                    .price(new BigDecimal(5.22f))
+                    .build());
+            add(ProductDto.builder()
+                    .name("Варенье")
+                    .description("Сладости ягодные")
+                    .price(new BigDecimal(3.12f))
+                    .build());
+        }};
+
+        List<UUID> actualUUIDs = productServiceImpl.createAll(inputProductDTOs);
+
+        ArgumentCaptor<List<Product>> productsArgumentCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(productRepositoryMock).saveAll(productsArgumentCaptor.capture());
+
+        assertAll(
+                () -> assertThat(actualUUIDs).hasSize(2).doesNotContainNull(),
+                () -> assertThat(productsArgumentCaptor.getValue()).extracting(Product::getName)
+                        .containsExactly("Печенье", "Варенье")
+        );
+    }
+
+    @Test
+    public void checkUpdateAllShouldUpdateOnlyValidProducts() {
+
+        UUID validUuid = new UUID(245L, 324L);
+
+        Map<UUID, ProductDto> inputProductDTOs = Map.of(
+                validUuid, ProductDto.builder()
+                        .name("Печенье")
+                        .description("Сладости мучные")
+                        .price(new BigDecimal(5.22f))
+                        .build(),
+                new UUID(1L, 2L), ProductDto.builder()
+                        .name("Печенье")
+                        .description("Сладости мучные")
+                        .build());
+
+        productServiceImpl.updateAll(inputProductDTOs);
+
+        ArgumentCaptor<List<Product>> productsArgumentCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(productRepositoryMock).saveAll(productsArgumentCaptor.capture());
+
+        assertThat(productsArgumentCaptor.getValue()).extracting(Product::getUuid)
+                .containsExactly(validUuid);
+    }
+
     @Test
     public void checkUpdateShouldUpdateExistingProduct() {
 
@@ -167,24 +405,93 @@ public class ProductServiceImplTest {
                 .price(new BigDecimal(5.22f))
                 .build();
 
-        productServiceImpl.update(inputUuid, inputProductDto);
+        Mockito.when(productRepositoryMock.updateById(Mockito.any(Product.class)))
+                .thenReturn(1);
 
-        Mockito.verify(productRepositoryMock).save(productArgumentCaptor.capture());
+        boolean isUpdated = productServiceImpl.update(inputUuid, inputProductDto);
+
+        Mockito.verify(productRepositoryMock).updateById(productArgumentCaptor.capture());
 
         assertAll(
+                () -> assertThat(isUpdated).isTrue(),
                 () -> assertThat(productArgumentCaptor.getValue()).isNotNull(),
                 () -> assertThat(productArgumentCaptor.getValue()).isInstanceOf(Product.class),
-                () -> assertThat(productArgumentCaptor.getValue().getUuid()).isEqualTo(inputUuid)
+                () -> assertThat(productArgumentCaptor.getValue().getUuid()).isEqualTo(inputUuid),
+                () -> assertThat(productArgumentCaptor.getValue().getVersion()).isNull(),
+                () -> Mockito.verify(productRepositoryMock, Mockito.never()).findById(Mockito.any(UUID.class))
         );
     }
 
+    @Test
+    public void checkUpdateShouldPassVersionOfDtoToRepository() {
+
+        UUID inputUuid = new UUID(245L, 324L);
+
+        Mockito.when(productRepositoryMock.updateById(Mockito.any(Product.class)))
+                .thenReturn(1);
+
+        boolean isUpdated = productServiceImpl.update(inputUuid, ProductDto.builder()
+                .name("Печенье")
+                .description("Сладости мучные")
+                .price(new BigDecimal(5.22f))
+                .version(7L)
+                .build());
+
+        Mockito.verify(productRepositoryMock).updateById(productArgumentCaptor.capture());
+
+        assertAll(
+                () -> assertThat(isUpdated).isTrue(),
+                () -> assertThat(productArgumentCaptor.getValue().getVersion()).isEqualTo(7L),
+                () -> Mockito.verify(productRepositoryMock, Mockito.never()).findById(Mockito.any(UUID.class))
+        );
+    }
+
+    @Test
+    public void checkUpdateShouldThrowProductUpdateConflictExceptionWhenVersionIsStale() {
+
+        UUID inputUuid = new UUID(245L, 324L);
+        ProductDto inputProductDto = ProductDto.builder()
+                .name("Печенье")
+                .description("Сладости мучные")
+                .price(new BigDecimal(5.22f))
+                .version(1L)
+                .build();
+
+        Mockito.when(productRepositoryMock.updateById(Mockito.any(Product.class)))
+                .thenReturn(0);
+
+        assertAll(
+                () -> assertThatExceptionOfType(ProductUpdateConflictException.class)
+                        .isThrownBy(() -> productServiceImpl.update(inputUuid, inputProductDto)),
+                () -> Mockito.verify(productRepositoryMock).updateById(Mockito.any(Product.class)),
+                () -> Mockito.verify(productRepositoryMock, Mockito.never()).findById(Mockito.any(UUID.class))
+        );
+    }
+
+    @Test
+    public void checkUpdateShouldReturnFalseWhenProductNotFound() {
+
+        Mockito.when(productRepositoryMock.updateById(Mockito.any(Product.class)))
+                .thenReturn(0);
+
+        boolean isUpdated = productServiceImpl.update(new UUID(245L, 324L), ProductDto.builder()
+                .name("Печенье")
+                .description("Сладости мучные")
+                .price(new BigDecimal(5.22f))
+                .build());
+
+        assertThat(isUpdated).isFalse();
+    }
+
     @ParameterizedTest
     @MethodSource("getNegativeInputForUpdate")
     public void checkUpdateShouldNotUpdateExistingProduct(UUID inputUUID, ProductDto inputProductDTO) {
 
-        productServiceImpl.update(inputUUID, inputProductDTO);
+        boolean isUpdated = productServiceImpl.update(inputUUID, inputProductDTO);
+
+        Mockito.verify(productRepositoryMock, Mockito.never()).updateById(Mockito.any(Product.class));
 
-        Mockito.verify(productRepositoryMock, Mockito.never()).save(Mockito.any(Product.class));
+        assertThat(isUpdated).isFalse();
 
     }
 
@@ -196,17 +503,30 @@ public class ProductServiceImplTest {
 
         UUID inputUUUID = UUID.randomUUID();
 
-        productServiceImpl.delete(inputUUUID);
+        Mockito.when(productRepositoryMock.deleteById(Mockito.any(UUID.class)))
+                .thenReturn(1);
 
+        boolean isDeleted = productServiceImpl.delete(inputUUUID);
 
-        Mockito.verify(productRepositoryMock).delete(uuidArgumentCaptor.capture());
+
+        Mockito.verify(productRepositoryMock).deleteById(uuidArgumentCaptor.capture());
 
         assertAll(
+                () -> assertThat(isDeleted).isTrue(),
                 () -> assertThat(uuidArgumentCaptor.getValue()).isNotNull(),
                 () -> assertThat(uuidArgumentCaptor.getValue()).isEqualTo(inputUUUID)
         );
     }
 
+    @Test
+    public void checkDeleteShouldReturnFalseWhenProductNotFound() {
+
+        Mockito.when(productRepositoryMock.deleteById(Mockito.any(UUID.class)))
+                .thenReturn(0);
+
+        assertThat(productServiceImpl.delete(UUID.randomUUID())).isFalse();
+    }
+
     private static Stream<ProductDto> getNegativeInputForCreate() {
         return Stream.of(
                 null,
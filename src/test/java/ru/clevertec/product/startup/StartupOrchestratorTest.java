@@ -0,0 +1,99 @@
+package ru.clevertec.product.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.repository.database.connnection.AppConnection;
+import ru.clevertec.product.repository.database.data.DatabaseManager;
+import ru.clevertec.product.repository.database.data.exception.DatabaseManagerException;
+import ru.clevertec.product.repository.database.service.DatabaseService;
+import ru.clevertec.product.startup.exception.StartupException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class StartupOrchestratorTest {
+
+    @Mock
+    private DatabaseService databaseServiceMock;
+    @Mock
+    private DatabaseManager databaseManagerMock;
+    @Mock
+    private AppConnection appConnectionMock;
+    @Mock
+    private SessionFactory sessionFactoryMock;
+    @Mock
+    private StatelessSession statelessSessionMock;
+    @Mock
+    private NativeQuery<Integer> nativeQueryMock;
+
+    @Test
+    public void checkStartShouldBuildSessionFactoryWhileMigrating() {
+
+        CountDownLatch sessionFactoryBuilding = new CountDownLatch(1);
+
+        Mockito.doAnswer(invocation -> {
+            assertThat(sessionFactoryBuilding.await(5, TimeUnit.SECONDS)).isTrue();
+            return null;
+        }).when(databaseManagerMock).loadData();
+        Mockito.when(appConnectionMock.getSessionFactory()).thenAnswer(invocation -> {
+            sessionFactoryBuilding.countDown();
+            return sessionFactoryMock;
+        });
+        Mockito.when(sessionFactoryMock.openStatelessSession()).thenReturn(statelessSessionMock);
+        Mockito.when(statelessSessionMock.createNativeQuery(Mockito.anyString(), Mockito.eq(Integer.class)))
+               .thenReturn(nativeQueryMock);
+
+        StartupReport actualStartupReport = new StartupOrchestrator(databaseServiceMock, databaseManagerMock,
+                                                                    appConnectionMock).start();
+
+        assertAll(
+                () -> assertThat(actualStartupReport.phases()).containsKeys(StartupOrchestrator.DATABASE_PHASE,
+                        StartupOrchestrator.MIGRATION_PHASE, StartupOrchestrator.SESSION_FACTORY_PHASE,
+                        StartupOrchestrator.WARM_UP_PHASE),
+                () -> Mockito.verify(databaseServiceMock).start(),
+                () -> Mockito.verify(nativeQueryMock).getSingleResult(),
+                () -> Mockito.verify(databaseServiceMock, Mockito.never()).stop()
+        );
+    }
+
+    @Test
+    public void checkStartShouldStopDatabaseAndThrowStartupExceptionWhenMigrationFailed() {
+
+        Mockito.doThrow(new DatabaseManagerException()).when(databaseManagerMock).loadData();
+        Mockito.when(appConnectionMock.getSessionFactory()).thenReturn(sessionFactoryMock);
+        Mockito.when(sessionFactoryMock.openStatelessSession()).thenReturn(statelessSessionMock);
+        Mockito.when(statelessSessionMock.createNativeQuery(Mockito.anyString(), Mockito.eq(Integer.class)))
+               .thenReturn(nativeQueryMock);
+
+        StartupOrchestrator startupOrchestrator = new StartupOrchestrator(databaseServiceMock, databaseManagerMock,
+                                                                          appConnectionMock);
+
+        assertThatExceptionOfType(StartupException.class)
+                .isThrownBy(startupOrchestrator::start)
+                .withCauseInstanceOf(DatabaseManagerException.class);
+
+        Mockito.verify(databaseServiceMock).stop();
+    }
+
+    @Test
+    public void checkStartShouldThrowStartupExceptionWhenSessionFactoryIsNotBuilt() {
+
+        StartupOrchestrator startupOrchestrator = new StartupOrchestrator(databaseServiceMock, databaseManagerMock,
+                                                                          appConnectionMock);
+
+        assertThatExceptionOfType(StartupException.class)
+                .isThrownBy(startupOrchestrator::start)
+                .withCauseInstanceOf(StartupException.class);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.clevertec.product.validation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Size;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class ProductValidatorImplTest {
+
+    private static Validator validator;
+    private static ProductValidatorImpl productValidatorImpl;
+
+    @BeforeAll
+    public static void setUp() {
+        validator = Validation.byDefaultProvider()
+                              .configure()
+                              .messageInterpolator(new ParameterMessageInterpolator())
+                              .buildValidatorFactory()
+                              .getValidator();
+        productValidatorImpl = new ProductValidatorImpl(validator);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getProductDTOs")
+    public void checkIsValidShouldAgreeWithBeanValidationForProductDto(ProductDto inputProductDto) {
+
+        boolean expectedValid = validator.validate(inputProductDto).isEmpty();
+
+        assertThat(productValidatorImpl.isValid(inputProductDto)).isEqualTo(expectedValid);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getInfoProductDTOs")
+    public void checkIsValidShouldAgreeWithBeanValidationForInfoProductDto(InfoProductDto inputInfoProductDto) {
+
+        boolean expectedValid = validator.validate(inputInfoProductDto).isEmpty();
+
+        assertThat(productValidatorImpl.isValid(inputInfoProductDto)).isEqualTo(expectedValid);
+    }
+
+    @Test
+    public void checkIsValidShouldReturnFalseWhenNullGiven() {
+
+        ProductDto inputProductDto = null;
+
+        assertThat(productValidatorImpl.isValid(inputProductDto)).isFalse();
+    }
+
+    @Test
+    public void checkCompileShouldReturnPlanForProductDto() {
+
+        assertThat(ConstraintPlan.compile(validator, ProductDto.class,
+                Map.<String, Function<ProductDto, Object>>of(
+                        "name", ProductDto::name,
+                        "description", ProductDto::description,
+                        "price", ProductDto::price))).isPresent();
+    }
+
+    @Test
+    public void checkCompileShouldReturnEmptyPlanOnUnsupportedConstraint() {
+
+        assertThat(ConstraintPlan.compile(validator, SizedDto.class,
+                Map.<String, Function<SizedDto, Object>>of("name", SizedDto::name))).isEmpty();
+    }
+
+    @Test
+    public void checkCompileShouldReturnEmptyPlanOnUnknownProperty() {
+
+        assertThat(ConstraintPlan.compile(validator, ProductDto.class,
+                Map.<String, Function<ProductDto, Object>>of("name", ProductDto::name))).isEmpty();
+    }
+
+    private static Stream<ProductDto> getProductDTOs() {
+        return Stream.of(
+                ProductDto.builder()
+                        .name("Варенье")
+                        .description("Мучные конфеты")
+                        .price(new BigDecimal(5.28f))
+                        .build(),
+                ProductDto.builder()
+                        .name("Варенье")
+                        .price(new BigDecimal("0.01"))
+                        .build(),
+                ProductDto.builder()
+                        .name(null)
+                        .description("Мучные конфеты")
+                        .price(new BigDecimal(5.28f))
+                        .build(),
+                ProductDto.builder()
+                        .name("Суп")
+                        .description("Мучные конфеты")
+                        .price(new BigDecimal(5.28f))
+                        .build(),
+                ProductDto.builder()
+                        .name("Varenie")
+                        .description("Мучные конфеты")
+                        .price(new BigDecimal(5.28f))
+                        .build(),
+                ProductDto.builder()
+                        .name("Варенье")
+                        .description("Мучное")
+                        .price(new BigDecimal(5.28f))
+                        .build(),
+                ProductDto.builder()
+                        .name("Варенье")
+                        .description("Мучные конфеты")
+                        .build(),
+                ProductDto.builder()
+                        .name("Варенье")
+                        .description("Мучные конфеты")
+                        .price(new BigDecimal("0.00"))
+                        .build(),
+                ProductDto.builder()
+                        .name("Варенье")
+                        .description("Мучные конфеты")
+                        .price(new BigDecimal("-1"))
+                        .build()
+        );
+    }
+
+    private static Stream<InfoProductDto> getInfoProductDTOs() {
+        return Stream.of(
+                new InfoProductDto(UUID.randomUUID(), "Варенье", "Мучные конфеты", new BigDecimal("5.28"), null),
+                new InfoProductDto(UUID.randomUUID(), "Варенье", "", BigDecimal.ZERO, null),
+                new InfoProductDto(null, "Варенье", "Мучные конфеты", new BigDecimal("5.28"), null),
+                new InfoProductDto(UUID.randomUUID(), "", "Мучные конфеты", new BigDecimal("5.28"), null),
+                new InfoProductDto(UUID.randomUUID(), "Gегмей", "Сувенир для нее", new BigDecimal("105.88"), null),
+                new InfoProductDto(UUID.randomUUID(), "Варенье", null, new BigDecimal("5.28"), null),
+                new InfoProductDto(UUID.randomUUID(), "Варенье", "Мучные конфеты", null, null),
+                new InfoProductDto(UUID.randomUUID(), "Варенье", "Мучные конфеты", new BigDecimal("-0.01"), null)
+        );
+    }
+
+    private record SizedDto(@Size(max = 5) String name) {
+    }
+}
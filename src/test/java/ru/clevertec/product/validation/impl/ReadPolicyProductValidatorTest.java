@@ -0,0 +1,111 @@
+package ru.clevertec.product.validation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.validation.ProductValidator;
+import ru.clevertec.product.validation.ReadValidationPolicy;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadPolicyProductValidatorTest {
+
+    private static final InfoProductDto INFO_PRODUCT_DTO = new InfoProductDto(new UUID(25L, 56L), "Варенье",
+                                                                              "Консервы сладкие",
+                                                                              new BigDecimal("8.25"), null);
+
+    @Mock
+    private ProductValidator productValidatorMock;
+
+    @Test
+    public void checkIsValidShouldValidateEveryReadWhenPolicyIsAlways() {
+
+        Mockito.when(productValidatorMock.isValid(INFO_PRODUCT_DTO)).thenReturn(true);
+
+        ReadPolicyProductValidator readPolicyProductValidator = new ReadPolicyProductValidator(productValidatorMock,
+                ReadValidationPolicy.ALWAYS, 100);
+
+        IntStream.range(0, 10).forEach(i -> readPolicyProductValidator.isValid(INFO_PRODUCT_DTO));
+
+        Mockito.verify(productValidatorMock, Mockito.times(10)).isValid(INFO_PRODUCT_DTO);
+    }
+
+    @Test
+    public void checkIsValidShouldTrustReadsWhenPolicyIsNever() {
+
+        ReadPolicyProductValidator readPolicyProductValidator = new ReadPolicyProductValidator(productValidatorMock,
+                ReadValidationPolicy.NEVER, 100);
+
+        boolean isValid = readPolicyProductValidator.isValid(INFO_PRODUCT_DTO);
+
+        Mockito.verify(productValidatorMock, Mockito.never()).isValid(Mockito.any(InfoProductDto.class));
+
+        assertThat(isValid).isTrue();
+    }
+
+    @Test
+    public void checkIsValidShouldValidateOneOfNReadsAndCountInvalidWhenPolicyIsSampled() {
+
+        Mockito.when(productValidatorMock.isValid(INFO_PRODUCT_DTO)).thenReturn(false);
+
+        ReadPolicyProductValidator readPolicyProductValidator = new ReadPolicyProductValidator(productValidatorMock,
+                ReadValidationPolicy.SAMPLED, 4);
+
+        long actualRejected = IntStream.range(0, 10)
+                                       .filter(i -> !readPolicyProductValidator.isValid(INFO_PRODUCT_DTO))
+                                       .count();
+
+        Mockito.verify(productValidatorMock, Mockito.times(3)).isValid(INFO_PRODUCT_DTO);
+
+        assertAll(
+                () -> assertThat(actualRejected).isEqualTo(3L),
+                () -> assertThat(readPolicyProductValidator.getInvalidReadCount()).isEqualTo(3L)
+        );
+    }
+
+    @Test
+    public void checkIsValidShouldAlwaysValidateProductDtoWhenPolicyIsNever() {
+
+        ProductDto inputProductDto = ProductDto.builder()
+                .name("Печенье")
+                .description("Сладости мучные")
+                .price(new BigDecimal("5.22"))
+                .build();
+
+        Mockito.when(productValidatorMock.isValid(inputProductDto)).thenReturn(true);
+
+        ReadPolicyProductValidator readPolicyProductValidator = new ReadPolicyProductValidator(productValidatorMock,
+                ReadValidationPolicy.NEVER, 100);
+
+        readPolicyProductValidator.isValid(inputProductDto);
+
+        Mockito.verify(productValidatorMock).isValid(inputProductDto);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"always", "SAMPLED", " never "})
+    public void checkFromNameShouldParsePolicyName(String inputName) {
+
+        assertThat(ReadValidationPolicy.fromName(inputName)).isNotNull();
+    }
+
+    @Test
+    public void checkFromNameShouldThrowIllegalArgumentExceptionOnUnknownName() {
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> ReadValidationPolicy.fromName("sometimes"));
+    }
+}